@@ -0,0 +1,94 @@
+/*
+ * Copyright 2022 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.benchmarks;
+
+import io.vertx.core.Context;
+import io.vertx.core.MultiMap;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.handler.BodyHandler;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Collection of an in-memory request body by {@code BodyHandlerImpl}, the body is delivered as a single buffer and the
+ * final handler reads it as a buffer or decodes it as JSON. With {@code composite} the received buffer is kept as is
+ * instead of being copied in the body buffer.
+ */
+public class BodyHandlerBenchmark extends BenchmarkBase {
+
+  @Param({"64", "4096", "65536"})
+  public int size;
+
+  @Param({"application/octet-stream", "application/json"})
+  public String contentType;
+
+  @Param({"false", "true"})
+  public boolean composite;
+
+  private Vertx vertx;
+  private Context context;
+  private Router router;
+  private Buffer body;
+
+  @Setup
+  public void setup() {
+    vertx = Vertx.vertx();
+    context = vertx.getOrCreateContext();
+    router = Router.router(vertx);
+
+    router.post("/body")
+      .handler(BodyHandler.create(false).setCompositeBody(composite))
+      .handler(ctx -> {
+        if (contentType.equals("application/json")) {
+          ctx.response().end(String.valueOf(ctx.body().asJsonObject().size()));
+        } else {
+          ctx.response().end(String.valueOf(ctx.body().length()));
+        }
+      });
+
+    if (contentType.equals("application/json")) {
+      final StringBuilder json = new StringBuilder("{");
+      for (int i = 0; json.length() < size - 16; i++) {
+        if (i > 0) {
+          json.append(',');
+        }
+        json.append("\"field").append(i).append("\":").append(i);
+      }
+      body = Buffer.buffer(json.append('}').toString());
+    } else {
+      body = Buffer.buffer(new byte[size]);
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    vertx.close();
+  }
+
+  @Benchmark
+  public int handle() {
+    final MultiMap headers = HttpHeaders.headers()
+      .set(HttpHeaders.CONTENT_TYPE, contentType)
+      .set(HttpHeaders.CONTENT_LENGTH, String.valueOf(body.length()));
+
+    final FakeHttpServerRequest request = new FakeHttpServerRequest(context, HttpMethod.POST, "/body", headers, body);
+    router.handle(request);
+    return request.response().getStatusCode();
+  }
+}
@@ -0,0 +1,297 @@
+/*
+ * Copyright 2022 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.benchmarks;
+
+import io.netty.handler.codec.DecoderResult;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.MultiMap;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.*;
+import io.vertx.core.http.impl.HttpServerRequestInternal;
+import io.vertx.core.net.NetSocket;
+
+import javax.security.cert.X509Certificate;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A request that never touches the network. The body, if any, is delivered synchronously as a single buffer as soon as
+ * an end handler is set, so a whole routing chain runs on the calling thread unless a handler goes async.
+ */
+public class FakeHttpServerRequest implements HttpServerRequestInternal {
+
+  private final Context context;
+  private final HttpMethod method;
+  private final String uri;
+  private final String path;
+  private final String query;
+  private final MultiMap headers;
+  private final Buffer body;
+  private final FakeHttpServerResponse response;
+
+  private MultiMap params;
+  private Handler<Buffer> handler;
+  private boolean ended;
+  private boolean expectMultipart;
+  private String paramsCharset = "UTF-8";
+
+  public FakeHttpServerRequest(Context context, HttpMethod method, String uri, MultiMap headers, Buffer body) {
+    this.context = context;
+    this.method = method;
+    this.uri = uri;
+    final int idx = uri.indexOf('?');
+    this.path = idx == -1 ? uri : uri.substring(0, idx);
+    this.query = idx == -1 ? null : uri.substring(idx + 1);
+    this.headers = headers;
+    this.body = body;
+    this.response = new FakeHttpServerResponse();
+    // a request without a body has already been fully read
+    this.ended = body == null;
+  }
+
+  public FakeHttpServerRequest(Context context, HttpMethod method, String uri) {
+    this(context, method, uri, HttpHeaders.headers(), null);
+  }
+
+  @Override
+  public FakeHttpServerResponse response() {
+    return response;
+  }
+
+  @Override
+  public Context context() {
+    return context;
+  }
+
+  @Override
+  public Object metric() {
+    return null;
+  }
+
+  @Override
+  public HttpServerRequest exceptionHandler(Handler<Throwable> handler) {
+    return this;
+  }
+
+  @Override
+  public HttpServerRequest handler(Handler<Buffer> handler) {
+    this.handler = handler;
+    return this;
+  }
+
+  @Override
+  public HttpServerRequest pause() {
+    return this;
+  }
+
+  @Override
+  public HttpServerRequest resume() {
+    return this;
+  }
+
+  @Override
+  public HttpServerRequest fetch(long amount) {
+    return this;
+  }
+
+  @Override
+  public HttpServerRequest endHandler(Handler<Void> endHandler) {
+    if (endHandler != null && !ended) {
+      ended = true;
+      if (handler != null) {
+        handler.handle(body);
+      }
+      endHandler.handle(null);
+    }
+    return this;
+  }
+
+  @Override
+  public HttpVersion version() {
+    return HttpVersion.HTTP_1_1;
+  }
+
+  @Override
+  public HttpMethod method() {
+    return method;
+  }
+
+  @Override
+  public String scheme() {
+    return "http";
+  }
+
+  @Override
+  public String uri() {
+    return uri;
+  }
+
+  @Override
+  public String path() {
+    return path;
+  }
+
+  @Override
+  public String query() {
+    return query;
+  }
+
+  @Override
+  public String host() {
+    return headers.get(HttpHeaders.HOST);
+  }
+
+  @Override
+  public long bytesRead() {
+    return body == null ? 0 : body.length();
+  }
+
+  @Override
+  public MultiMap headers() {
+    return headers;
+  }
+
+  @Override
+  public HttpServerRequest setParamsCharset(String charset) {
+    this.paramsCharset = charset;
+    return this;
+  }
+
+  @Override
+  public String getParamsCharset() {
+    return paramsCharset;
+  }
+
+  @Override
+  public MultiMap params() {
+    if (params == null) {
+      params = MultiMap.caseInsensitiveMultiMap();
+      if (query != null) {
+        final QueryStringDecoder decoder = new QueryStringDecoder(query, false);
+        for (Map.Entry<String, List<String>> entry : decoder.parameters().entrySet()) {
+          params.add(entry.getKey(), entry.getValue());
+        }
+      }
+    }
+    return params;
+  }
+
+  @Override
+  public X509Certificate[] peerCertificateChain() {
+    return null;
+  }
+
+  @Override
+  public String absoluteURI() {
+    return "http://" + host() + uri;
+  }
+
+  @Override
+  public Future<Buffer> body() {
+    return Future.succeededFuture(body);
+  }
+
+  @Override
+  public Future<Void> end() {
+    return Future.succeededFuture();
+  }
+
+  @Override
+  public Future<NetSocket> toNetSocket() {
+    return Future.failedFuture(new UnsupportedOperationException());
+  }
+
+  @Override
+  public HttpServerRequest setExpectMultipart(boolean expect) {
+    this.expectMultipart = expect;
+    return this;
+  }
+
+  @Override
+  public boolean isExpectMultipart() {
+    return expectMultipart;
+  }
+
+  @Override
+  public HttpServerRequest uploadHandler(Handler<HttpServerFileUpload> uploadHandler) {
+    return this;
+  }
+
+  @Override
+  public MultiMap formAttributes() {
+    return MultiMap.caseInsensitiveMultiMap();
+  }
+
+  @Override
+  public String getFormAttribute(String attributeName) {
+    return null;
+  }
+
+  @Override
+  public Future<ServerWebSocket> toWebSocket() {
+    return Future.failedFuture(new UnsupportedOperationException());
+  }
+
+  @Override
+  public boolean isEnded() {
+    return ended;
+  }
+
+  @Override
+  public HttpServerRequest customFrameHandler(Handler<HttpFrame> handler) {
+    return this;
+  }
+
+  @Override
+  public HttpConnection connection() {
+    return null;
+  }
+
+  @Override
+  public HttpServerRequest streamPriorityHandler(Handler<StreamPriority> handler) {
+    return this;
+  }
+
+  @Override
+  public DecoderResult decoderResult() {
+    return DecoderResult.SUCCESS;
+  }
+
+  @Override
+  public Cookie getCookie(String name) {
+    return null;
+  }
+
+  @Override
+  public Cookie getCookie(String name, String domain, String path) {
+    return null;
+  }
+
+  @Override
+  public Set<Cookie> cookies(String name) {
+    return Collections.emptySet();
+  }
+
+  @Override
+  public Set<Cookie> cookies() {
+    return Collections.emptySet();
+  }
+}
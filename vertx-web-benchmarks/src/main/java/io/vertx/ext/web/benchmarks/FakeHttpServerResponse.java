@@ -0,0 +1,388 @@
+/*
+ * Copyright 2022 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.benchmarks;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.MultiMap;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.Cookie;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServerResponse;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A response that discards what is written, it only records the status code and the number of bytes written. Files
+ * are not read, {@link #sendFile(String, long, long)} only accounts the requested length.
+ */
+public class FakeHttpServerResponse implements HttpServerResponse {
+
+  private final MultiMap headers = HttpHeaders.headers();
+  private final CompletableFuture<Integer> completion = new CompletableFuture<>();
+
+  private int statusCode = 200;
+  private String statusMessage;
+  private boolean chunked;
+  private boolean headWritten;
+  private boolean ended;
+  private long bytesWritten;
+  private MultiMap trailers;
+
+  private Handler<Void> headersEndHandler;
+  private Handler<Void> bodyEndHandler;
+  private Handler<Void> endHandler;
+
+  /**
+   * @return a future completed with the status code when the response ends.
+   */
+  public CompletableFuture<Integer> completion() {
+    return completion;
+  }
+
+  @Override
+  public HttpServerResponse exceptionHandler(Handler<Throwable> handler) {
+    return this;
+  }
+
+  @Override
+  public HttpServerResponse setWriteQueueMaxSize(int maxSize) {
+    return this;
+  }
+
+  @Override
+  public boolean writeQueueFull() {
+    return false;
+  }
+
+  @Override
+  public HttpServerResponse drainHandler(Handler<Void> handler) {
+    return this;
+  }
+
+  @Override
+  public int getStatusCode() {
+    return statusCode;
+  }
+
+  @Override
+  public HttpServerResponse setStatusCode(int statusCode) {
+    this.statusCode = statusCode;
+    return this;
+  }
+
+  @Override
+  public String getStatusMessage() {
+    return statusMessage;
+  }
+
+  @Override
+  public HttpServerResponse setStatusMessage(String statusMessage) {
+    this.statusMessage = statusMessage;
+    return this;
+  }
+
+  @Override
+  public HttpServerResponse setChunked(boolean chunked) {
+    this.chunked = chunked;
+    return this;
+  }
+
+  @Override
+  public boolean isChunked() {
+    return chunked;
+  }
+
+  @Override
+  public MultiMap headers() {
+    return headers;
+  }
+
+  @Override
+  public HttpServerResponse putHeader(String name, String value) {
+    headers.set(name, value);
+    return this;
+  }
+
+  @Override
+  public HttpServerResponse putHeader(CharSequence name, CharSequence value) {
+    headers.set(name, value);
+    return this;
+  }
+
+  @Override
+  public HttpServerResponse putHeader(String name, Iterable<String> values) {
+    headers.set(name, values);
+    return this;
+  }
+
+  @Override
+  public HttpServerResponse putHeader(CharSequence name, Iterable<CharSequence> values) {
+    headers.set(name, values);
+    return this;
+  }
+
+  @Override
+  public MultiMap trailers() {
+    if (trailers == null) {
+      trailers = HttpHeaders.headers();
+    }
+    return trailers;
+  }
+
+  @Override
+  public HttpServerResponse putTrailer(String name, String value) {
+    trailers().set(name, value);
+    return this;
+  }
+
+  @Override
+  public HttpServerResponse putTrailer(CharSequence name, CharSequence value) {
+    trailers().set(name, value);
+    return this;
+  }
+
+  @Override
+  public HttpServerResponse putTrailer(String name, Iterable<String> values) {
+    trailers().set(name, values);
+    return this;
+  }
+
+  @Override
+  public HttpServerResponse putTrailer(CharSequence name, Iterable<CharSequence> value) {
+    trailers().set(name, value);
+    return this;
+  }
+
+  @Override
+  public HttpServerResponse closeHandler(Handler<Void> handler) {
+    return this;
+  }
+
+  @Override
+  public HttpServerResponse endHandler(Handler<Void> handler) {
+    this.endHandler = handler;
+    return this;
+  }
+
+  @Override
+  public Future<Void> write(Buffer data) {
+    return write(data.length());
+  }
+
+  @Override
+  public void write(Buffer data, Handler<AsyncResult<Void>> handler) {
+    handler.handle(write(data));
+  }
+
+  @Override
+  public Future<Void> write(String chunk, String enc) {
+    return write(Buffer.buffer(chunk, enc));
+  }
+
+  @Override
+  public void write(String chunk, String enc, Handler<AsyncResult<Void>> handler) {
+    handler.handle(write(chunk, enc));
+  }
+
+  @Override
+  public Future<Void> write(String chunk) {
+    return write(Buffer.buffer(chunk));
+  }
+
+  @Override
+  public void write(String chunk, Handler<AsyncResult<Void>> handler) {
+    handler.handle(write(chunk));
+  }
+
+  @Override
+  public HttpServerResponse writeContinue() {
+    return this;
+  }
+
+  @Override
+  public Future<Void> end(String chunk) {
+    return end(Buffer.buffer(chunk));
+  }
+
+  @Override
+  public void end(String chunk, Handler<AsyncResult<Void>> handler) {
+    handler.handle(end(chunk));
+  }
+
+  @Override
+  public Future<Void> end(String chunk, String enc) {
+    return end(Buffer.buffer(chunk, enc));
+  }
+
+  @Override
+  public void end(String chunk, String enc, Handler<AsyncResult<Void>> handler) {
+    handler.handle(end(chunk, enc));
+  }
+
+  @Override
+  public Future<Void> end(Buffer chunk) {
+    final Future<Void> res = write(chunk.length());
+    if (res.failed()) {
+      return res;
+    }
+    return end();
+  }
+
+  @Override
+  public void end(Buffer chunk, Handler<AsyncResult<Void>> handler) {
+    handler.handle(end(chunk));
+  }
+
+  @Override
+  public void end(Handler<AsyncResult<Void>> handler) {
+    handler.handle(end());
+  }
+
+  @Override
+  public Future<Void> end() {
+    if (ended) {
+      return Future.failedFuture(new IllegalStateException("Response has already been written"));
+    }
+    writeHead();
+    ended = true;
+    if (bodyEndHandler != null) {
+      bodyEndHandler.handle(null);
+    }
+    if (endHandler != null) {
+      endHandler.handle(null);
+    }
+    completion.complete(statusCode);
+    return Future.succeededFuture();
+  }
+
+  @Override
+  public Future<Void> sendFile(String filename, long offset, long length) {
+    final Future<Void> res = write(length);
+    if (res.failed()) {
+      return res;
+    }
+    return end();
+  }
+
+  @Override
+  public HttpServerResponse sendFile(String filename, long offset, long length, Handler<AsyncResult<Void>> resultHandler) {
+    final Future<Void> res = sendFile(filename, offset, length);
+    if (resultHandler != null) {
+      resultHandler.handle(res);
+    }
+    return this;
+  }
+
+  @Override
+  public void close() {
+    ended = true;
+  }
+
+  @Override
+  public boolean ended() {
+    return ended;
+  }
+
+  @Override
+  public boolean closed() {
+    return false;
+  }
+
+  @Override
+  public boolean headWritten() {
+    return headWritten;
+  }
+
+  @Override
+  public HttpServerResponse headersEndHandler(Handler<Void> handler) {
+    this.headersEndHandler = handler;
+    return this;
+  }
+
+  @Override
+  public HttpServerResponse bodyEndHandler(Handler<Void> handler) {
+    this.bodyEndHandler = handler;
+    return this;
+  }
+
+  @Override
+  public long bytesWritten() {
+    return bytesWritten;
+  }
+
+  @Override
+  public int streamId() {
+    return -1;
+  }
+
+  @Override
+  public Future<HttpServerResponse> push(HttpMethod method, String host, String path, MultiMap headers) {
+    return Future.failedFuture(new UnsupportedOperationException());
+  }
+
+  @Override
+  public boolean reset(long code) {
+    return false;
+  }
+
+  @Override
+  public HttpServerResponse writeCustomFrame(int type, int flags, Buffer payload) {
+    return this;
+  }
+
+  @Override
+  public HttpServerResponse addCookie(Cookie cookie) {
+    return this;
+  }
+
+  @Override
+  public Cookie removeCookie(String name, boolean invalidate) {
+    return null;
+  }
+
+  @Override
+  public Set<Cookie> removeCookies(String name, boolean invalidate) {
+    return Collections.emptySet();
+  }
+
+  @Override
+  public Cookie removeCookie(String name, String domain, String path, boolean invalidate) {
+    return null;
+  }
+
+  private Future<Void> write(long length) {
+    if (ended) {
+      return Future.failedFuture(new IllegalStateException("Response has already been written"));
+    }
+    writeHead();
+    bytesWritten += length;
+    return Future.succeededFuture();
+  }
+
+  private void writeHead() {
+    if (!headWritten) {
+      if (headersEndHandler != null) {
+        headersEndHandler.handle(null);
+      }
+      headWritten = true;
+    }
+  }
+}
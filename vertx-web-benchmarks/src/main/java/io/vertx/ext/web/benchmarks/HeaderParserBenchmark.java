@@ -0,0 +1,61 @@
+/*
+ * Copyright 2022 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.benchmarks;
+
+import io.vertx.ext.web.impl.HeaderParser;
+import io.vertx.ext.web.impl.ParsableLanguageValue;
+import io.vertx.ext.web.impl.ParsableMIMEValue;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Parsing and sorting of the weighted values of the {@code Accept} and {@code Accept-Language} headers.
+ */
+public class HeaderParserBenchmark extends BenchmarkBase {
+
+  @Param({"text/html,application/xhtml+xml,application/xml;q=0.9,image/avif,image/webp,*/*;q=0.8"})
+  public String accept;
+
+  @Param({"en-US,en;q=0.9,fr-FR;q=0.8,fr;q=0.7,de;q=0.6"})
+  public String acceptLanguage;
+
+  private List<ParsableMIMEValue> parsedAccept;
+
+  @Setup
+  public void setup() {
+    parsedAccept = HeaderParser.sort(HeaderParser.convertToParsedHeaderValues(accept, ParsableMIMEValue::new));
+    // worst case for the sort, the values are already parsed so only the sort is measured
+    Collections.reverse(parsedAccept);
+  }
+
+  @Benchmark
+  public List<ParsableMIMEValue> parseAndSortAccept() {
+    return HeaderParser.sort(HeaderParser.convertToParsedHeaderValues(accept, ParsableMIMEValue::new));
+  }
+
+  @Benchmark
+  public List<ParsableLanguageValue> parseAndSortAcceptLanguage() {
+    return HeaderParser.sort(HeaderParser.convertToParsedHeaderValues(acceptLanguage, ParsableLanguageValue::new));
+  }
+
+  @Benchmark
+  public List<ParsableMIMEValue> sortParsed() {
+    return HeaderParser.sort(new ArrayList<>(parsedAccept));
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2022 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.benchmarks;
+
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Dispatch of a request by {@code RouterImpl.handle()}, the request targets are spread over the whole route list so
+ * the cost of the routes before the match is accounted.
+ * <ul>
+ *   <li>{@code exact}: {@code /api/resourceN/items}</li>
+ *   <li>{@code param}: {@code /api/resourceN/:id}</li>
+ *   <li>{@code regex}: {@code /api/resourceN/(\d+)}</li>
+ *   <li>{@code subrouter}: routes grouped by 10 in sub routers mounted on {@code /api/groupN}</li>
+ * </ul>
+ */
+public class RouterBenchmark extends BenchmarkBase {
+
+  private static final int TARGETS = 8;
+  private static final Handler<RoutingContext> END = ctx -> ctx.response().end();
+
+  @Param({"10", "100", "1000"})
+  public int routes;
+
+  @Param({"exact", "param", "regex", "subrouter"})
+  public String kind;
+
+  private Vertx vertx;
+  private Context context;
+  private Router router;
+  private String[] uris;
+  private int next;
+
+  @Setup
+  public void setup() {
+    vertx = Vertx.vertx();
+    context = vertx.getOrCreateContext();
+    router = Router.router(vertx);
+    uris = new String[TARGETS];
+
+    switch (kind) {
+      case "exact":
+        for (int i = 0; i < routes; i++) {
+          router.get("/api/resource" + i + "/items").handler(END);
+        }
+        for (int i = 0; i < TARGETS; i++) {
+          uris[i] = "/api/resource" + target(i) + "/items";
+        }
+        break;
+      case "param":
+        for (int i = 0; i < routes; i++) {
+          router.get("/api/resource" + i + "/:id").handler(END);
+        }
+        for (int i = 0; i < TARGETS; i++) {
+          uris[i] = "/api/resource" + target(i) + "/" + i;
+        }
+        break;
+      case "regex":
+        for (int i = 0; i < routes; i++) {
+          router.getWithRegex("/api/resource" + i + "/(\\d+)").handler(END);
+        }
+        for (int i = 0; i < TARGETS; i++) {
+          uris[i] = "/api/resource" + target(i) + "/" + i;
+        }
+        break;
+      case "subrouter":
+        Router subRouter = null;
+        for (int i = 0; i < routes; i++) {
+          if (i % 10 == 0) {
+            subRouter = Router.router(vertx);
+            router.route("/api/group" + (i / 10) + "/*").subRouter(subRouter);
+          }
+          subRouter.get("/resource" + i).handler(END);
+        }
+        for (int i = 0; i < TARGETS; i++) {
+          final int target = target(i);
+          uris[i] = "/api/group" + (target / 10) + "/resource" + target;
+        }
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown kind: " + kind);
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    vertx.close();
+  }
+
+  @Benchmark
+  public int handle() {
+    final FakeHttpServerRequest request = new FakeHttpServerRequest(context, HttpMethod.GET, uris[next++ % TARGETS]);
+    router.handle(request);
+    return request.response().getStatusCode();
+  }
+
+  private int target(int i) {
+    return (int) ((long) routes * i / TARGETS);
+  }
+}
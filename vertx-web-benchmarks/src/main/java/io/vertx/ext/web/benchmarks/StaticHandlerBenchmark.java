@@ -0,0 +1,95 @@
+/*
+ * Copyright 2022 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.benchmarks;
+
+import io.vertx.core.Context;
+import io.vertx.core.MultiMap;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.handler.FileSystemAccess;
+import io.vertx.ext.web.handler.StaticHandler;
+import io.vertx.ext.web.impl.Utils;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Serving a file by {@code StaticHandlerImpl} with the file properties cache enabled. The cache is warmed during the
+ * setup so every request is a cache hit:
+ * <ul>
+ *   <li>{@link #notModified()}: conditional request answered from the cache, no file system access at all</li>
+ *   <li>{@link #sendFile()}: the file is sent, the fake response does not read it</li>
+ * </ul>
+ */
+public class StaticHandlerBenchmark extends BenchmarkBase {
+
+  @Param({"1024", "65536"})
+  public int size;
+
+  private Vertx vertx;
+  private Context context;
+  private Router router;
+  private File webRoot;
+  private String ifModifiedSince;
+
+  @Setup
+  public void setup() throws IOException, ExecutionException, InterruptedException {
+    webRoot = Files.createTempDirectory("vertx-web-benchmarks").toFile();
+    final File file = new File(webRoot, "index.html");
+    Files.write(file.toPath(), new byte[size]);
+    ifModifiedSince = Utils.formatRFC1123DateTime(file.lastModified() + 60_000);
+
+    vertx = Vertx.vertx();
+    context = vertx.getOrCreateContext();
+    router = Router.router(vertx);
+    router.route("/static/*").handler(StaticHandler.create(FileSystemAccess.ROOT, webRoot.getAbsolutePath())
+      .setCachingEnabled(true)
+      .setFilesReadOnly(true));
+
+    // warm the cache
+    sendFile();
+  }
+
+  @TearDown
+  public void tearDown() {
+    vertx.close();
+    new File(webRoot, "index.html").delete();
+    webRoot.delete();
+  }
+
+  @Benchmark
+  public int notModified() {
+    final MultiMap headers = HttpHeaders.headers()
+      .set(HttpHeaders.IF_MODIFIED_SINCE, ifModifiedSince);
+
+    final FakeHttpServerRequest request = new FakeHttpServerRequest(context, HttpMethod.GET, "/static/index.html", headers, null);
+    router.handle(request);
+    return request.response().getStatusCode();
+  }
+
+  @Benchmark
+  public int sendFile() throws ExecutionException, InterruptedException {
+    final FakeHttpServerRequest request = new FakeHttpServerRequest(context, HttpMethod.GET, "/static/index.html");
+    router.handle(request);
+    // the file existence is verified asynchronously
+    return request.response().completion().get();
+  }
+}
@@ -45,6 +45,16 @@ public class CachingWebClientOptionsConverter {
             obj.setEnableVaryCaching((Boolean)member.getValue());
           }
           break;
+        case "maxCachedBodySize":
+          if (member.getValue() instanceof Number) {
+            obj.setMaxCachedBodySize(((Number)member.getValue()).intValue());
+          }
+          break;
+        case "requestCoalescing":
+          if (member.getValue() instanceof Boolean) {
+            obj.setRequestCoalescing((Boolean)member.getValue());
+          }
+          break;
         case "varyCachingEnabled":
           break;
       }
@@ -66,6 +76,8 @@ public class CachingWebClientOptionsConverter {
       obj.getCachedStatusCodes().forEach(item -> array.add(item));
       json.put("cachedStatusCodes", array);
     }
+    json.put("maxCachedBodySize", obj.getMaxCachedBodySize());
+    json.put("requestCoalescing", obj.isRequestCoalescing());
     json.put("varyCachingEnabled", obj.isVaryCachingEnabled());
   }
 }
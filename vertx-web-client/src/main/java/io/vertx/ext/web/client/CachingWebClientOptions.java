@@ -45,8 +45,12 @@ public class CachingWebClientOptions extends WebClientOptions {
 
   public static final Set<Integer> DEFAULT_CACHED_STATUS_CODES = buildDefaultStatusCodes();
   public static final Set<HttpMethod> DEFAULT_CACHED_METHODS = buildDefaultMethods();
+  public static final boolean DEFAULT_REQUEST_COALESCING = false;
+  public static final int DEFAULT_MAX_CACHED_BODY_SIZE = 1024 * 1024;
 
   private boolean enableVaryCaching = false;
+  private boolean requestCoalescing = DEFAULT_REQUEST_COALESCING;
+  private int maxCachedBodySize = DEFAULT_MAX_CACHED_BODY_SIZE;
   private Set<Integer> cachedStatusCodes = DEFAULT_CACHED_STATUS_CODES;
   private Set<HttpMethod> cachedMethods = DEFAULT_CACHED_METHODS;
 
@@ -71,6 +75,8 @@ public class CachingWebClientOptions extends WebClientOptions {
     this.enableVaryCaching = other.enableVaryCaching;
     this.cachedStatusCodes = other.cachedStatusCodes;
     this.cachedMethods = other.cachedMethods;
+    this.requestCoalescing = other.requestCoalescing;
+    this.maxCachedBodySize = other.maxCachedBodySize;
   }
 
   /**
@@ -182,6 +188,48 @@ public class CachingWebClientOptions extends WebClientOptions {
     return enableVaryCaching;
   }
 
+  /**
+   * Configure whether concurrent cache misses for the same request are coalesced. When enabled, only one of them
+   * is sent to the server and the others are completed with its response.
+   *
+   * @param requestCoalescing true to coalesce concurrent cache misses
+   * @return a reference to this, so the API can be used fluently
+   */
+  public CachingWebClientOptions setRequestCoalescing(boolean requestCoalescing) {
+    this.requestCoalescing = requestCoalescing;
+    return this;
+  }
+
+  /**
+   * @return true if concurrent cache misses for the same request are coalesced, false otherwise
+   */
+  public boolean isRequestCoalescing() {
+    return requestCoalescing;
+  }
+
+  /**
+   * Configure the maximum size of a response body copied for the cache when the request does not decode its body to
+   * a buffer, e.g. with a json or pipe {@link io.vertx.ext.web.codec.BodyCodec}. A larger response is still delivered
+   * to its codec but it is not cached.
+   *
+   * @param maxCachedBodySize the maximum body size in bytes
+   * @return a reference to this, so the API can be used fluently
+   */
+  public CachingWebClientOptions setMaxCachedBodySize(int maxCachedBodySize) {
+    if (maxCachedBodySize < 0) {
+      throw new IllegalArgumentException("maxCachedBodySize must be >= 0");
+    }
+    this.maxCachedBodySize = maxCachedBodySize;
+    return this;
+  }
+
+  /**
+   * @return the maximum size of a response body copied for the cache when it is not decoded to a buffer
+   */
+  public int getMaxCachedBodySize() {
+    return maxCachedBodySize;
+  }
+
   @Override
   public CachingWebClientOptions setUserAgentEnabled(boolean userAgentEnabled) {
     return (CachingWebClientOptions) super.setUserAgentEnabled(userAgentEnabled);
@@ -27,14 +27,17 @@ import io.vertx.core.json.Json;
 import io.vertx.core.json.JsonObject;
 import io.vertx.core.streams.Pipe;
 import io.vertx.core.streams.ReadStream;
+import io.vertx.core.streams.WriteStream;
 import io.vertx.ext.web.client.HttpRequest;
 import io.vertx.ext.web.client.HttpResponse;
 import io.vertx.ext.web.client.WebClientOptions;
 import io.vertx.ext.web.client.spi.CacheStore;
+import io.vertx.ext.web.codec.BodyCodec;
 import io.vertx.ext.web.codec.spi.BodyStream;
 import io.vertx.ext.web.multipart.MultipartForm;
 
 import java.util.*;
+import java.util.function.Function;
 
 /**
  * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
@@ -63,6 +66,7 @@ public class HttpContext<T> {
   private int redirects;
   private List<String> redirectedLocations = Collections.emptyList();
   private CacheStore privateCacheStore;
+  private List<Function<WriteStream<Buffer>, WriteStream<Buffer>>> bodyInterceptors;
 
   HttpContext(HttpClientInternal client, WebClientOptions options, List<Handler<HttpContext<?>>> interceptors, Handler<AsyncResult<HttpResponse<T>>> handler) {
     this.handler = handler;
@@ -154,6 +158,31 @@ public class HttpContext<T> {
     return body;
   }
 
+  /**
+   * @return the codec decoding the response body
+   */
+  public BodyCodec<T> bodyCodec() {
+    return request.codec;
+  }
+
+  /**
+   * Intercept the response body before it is decoded, only for {@link ClientPhase#RECEIVE_RESPONSE}.
+   * <p>
+   * The interceptor is given the stream the body is written to and returns the stream the body should be written to
+   * instead, it can transform, copy or validate the body chunk by chunk as it is received. Interceptors registered
+   * first see the body first.
+   *
+   * @param interceptor the function wrapping the body stream
+   * @return a reference to this, so the API can be used fluently
+   */
+  public HttpContext<T> interceptBody(Function<WriteStream<Buffer>, WriteStream<Buffer>> interceptor) {
+    if (bodyInterceptors == null) {
+      bodyInterceptors = new ArrayList<>();
+    }
+    bodyInterceptors.add(interceptor);
+    return this;
+  }
+
   /**
    * @return the failure, only for {@link ClientPhase#FAILURE}
    */
@@ -509,10 +538,18 @@ public class HttpContext<T> {
       }
     });
     Pipe<Buffer> pipe = resp.pipe();
+    List<Function<WriteStream<Buffer>, WriteStream<Buffer>>> interceptors = bodyInterceptors;
+    bodyInterceptors = null;
     request.codec.create(ar1 -> {
       if (ar1.succeeded()) {
         BodyStream<T> stream = ar1.result();
-        pipe.to(stream, ar2 -> {
+        WriteStream<Buffer> sink = stream;
+        if (interceptors != null) {
+          for (int i = interceptors.size() - 1; i >= 0; i--) {
+            sink = interceptors.get(i).apply(sink);
+          }
+        }
+        pipe.to(sink, ar2 -> {
           if (ar2.succeeded()) {
             stream.result().onComplete(ar3 -> {
               if (ar3.succeeded()) {
@@ -15,10 +15,14 @@
  */
 package io.vertx.ext.web.client.impl.cache;
 
+import io.vertx.core.Context;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
+import io.vertx.core.MultiMap;
 import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
 import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClientResponse;
 import io.vertx.core.http.HttpHeaders;
 import io.vertx.core.http.RequestOptions;
 import io.vertx.ext.web.client.CachingWebClientOptions;
@@ -26,7 +30,10 @@ import io.vertx.ext.web.client.HttpRequest;
 import io.vertx.ext.web.client.HttpResponse;
 import io.vertx.ext.web.client.impl.HttpContext;
 import io.vertx.ext.web.client.impl.HttpRequestImpl;
+import io.vertx.ext.web.client.impl.HttpResponseImpl;
 import io.vertx.ext.web.client.spi.CacheStore;
+import io.vertx.ext.web.codec.BodyCodec;
+import io.vertx.ext.web.codec.spi.BodyStream;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Map;
@@ -43,15 +50,23 @@ public class CacheInterceptor implements Handler<HttpContext<?>> {
 
   private static final String IS_CACHE_DISPATCH = "cache.dispatch";
   private static final String REVALIDATION_RESPONSE = "cache.response_to_revalidate";
+  private static final String IN_FLIGHT = "cache.in_flight";
+  private static final String RESPONSE_BODY = "cache.response_body";
+
+  private static final Vary NO_VARIATION = new Vary(MultiMap.caseInsensitiveMultiMap(), MultiMap.caseInsensitiveMultiMap());
 
   private final CacheStore publicCacheStore;
   private final CachingWebClientOptions options;
   private final Map<CacheVariationsKey, Set<Vary>> variationsRegistry;
+  private final Map<CacheKey, InFlight> inFlight;
+  private final Map<CacheKey, Revalidation> revalidations;
 
   public CacheInterceptor(CacheStore store, CachingWebClientOptions options) {
     this.publicCacheStore = store;
     this.options = options;
     this.variationsRegistry = new ConcurrentHashMap<>();
+    this.inFlight = new ConcurrentHashMap<>();
+    this.revalidations = new ConcurrentHashMap<>();
   }
 
   @Override
@@ -60,9 +75,15 @@ public class CacheInterceptor implements Handler<HttpContext<?>> {
       case SEND_REQUEST:
         handleSendRequest((HttpContext<Buffer>) context);
         break;
+      case RECEIVE_RESPONSE:
+        handleReceiveResponse(context);
+        break;
       case DISPATCH_RESPONSE:
         handleDispatchResponse((HttpContext<Buffer>) context);
         break;
+      case FAILURE:
+        handleFailure((HttpContext<Buffer>) context);
+        break;
       default:
         context.next();
         break;
@@ -71,15 +92,71 @@ public class CacheInterceptor implements Handler<HttpContext<?>> {
 
   private void handleSendRequest(HttpContext<Buffer> context) {
     RequestOptions request = context.requestOptions();
-    Vary variation;
 
-    if (!options.getCachedMethods().contains(request.getMethod()) || (variation = selectVariation(request)) == null) {
+    if (!options.getCachedMethods().contains(request.getMethod())) {
       context.next();
       return;
     }
 
-    Promise<CachedHttpResponse> promise = Promise.promise();
+    Vary variation = selectVariation(request);
+    if (variation == null) {
+      lookupUnregistered(context, request);
+      return;
+    }
+
     CacheKey key = new CacheKey(request, variation);
+    Revalidation revalidation = revalidations.get(key);
+    if (revalidation != null && revalidation.request == context.request()) {
+      // This is the background revalidation of a stale response, it must reach the server
+      markForRevalidation(context, revalidation.response);
+      context.next();
+      return;
+    }
+
+    lookup(context, key)
+      .map(cached -> respondFromCache(context, key, cached))
+      .onComplete(ar -> {
+        if (ar.succeeded() && ar.result().isPresent()) {
+          dispatchCached(context, ar.result().get());
+        } else if (options.isRequestCoalescing() && context.get(IN_FLIGHT) == null
+          && context.bodyCodec() == BodyCodec.buffer()) {
+          sendOrJoin(context, key);
+        } else {
+          context.next();
+        }
+      });
+  }
+
+  /**
+   * No response was stored for the request by this client, but a persistent store (e.g. one read back from the disk
+   * after a restart) may hold one. Only the key without variations can be looked up as the variations are not known,
+   * a response found is only used when its own {@code Vary} header gives the same key for the request.
+   */
+  private void lookupUnregistered(HttpContext<Buffer> context, RequestOptions request) {
+    CacheKey key = new CacheKey(request, NO_VARIATION);
+    lookup(context, key)
+      .map(cached -> {
+        if (cached == null) {
+          return Optional.<HttpResponse<Buffer>>empty();
+        }
+        Vary variation = new Vary(context.request().headers(), cached.getResponseHeaders());
+        if (!key.equals(new CacheKey(request, variation))) {
+          return Optional.<HttpResponse<Buffer>>empty();
+        }
+        registerVariation(new CacheVariationsKey(request), variation);
+        return respondFromCache(context, key, cached);
+      })
+      .onComplete(ar -> {
+        if (ar.succeeded() && ar.result().isPresent()) {
+          dispatchCached(context, ar.result().get());
+        } else {
+          context.next();
+        }
+      });
+  }
+
+  private Future<CachedHttpResponse> lookup(HttpContext<?> context, CacheKey key) {
+    Promise<CachedHttpResponse> promise = Promise.promise();
 
     if (context.privateCacheStore() != null) {
       // Check the local private store first
@@ -95,17 +172,136 @@ public class CacheInterceptor implements Handler<HttpContext<?>> {
       publicCacheStore.get(key).onComplete(promise);
     }
 
-    promise
-      .future()
-      .map(cached -> respondFromCache(context, cached))
-      .onComplete(ar -> {
-        if (ar.succeeded() && ar.result().isPresent()) {
-          context.set(IS_CACHE_DISPATCH, true);
-          context.dispatchResponse(ar.result().get());
-        } else {
-          context.next();
+    return promise.future();
+  }
+
+  /**
+   * Send the request upstream unless the same request is already in flight, in which case wait for its response.
+   */
+  private void sendOrJoin(HttpContext<Buffer> context, CacheKey key) {
+    InFlight flight = new InFlight(key, context.privateCacheStore());
+    InFlight leader = inFlight.putIfAbsent(key, flight);
+    if (leader == null) {
+      context.set(IN_FLIGHT, flight);
+      context.next();
+      return;
+    }
+
+    Context waiterContext = Vertx.currentContext();
+    leader.promise.future().onComplete(ar -> {
+      if (waiterContext == null) {
+        completeWaiter(context, leader, ar.succeeded() ? ar.result() : null);
+      } else {
+        waiterContext.runOnContext(v -> completeWaiter(context, leader, ar.succeeded() ? ar.result() : null));
+      }
+    });
+  }
+
+  private void completeWaiter(HttpContext<Buffer> context, InFlight leader, HttpResponse<Buffer> response) {
+    if (response == null || !canShare(leader, context, response)) {
+      // The leader failed or its response is not meant for this client, go upstream instead
+      context.next();
+      return;
+    }
+    context.set(IS_CACHE_DISPATCH, true);
+    context.dispatchResponse(copy(response));
+  }
+
+  private void complete(HttpContext<?> context, HttpResponse<Buffer> response, Throwable failure) {
+    InFlight flight = context.get(IN_FLIGHT);
+    if (flight == null) {
+      return;
+    }
+    context.set(IN_FLIGHT, null);
+    inFlight.remove(flight.key, flight);
+    if (failure == null) {
+      flight.promise.complete(response);
+    } else {
+      flight.promise.fail(failure);
+    }
+  }
+
+  private void handleFailure(HttpContext<Buffer> context) {
+    CachedHttpResponse responseToValidate = context.get(REVALIDATION_RESPONSE);
+    RequestOptions request = context.requestOptions();
+    Vary variation;
+
+    if (context.get(IS_CACHE_DISPATCH) != null) {
+      // Dispatching a cached response failed
+      failOrServeStale(context, null);
+    } else if (responseToValidate != null) {
+      // The cache was checked before sending the request
+      failOrServeStale(context, responseToValidate);
+    } else if (request != null && options.getCachedMethods().contains(request.getMethod())
+      && (variation = selectVariation(request)) != null) {
+      // The request failed before reaching the cache, e.g. the server could not be connected
+      lookup(context, new CacheKey(request, variation)).onComplete(ar -> failOrServeStale(context, ar.result()));
+    } else {
+      failOrServeStale(context, null);
+    }
+  }
+
+  private void failOrServeStale(HttpContext<Buffer> context, CachedHttpResponse cached) {
+    if (cached != null && cached.useStaleIfError()) {
+      // The server could not be reached, serve the stale response instead of the failure
+      HttpResponse<Buffer> result = cached.rehydrate();
+      result.headers().set(HttpHeaders.AGE, Long.toString(cached.age()));
+      dispatchCached(context, result);
+    } else {
+      complete(context, null, context.failure());
+      context.next();
+    }
+  }
+
+  private void handleReceiveResponse(HttpContext<?> context) {
+    HttpClientResponse response = context.clientResponse();
+    if (context.bodyCodec() != BodyCodec.buffer()
+      && options.getCachedMethods().contains(context.requestOptions().getMethod())
+      && options.getCachedStatusCodes().contains(response.statusCode())
+      && CacheControl.parse(response.headers()).isCacheable()) {
+      // The decoded body is not a buffer, keep a copy of the body for the cache while it streams to the codec
+      context.interceptBody(stream -> new CachingBodyStream(stream, options.getMaxCachedBodySize(),
+        body -> context.set(RESPONSE_BODY, body)));
+    }
+    context.next();
+  }
+
+  private void dispatchCached(HttpContext<Buffer> context, HttpResponse<Buffer> response) {
+    // A leader can be served from the cache, e.g. when it follows a redirect, its waiters get the same response
+    complete(context, response, null);
+    context.set(IS_CACHE_DISPATCH, true);
+    decode(context, response).onComplete(ar -> {
+      if (ar.succeeded()) {
+        context.dispatchResponse(ar.result());
+      } else {
+        context.fail(ar.cause());
+      }
+    });
+  }
+
+  /**
+   * Decode a cached response body with the codec of the request, as if it had been received from the server.
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static Future<HttpResponse<Buffer>> decode(HttpContext<Buffer> context, HttpResponse<Buffer> response) {
+    if (context.bodyCodec() == BodyCodec.buffer()) {
+      return Future.succeededFuture(response);
+    }
+    // the body type of the context is the one of its codec, not necessarily a buffer
+    BodyCodec<Object> codec = (BodyCodec) context.bodyCodec();
+    Promise<BodyStream<Object>> promise = Promise.promise();
+    codec.create(promise);
+    return promise.future()
+      .compose(stream -> {
+        if (response.body() != null) {
+          stream.write(response.body());
         }
-      });
+        stream.end();
+        return stream.result();
+      })
+      .map(body -> (HttpResponse) new HttpResponseImpl<>(response.version(), response.statusCode(),
+        response.statusMessage(), response.headers(), response.trailers(), response.cookies(), body,
+        response.followedRedirects()));
   }
 
   private void handleDispatchResponse(HttpContext<Buffer> context) {
@@ -118,15 +314,20 @@ public class CacheInterceptor implements Handler<HttpContext<?>> {
     CachedHttpResponse responseToValidate = context.get(REVALIDATION_RESPONSE);
     if (responseToValidate != null) {
       // We're revalidating a cached response
-      processRevalidationResponse(context, responseToValidate).onComplete(ar -> {
-        if (ar.succeeded()) {
-          context.response(ar.result());
-        }
-        context.next();
-      });
+      processRevalidationResponse(context, responseToValidate)
+        // A cached response replacing the received one must be decoded like it
+        .compose(response -> response == context.response() ? Future.succeededFuture(response) : decode(context, response))
+        .onComplete(ar -> {
+          if (ar.succeeded()) {
+            context.response(ar.result());
+          }
+          complete(context, context.response(), null);
+          context.next();
+        });
     } else {
       // We're storing a new response in cache
       processResponse(context, null).onComplete(ar -> {
+        complete(context, context.response(), null);
         context.next();
       });
     }
@@ -160,7 +361,7 @@ public class CacheInterceptor implements Handler<HttpContext<?>> {
     }
   }
 
-  private Optional<HttpResponse<Buffer>> respondFromCache(HttpContext<Buffer> context, CachedHttpResponse response) {
+  private Optional<HttpResponse<Buffer>> respondFromCache(HttpContext<Buffer> context, CacheKey key, CachedHttpResponse response) {
     if (response == null) {
       return Optional.empty();
     }
@@ -176,9 +377,9 @@ public class CacheInterceptor implements Handler<HttpContext<?>> {
       // Response is current, reply with it immediately
       return Optional.of(result);
     } else if (response.useStaleWhileRevalidate()) {
-      // Send off a request to revalidate the cache but don't want for a response, just respond
+      // Send off a request to revalidate the cache but don't wait for a response, just respond
       // immediately with the cached value.
-      context.clientRequest().send();
+      revalidateInBackground(context, key, response);
       return Optional.of(result);
     } else {
       // Can't use the response as-is, fetch updated information before responding
@@ -188,10 +389,30 @@ public class CacheInterceptor implements Handler<HttpContext<?>> {
   }
 
   private void markForRevalidation(HttpContext<?> context, CachedHttpResponse response) {
-    context.request().headers().set(HttpHeaders.IF_NONE_MATCH, response.getCacheControl().getEtag());
+    String etag = response.getCacheControl().getEtag();
+    if (etag != null) {
+      context.request().headers().set(HttpHeaders.IF_NONE_MATCH, etag);
+    }
     context.set(REVALIDATION_RESPONSE, response);
   }
 
+  /**
+   * Send a copy of the request to refresh a stale response, unless one is already on its way.
+   */
+  private void revalidateInBackground(HttpContext<?> context, CacheKey key, CachedHttpResponse response) {
+    // the caller's codec may be a stream that already received the stale body
+    HttpRequest<Buffer> request = context.request().copy().as(BodyCodec.buffer());
+    Revalidation revalidation = new Revalidation(request, response);
+    if (revalidations.putIfAbsent(key, revalidation) == null) {
+      String etag = response.getCacheControl().getEtag();
+      if (etag != null) {
+        // The request options are already built when the copy reaches this interceptor
+        request.putHeader(HttpHeaders.IF_NONE_MATCH.toString(), etag);
+      }
+      request.send(ar -> revalidations.remove(key, revalidation));
+    }
+  }
+
   private Future<HttpResponse<Buffer>> processRevalidationResponse(HttpContext<Buffer> context, CachedHttpResponse cachedResponse) {
     if (context.response().statusCode() == 304) {
       // The cache returned a stale result, but server has confirmed still good. Update cache
@@ -205,15 +426,13 @@ public class CacheInterceptor implements Handler<HttpContext<?>> {
     HttpRequest<?> request = context.request();
     CacheControl cacheControl = CacheControl.parse(response.headers());
 
-    if (!cacheControl.isCacheable()) {
-      return Future.succeededFuture(response);
+    // A response decoded to something else than a buffer had a copy of its body kept when it was received,
+    // unless it was larger than the configured maximum
+    Buffer body = context.get(RESPONSE_BODY);
+    if (body == null) {
+      body = response.bodyAsBuffer();
     }
-
-    if (cacheControl.isPrivate() && context.privateCacheStore() == null) {
-      return Future.succeededFuture(response);
-    }
-
-    if (cacheControl.isVarying() && !options.isVaryCachingEnabled()) {
+    if (!isStorable(cacheControl, context.privateCacheStore()) || (body == null && context.bodyCodec() != BodyCodec.buffer())) {
       return Future.succeededFuture(response);
     }
 
@@ -222,7 +441,7 @@ public class CacheInterceptor implements Handler<HttpContext<?>> {
     registerVariation(variationsKey, variation);
 
     CacheKey key = new CacheKey(context.requestOptions(), variation);
-    CachedHttpResponse cachedResponse = CachedHttpResponse.wrap(response, cacheControl);
+    CachedHttpResponse cachedResponse = CachedHttpResponse.wrap(response, body, cacheControl);
 
     if (cacheControl.isPrivate()) {
       return context.privateCacheStore().set(key, cachedResponse).map(response);
@@ -231,6 +450,31 @@ public class CacheInterceptor implements Handler<HttpContext<?>> {
     }
   }
 
+  private boolean isStorable(CacheControl cacheControl, CacheStore privateCacheStore) {
+    if (!cacheControl.isCacheable()) {
+      return false;
+    }
+    if (cacheControl.isPrivate() && privateCacheStore == null) {
+      return false;
+    }
+    return !cacheControl.isVarying() || options.isVaryCachingEnabled();
+  }
+
+  /**
+   * Only a response the cache stores is shared, as it would have been served from the cache. A private response is
+   * only shared with the requests using the same private store as the leader.
+   */
+  private boolean canShare(InFlight leader, HttpContext<?> context, HttpResponse<Buffer> response) {
+    if (!options.getCachedStatusCodes().contains(response.statusCode())) {
+      return false;
+    }
+    CacheControl cacheControl = CacheControl.parse(response.headers());
+    if (!isStorable(cacheControl, leader.privateCacheStore)) {
+      return false;
+    }
+    return !cacheControl.isPrivate() || leader.privateCacheStore == context.privateCacheStore();
+  }
+
   private void registerVariation(CacheVariationsKey variationsKey, Vary variation) {
     Set<Vary> existing = variationsRegistry.getOrDefault(variationsKey, Collections.emptySet());
     Set<Vary> updated = new HashSet<>(existing);
@@ -238,4 +482,41 @@ public class CacheInterceptor implements Handler<HttpContext<?>> {
     updated.add(variation);
     variationsRegistry.put(variationsKey, updated);
   }
+
+  private static HttpResponse<Buffer> copy(HttpResponse<Buffer> response) {
+    // Each waiter gets its own headers, the body is never modified. The cookies were set for the leader only
+    MultiMap headers = MultiMap.caseInsensitiveMultiMap().addAll(response.headers()).remove(HttpHeaders.SET_COOKIE);
+    MultiMap trailers = MultiMap.caseInsensitiveMultiMap().addAll(response.trailers());
+    return new HttpResponseImpl<>(response.version(), response.statusCode(), response.statusMessage(), headers,
+      trailers, Collections.emptyList(), response.body(), response.followedRedirects());
+  }
+
+  /**
+   * A request refreshing a stale response in the background.
+   */
+  private static final class Revalidation {
+
+    final HttpRequest<?> request;
+    final CachedHttpResponse response;
+
+    Revalidation(HttpRequest<?> request, CachedHttpResponse response) {
+      this.request = request;
+      this.response = response;
+    }
+  }
+
+  /**
+   * An upstream exchange other requests for the same {@link CacheKey} can wait for.
+   */
+  private static final class InFlight {
+
+    final CacheKey key;
+    final CacheStore privateCacheStore;
+    final Promise<HttpResponse<Buffer>> promise = Promise.promise();
+
+    InFlight(CacheKey key, CacheStore privateCacheStore) {
+      this.key = key;
+      this.privateCacheStore = privateCacheStore;
+    }
+  }
 }
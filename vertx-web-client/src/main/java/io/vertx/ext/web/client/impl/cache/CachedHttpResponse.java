@@ -45,11 +45,15 @@ public class CachedHttpResponse {
   }
 
   static CachedHttpResponse wrap(HttpResponse<?> response, CacheControl cacheControl) {
+    return wrap(response, response.bodyAsBuffer(), cacheControl);
+  }
+
+  static CachedHttpResponse wrap(HttpResponse<?> response, Buffer body, CacheControl cacheControl) {
     return new CachedHttpResponse(
       response.version().name(),
       response.statusCode(),
       response.statusMessage(),
-      response.bodyAsBuffer(),
+      body,
       response.headers(),
       cacheControl
     );
@@ -57,12 +61,18 @@ public class CachedHttpResponse {
 
   CachedHttpResponse(String version, int statusCode, String statusMessage, Buffer body,
     MultiMap responseHeaders, CacheControl cacheControl) {
+    // TODO: should we look at the Date or Age header instead?
+    this(version, statusCode, statusMessage, body, responseHeaders, cacheControl, Instant.now());
+  }
+
+  CachedHttpResponse(String version, int statusCode, String statusMessage, Buffer body,
+    MultiMap responseHeaders, CacheControl cacheControl, Instant timestamp) {
     this.version = version;
     this.statusCode = statusCode;
     this.statusMessage = statusMessage;
     this.body = body;
     this.responseHeaders = responseHeaders;
-    this.timestamp = Instant.now(); // TODO: should we look at the Date or Age header instead?
+    this.timestamp = timestamp;
     this.cacheControl = cacheControl;
   }
 
@@ -124,6 +134,11 @@ public class CachedHttpResponse {
   }
 
   private boolean useStale(CacheControlDirective directive) {
+    if (cacheControl.mustRevalidate()) {
+      // A stale response must not be used without a successful validation
+      return false;
+    }
+
     long secondsStale = Math.max(0L, age() - getCacheControl().getMaxAge());
 
     long maxSecondsStale = getCacheControl()
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2022 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.client.impl.cache;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Promise;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.streams.WriteStream;
+
+/**
+ * A response body stream keeping a copy of the body for the cache while it is written to the decoding stream.
+ * The copy is dropped as soon as it grows beyond {@code maxSize}, the body is then only written to the decoding stream.
+ */
+class CachingBodyStream implements WriteStream<Buffer> {
+
+  private final WriteStream<Buffer> delegate;
+  private final Handler<Buffer> bodyHandler;
+  private final int maxSize;
+  private Buffer body = Buffer.buffer();
+
+  CachingBodyStream(WriteStream<Buffer> delegate, int maxSize, Handler<Buffer> bodyHandler) {
+    this.delegate = delegate;
+    this.maxSize = maxSize;
+    this.bodyHandler = bodyHandler;
+  }
+
+  @Override
+  public WriteStream<Buffer> exceptionHandler(Handler<Throwable> handler) {
+    delegate.exceptionHandler(handler);
+    return this;
+  }
+
+  @Override
+  public Future<Void> write(Buffer data) {
+    Promise<Void> promise = Promise.promise();
+    write(data, promise);
+    return promise.future();
+  }
+
+  @Override
+  public void write(Buffer data, Handler<AsyncResult<Void>> handler) {
+    if (body != null) {
+      if (body.length() + data.length() > maxSize) {
+        // too large to be cached, stop copying
+        body = null;
+      } else {
+        body.appendBuffer(data);
+      }
+    }
+    delegate.write(data, handler);
+  }
+
+  @Override
+  public void end(Handler<AsyncResult<Void>> handler) {
+    delegate.end(ar -> {
+      if (ar.succeeded() && body != null) {
+        // the body was entirely received and decoded
+        bodyHandler.handle(body);
+      }
+      if (handler != null) {
+        handler.handle(ar);
+      }
+    });
+  }
+
+  @Override
+  public WriteStream<Buffer> setWriteQueueMaxSize(int maxSize) {
+    delegate.setWriteQueueMaxSize(maxSize);
+    return this;
+  }
+
+  @Override
+  public boolean writeQueueFull() {
+    return delegate.writeQueueFull();
+  }
+
+  @Override
+  public WriteStream<Buffer> drainHandler(Handler<Void> handler) {
+    delegate.drainHandler(handler);
+    return this;
+  }
+}
@@ -0,0 +1,558 @@
+/*
+ * Copyright 2022 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.client.impl.cache;
+
+import io.netty.util.internal.PlatformDependent;
+import io.vertx.core.Future;
+import io.vertx.core.MultiMap;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.impl.TaskQueue;
+import io.vertx.core.impl.VertxInternal;
+import io.vertx.core.impl.logging.Logger;
+import io.vertx.core.impl.logging.LoggerFactory;
+import io.vertx.ext.web.client.spi.CacheStore;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+/**
+ * A {@link CacheStore} keeping the responses in memory-mapped segment files on the local disk, only a small index of
+ * the key locations is kept on the heap, so the cached responses survive a restart.
+ * <p>
+ * Segments are append only, a record is written with its checksum and its header is written last, so a record torn by
+ * a crash is ignored when the segments are read back. When a segment is full a new one is started, the older segments
+ * mostly made of replaced or deleted responses are compacted into it and the oldest segments are dropped once the
+ * store exceeds its maximum size.
+ * <p>
+ * The writes are done one at a time on a worker thread. The reads are copies of the mapped memory, small records are
+ * read on the calling thread, the larger ones may fault cold pages in from the disk and are read on a worker thread.
+ */
+public class DiskCacheStore implements CacheStore {
+
+  private static final Logger LOG = LoggerFactory.getLogger(DiskCacheStore.class);
+
+  /**
+   * Default size of a segment file = 64 MiB
+   */
+  public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+  /**
+   * Default maximum size of the store = 1 GiB
+   */
+  public static final long DEFAULT_MAX_SIZE = 1024L * 1024 * 1024;
+
+  private static final String SEGMENT_PREFIX = "segment-";
+  private static final String SEGMENT_SUFFIX = ".dat";
+  private static final int MAGIC = 0x56434831;
+  // magic, payload length and checksum
+  private static final int HEADER_SIZE = 12;
+  private static final byte PUT = 1;
+  private static final byte DELETE = 2;
+  // segments with less live data than this ratio are compacted
+  private static final double COMPACTION_RATIO = 0.5;
+  // records up to this size (a page) are read on the calling thread
+  private static final int INLINE_READ_SIZE = 4096;
+
+  private final VertxInternal vertx;
+  private final File directory;
+  private final int segmentSize;
+  private final int maxSegments;
+  private final Map<String, Location> index = new ConcurrentHashMap<>();
+  // oldest first, the last one is the segment being written
+  private final Deque<Segment> segments = new ArrayDeque<>();
+  // the writes, in order
+  private final TaskQueue writes = new TaskQueue();
+  private final Future<Void> ready;
+
+  public DiskCacheStore(Vertx vertx, String directory) {
+    this(vertx, directory, DEFAULT_MAX_SIZE, DEFAULT_SEGMENT_SIZE);
+  }
+
+  public DiskCacheStore(Vertx vertx, String directory, long maxSize, int segmentSize) {
+    if (segmentSize <= HEADER_SIZE) {
+      throw new IllegalArgumentException("segmentSize must be > " + HEADER_SIZE);
+    }
+    if (maxSize < 2L * segmentSize) {
+      throw new IllegalArgumentException("maxSize must be at least 2 segments");
+    }
+    this.vertx = (VertxInternal) vertx;
+    this.directory = new File(directory);
+    this.segmentSize = segmentSize;
+    this.maxSegments = (int) Math.min(Integer.MAX_VALUE, maxSize / segmentSize);
+    // reading the segments back may take a while
+    this.ready = execute(() -> {
+      recover();
+      return null;
+    });
+  }
+
+  @Override
+  public Future<CachedHttpResponse> get(CacheKey key) {
+    return ready.compose(v -> {
+      final String id = key.toString();
+      final Location location = index.get(id);
+      if (location == null) {
+        return Future.succeededFuture();
+      }
+      if (location.size <= INLINE_READ_SIZE) {
+        try {
+          return Future.succeededFuture(read(id, location));
+        } catch (IOException e) {
+          return Future.failedFuture(e);
+        }
+      }
+      // the reads don't need to wait for each other, nor for the writes
+      return vertx.getOrCreateContext().executeBlocking(promise -> {
+        try {
+          promise.complete(read(id, location));
+        } catch (IOException e) {
+          promise.fail(e);
+        }
+      }, false);
+    });
+  }
+
+  @Override
+  public Future<CachedHttpResponse> set(CacheKey key, CachedHttpResponse response) {
+    return ready.compose(v -> execute(() -> {
+      append(key.toString(), encode(key.toString(), response));
+      return response;
+    }));
+  }
+
+  @Override
+  public Future<Void> delete(CacheKey key) {
+    return ready.compose(v -> execute(() -> {
+      remove(key.toString());
+      return null;
+    }));
+  }
+
+  @Override
+  public Future<Void> flush() {
+    return ready.compose(v -> execute(() -> {
+      synchronized (this) {
+        final long next = segments.peekLast().id + 1;
+        index.clear();
+        // oldest first, so a crash can't bring back older responses
+        while (!segments.isEmpty()) {
+          delete(segments.poll());
+        }
+        segments.add(new Segment(directory, next, segmentSize));
+        return null;
+      }
+    }));
+  }
+
+  /**
+   * @return the number of cached responses
+   */
+  public int size() {
+    return index.size();
+  }
+
+  private CachedHttpResponse read(String id, Location location) throws IOException {
+    byte[] payload = null;
+    while (location != null) {
+      payload = location.segment.read(location.offset);
+      final Location current = index.get(id);
+      if (payload != null || current == location) {
+        break;
+      }
+      // moved by a compaction in the meantime
+      location = current;
+    }
+    return payload == null ? null : decode(payload);
+  }
+
+  /**
+   * Runs a write on a worker, after the previous ones.
+   */
+  private <T> Future<T> execute(Callable<T> task) {
+    return vertx.getOrCreateContext().executeBlocking(promise -> {
+      try {
+        promise.complete(task.call());
+      } catch (Exception e) {
+        promise.fail(e);
+      }
+    }, writes);
+  }
+
+  private synchronized void append(String key, byte[] payload) throws IOException {
+    final int size = HEADER_SIZE + payload.length;
+    if (size > segmentSize) {
+      // can't ever fit, but a previous response is now outdated
+      remove(key);
+      return;
+    }
+    Segment active = segments.peekLast();
+    if (active.position + size > segmentSize) {
+      active = roll(size);
+    }
+    int offset = active.write(payload);
+    if (payload[0] == PUT) {
+      active.live += size;
+      index(key, new Location(active, offset, size));
+    } else {
+      release(key, index.remove(key));
+    }
+  }
+
+  private synchronized void remove(String key) throws IOException {
+    if (index.containsKey(key)) {
+      append(key, encode(key, null));
+    }
+  }
+
+  private void index(String key, Location location) {
+    release(key, index.put(key, location));
+    location.segment.keys.add(key);
+  }
+
+  private static void release(String key, Location previous) {
+    if (previous != null) {
+      previous.segment.live -= previous.size;
+      previous.segment.keys.remove(key);
+    }
+  }
+
+  /**
+   * Starts a new segment, with room for a record of {@code reserved} bytes after the compacted records.
+   */
+  private Segment roll(int reserved) throws IOException {
+    Segment sealed = segments.peekLast();
+    sealed.buffer.force();
+    segments.add(new Segment(directory, sealed.id + 1, segmentSize));
+    compact(reserved);
+    while (segments.size() > maxSegments) {
+      drop(segments.peekFirst());
+    }
+    return segments.peekLast();
+  }
+
+  /**
+   * Moves the live records of the segments that are mostly garbage to the active segment, as long as {@code reserved}
+   * bytes are left. The deletes are moved too as long as an older segment may still hold the response they deleted.
+   */
+  private void compact(int reserved) throws IOException {
+    final Segment active = segments.peekLast();
+    final long now = System.currentTimeMillis();
+    Iterator<Segment> it = segments.iterator();
+    while (it.hasNext()) {
+      Segment segment = it.next();
+      if (segment == active) {
+        break;
+      }
+      if (segment.live >= segmentSize * COMPACTION_RATIO) {
+        continue;
+      }
+      final boolean oldest = segment == segments.peekFirst();
+      final List<byte[]> copies = new ArrayList<>();
+      final List<String> expired = new ArrayList<>();
+      int needed = 0;
+      int offset = 0;
+      byte[] payload;
+      while ((payload = segment.read(offset)) != null) {
+        String key = decodeKey(payload);
+        Location location = index.get(key);
+        byte[] copy = null;
+        if (payload[0] == PUT) {
+          if (location != null && location.segment == segment && location.offset == offset) {
+            if (LocalCacheStore.expiresAt(decode(payload)) > now) {
+              copy = payload;
+            } else {
+              expired.add(key);
+              copy = oldest ? null : encode(key, null);
+            }
+          }
+        } else if (!oldest && location == null) {
+          copy = payload;
+        }
+        if (copy != null) {
+          copies.add(copy);
+          needed += HEADER_SIZE + copy.length;
+        }
+        offset += HEADER_SIZE + payload.length;
+      }
+      if (active.position + needed + reserved > segmentSize) {
+        // not enough room left, try again on the next roll
+        continue;
+      }
+      for (byte[] copy : copies) {
+        int at = active.write(copy);
+        String key = decodeKey(copy);
+        if (copy[0] == PUT) {
+          int size = HEADER_SIZE + copy.length;
+          active.live += size;
+          index(key, new Location(active, at, size));
+        }
+      }
+      for (String key : expired) {
+        release(key, index.remove(key));
+      }
+      it.remove();
+      delete(segment);
+    }
+  }
+
+  private void drop(Segment segment) {
+    segments.remove(segment);
+    for (String key : segment.keys) {
+      index.remove(key);
+    }
+    delete(segment);
+  }
+
+  private static void delete(Segment segment) {
+    segment.close();
+    if (!segment.file.delete()) {
+      LOG.warn("Failed to delete cache segment " + segment.file);
+    }
+  }
+
+  private synchronized void recover() throws IOException {
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new IOException("Failed to create cache directory " + directory);
+    }
+    final File[] files = directory.listFiles((dir, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+    final List<Long> ids = new ArrayList<>();
+    if (files != null) {
+      for (File file : files) {
+        String name = file.getName();
+        try {
+          ids.add(Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()), 16));
+        } catch (NumberFormatException e) {
+          LOG.warn("Ignoring unexpected file in the cache directory " + file);
+        }
+      }
+    }
+    Collections.sort(ids);
+    for (long id : ids) {
+      Segment segment = new Segment(directory, id, segmentSize);
+      segments.add(segment);
+      // replay the records, the last one for a key wins
+      byte[] payload;
+      while ((payload = segment.read(segment.position)) != null) {
+        final int size = HEADER_SIZE + payload.length;
+        final String key = decodeKey(payload);
+        if (payload[0] == PUT) {
+          segment.live += size;
+          index(key, new Location(segment, segment.position, size));
+        } else {
+          release(key, index.remove(key));
+        }
+        segment.position += size;
+      }
+    }
+    if (segments.isEmpty()) {
+      segments.add(new Segment(directory, 0, segmentSize));
+    }
+    while (segments.size() > maxSegments) {
+      drop(segments.peekFirst());
+    }
+  }
+
+  private static byte[] encode(String key, CachedHttpResponse response) throws IOException {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream(
+      response == null || response.getBody() == null ? 128 : response.getBody().length() + 512);
+    final DataOutputStream out = new DataOutputStream(bytes);
+    out.writeByte(response == null ? DELETE : PUT);
+    writeString(out, key);
+    if (response != null) {
+      out.writeLong(response.getTimestamp().toEpochMilli());
+      writeString(out, response.getVersion());
+      out.writeInt(response.getStatusCode());
+      writeString(out, response.getStatusMessage());
+      MultiMap headers = response.getResponseHeaders();
+      out.writeInt(headers == null ? 0 : headers.size());
+      if (headers != null) {
+        for (Map.Entry<String, String> header : headers) {
+          writeString(out, header.getKey());
+          writeString(out, header.getValue());
+        }
+      }
+      Buffer body = response.getBody();
+      if (body == null) {
+        out.writeInt(-1);
+      } else {
+        out.writeInt(body.length());
+        out.write(body.getBytes());
+      }
+    }
+    return bytes.toByteArray();
+  }
+
+  private static String decodeKey(byte[] payload) throws IOException {
+    final DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+    in.readByte();
+    return readString(in);
+  }
+
+  private static CachedHttpResponse decode(byte[] payload) throws IOException {
+    final DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+    in.readByte();
+    readString(in);
+    final Instant timestamp = Instant.ofEpochMilli(in.readLong());
+    final String version = readString(in);
+    final int statusCode = in.readInt();
+    final String statusMessage = readString(in);
+    final MultiMap headers = MultiMap.caseInsensitiveMultiMap();
+    for (int i = in.readInt(); i > 0; i--) {
+      headers.add(readString(in), readString(in));
+    }
+    final int length = in.readInt();
+    Buffer body = null;
+    if (length >= 0) {
+      byte[] bytes = new byte[length];
+      in.readFully(bytes);
+      body = Buffer.buffer(bytes);
+    }
+    return new CachedHttpResponse(version, statusCode, statusMessage, body, headers, CacheControl.parse(headers), timestamp);
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    if (value == null) {
+      out.writeInt(-1);
+    } else {
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      out.writeInt(bytes.length);
+      out.write(bytes);
+    }
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    final int length = in.readInt();
+    if (length < 0) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static final class Location {
+
+    final Segment segment;
+    final int offset;
+    final int size;
+
+    Location(Segment segment, int offset, int size) {
+      this.segment = segment;
+      this.offset = offset;
+      this.size = size;
+    }
+  }
+
+  private static final class Segment {
+
+    final long id;
+    final File file;
+    final MappedByteBuffer buffer;
+    // the reads of the buffer, the buffer is unmapped once the segment is deleted
+    final ReadWriteLock lock = new ReentrantReadWriteLock();
+    boolean closed;
+    // the end of the valid records
+    int position;
+    // the bytes of the records still referenced by the index
+    long live;
+    // the keys of these records
+    final Set<String> keys = new HashSet<>();
+
+    Segment(File directory, long id, int size) throws IOException {
+      this.id = id;
+      this.file = new File(directory, String.format("%s%016x%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+      try (FileChannel channel = FileChannel.open(file.toPath(),
+        StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(size, channel.size()));
+      }
+    }
+
+    /**
+     * @return the offset of the record
+     */
+    int write(byte[] payload) {
+      final int offset = position;
+      final CRC32 crc = new CRC32();
+      crc.update(payload, 0, payload.length);
+      buffer.putInt(offset + 4, payload.length);
+      buffer.putInt(offset + 8, (int) crc.getValue());
+      final ByteBuffer dup = buffer.duplicate();
+      dup.position(offset + HEADER_SIZE);
+      dup.put(payload);
+      // the record is only valid once the header is complete
+      buffer.putInt(offset, MAGIC);
+      position += HEADER_SIZE + payload.length;
+      return offset;
+    }
+
+    /**
+     * @return the payload of the record at the offset or {@code null} when there isn't a valid one
+     */
+    byte[] read(int offset) {
+      lock.readLock().lock();
+      try {
+        return closed ? null : readRecord(offset);
+      } finally {
+        lock.readLock().unlock();
+      }
+    }
+
+    void close() {
+      lock.writeLock().lock();
+      try {
+        if (!closed) {
+          closed = true;
+          PlatformDependent.freeDirectBuffer(buffer);
+        }
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+
+    private byte[] readRecord(int offset) {
+      final int limit = buffer.capacity();
+      if (offset + HEADER_SIZE > limit || buffer.getInt(offset) != MAGIC) {
+        return null;
+      }
+      final int length = buffer.getInt(offset + 4);
+      if (length <= 0 || length > limit - offset - HEADER_SIZE) {
+        return null;
+      }
+      final byte[] payload = new byte[length];
+      final ByteBuffer dup = buffer.duplicate();
+      dup.position(offset + HEADER_SIZE);
+      dup.get(payload);
+      final CRC32 crc = new CRC32();
+      crc.update(payload, 0, length);
+      if ((int) crc.getValue() != buffer.getInt(offset + 8)) {
+        return null;
+      }
+      return payload;
+    }
+  }
+}
@@ -16,38 +16,210 @@
 package io.vertx.ext.web.client.impl.cache;
 
 import io.vertx.core.Future;
+import io.vertx.core.MultiMap;
 import io.vertx.ext.web.client.spi.CacheStore;
-import java.util.HashMap;
+import io.vertx.ext.web.client.spi.MeteredCacheStore;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
- * A {@link CacheStore} implementation using a local {@link Map}.
+ * A {@link CacheStore} implementation using a local {@link Map}, safe to share across event loops.
+ * <p>
+ * The store is bounded by the weight of the cached responses, roughly the bytes used by their bodies and headers. When
+ * it is full, responses that cannot be served anymore are purged first and then the least recently used ones.
  *
  * @author <a href="mailto:craigday3@gmail.com">Craig Day</a>
  */
-public class LocalCacheStore implements CacheStore {
+public class LocalCacheStore implements MeteredCacheStore {
+
+  /**
+   * Default maximum weight of the cached responses = 64 MiB
+   */
+  public static final long DEFAULT_MAX_WEIGHT = 64 * 1024 * 1024;
+
+  // the weight of an entry besides its body and headers
+  private static final int ENTRY_WEIGHT = 128;
+  // the minimum interval between two scans for expired entries
+  private static final long PURGE_INTERVAL = 1000;
 
-  private final Map<CacheKey, CachedHttpResponse> localMap = new HashMap<>();
+  private final long maxWeight;
+  // in access order, the eldest entry is the least recently used
+  private final Map<CacheKey, Entry> localMap = new LinkedHashMap<>(16, 0.75f, true);
+  private long weight;
+  private long hits;
+  private long misses;
+  private long evictions;
+  private long nextPurge;
+
+  public LocalCacheStore() {
+    this(DEFAULT_MAX_WEIGHT);
+  }
+
+  public LocalCacheStore(long maxWeight) {
+    if (maxWeight < 1) {
+      throw new IllegalArgumentException("maxWeight must be >= 1");
+    }
+    this.maxWeight = maxWeight;
+  }
 
   @Override
   public Future<CachedHttpResponse> get(CacheKey key) {
-    return Future.succeededFuture(localMap.get(key));
+    final long now = System.currentTimeMillis();
+    synchronized (this) {
+      Entry entry = localMap.get(key);
+      if (entry != null && entry.expiresAt <= now) {
+        remove(key);
+        evictions++;
+        entry = null;
+      }
+      if (entry == null) {
+        misses++;
+        return Future.succeededFuture();
+      }
+      hits++;
+      return Future.succeededFuture(entry.response);
+    }
   }
 
   @Override
   public Future<CachedHttpResponse> set(CacheKey key, CachedHttpResponse response) {
-    return Future.succeededFuture(localMap.put(key, response));
+    final Entry entry = new Entry(response);
+    final long now = System.currentTimeMillis();
+    synchronized (this) {
+      remove(key);
+      if (entry.weight > maxWeight) {
+        // would evict everything else and still not fit
+        return Future.succeededFuture(response);
+      }
+      localMap.put(key, entry);
+      weight += entry.weight;
+      if (weight > maxWeight || now >= nextPurge) {
+        purge(now);
+      }
+      // then the least recently used
+      Iterator<Entry> it = localMap.values().iterator();
+      while (weight > maxWeight && it.hasNext()) {
+        weight -= it.next().weight;
+        it.remove();
+        evictions++;
+      }
+    }
+    return Future.succeededFuture(response);
   }
 
   @Override
   public Future<Void> delete(CacheKey key) {
-    localMap.remove(key);
+    synchronized (this) {
+      remove(key);
+    }
     return Future.succeededFuture();
   }
 
   @Override
   public Future<Void> flush() {
-    localMap.clear();
+    synchronized (this) {
+      localMap.clear();
+      weight = 0;
+    }
     return Future.succeededFuture();
   }
+
+  @Override
+  public synchronized long hitCount() {
+    return hits;
+  }
+
+  @Override
+  public synchronized long missCount() {
+    return misses;
+  }
+
+  @Override
+  public synchronized long evictionCount() {
+    return evictions;
+  }
+
+  @Override
+  public synchronized long weight() {
+    return weight;
+  }
+
+  @Override
+  public synchronized int size() {
+    return localMap.size();
+  }
+
+  private void remove(CacheKey key) {
+    Entry previous = localMap.remove(key);
+    if (previous != null) {
+      weight -= previous.weight;
+    }
+  }
+
+  private void purge(long now) {
+    nextPurge = now + PURGE_INTERVAL;
+    Iterator<Entry> it = localMap.values().iterator();
+    while (it.hasNext()) {
+      Entry entry = it.next();
+      if (entry.expiresAt <= now) {
+        weight -= entry.weight;
+        it.remove();
+        evictions++;
+      }
+    }
+  }
+
+  private static final class Entry {
+
+    final CachedHttpResponse response;
+    final long weight;
+    final long expiresAt;
+
+    Entry(CachedHttpResponse response) {
+      this.response = response;
+      this.weight = weigh(response);
+      this.expiresAt = expiresAt(response);
+    }
+  }
+
+  private static long weigh(CachedHttpResponse response) {
+    long weight = ENTRY_WEIGHT;
+    if (response.getBody() != null) {
+      weight += response.getBody().length();
+    }
+    if (response.getStatusMessage() != null) {
+      weight += response.getStatusMessage().length();
+    }
+    MultiMap headers = response.getResponseHeaders();
+    if (headers != null) {
+      for (Map.Entry<String, String> header : headers) {
+        weight += header.getKey().length() + header.getValue().length();
+      }
+    }
+    return weight;
+  }
+
+  /**
+   * A response can be served until its max age and the stale windows have passed, after that it is only useful to
+   * revalidate it if it has an entity tag.
+   */
+  static long expiresAt(CachedHttpResponse response) {
+    CacheControl cacheControl = response.getCacheControl();
+    if (cacheControl == null || cacheControl.getEtag() != null) {
+      return Long.MAX_VALUE;
+    }
+    Map<CacheControlDirective, Long> timeDirectives = cacheControl.getTimeDirectives();
+    long stale = Math.max(
+      timeDirectives.getOrDefault(CacheControlDirective.STALE_WHILE_REVALIDATE, 0L),
+      timeDirectives.getOrDefault(CacheControlDirective.STALE_IF_ERROR, 0L));
+    long timestamp = response.getTimestamp().toEpochMilli();
+    long seconds = cacheControl.getMaxAge() + stale + 1;
+    if (seconds < 0 || seconds > (Long.MAX_VALUE - timestamp) / 1000) {
+      // no max age, or too far away
+      return Long.MAX_VALUE;
+    }
+    return timestamp + seconds * 1000;
+  }
 }
@@ -21,6 +21,7 @@ import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
 import io.vertx.ext.web.client.impl.cache.CacheKey;
 import io.vertx.ext.web.client.impl.cache.CachedHttpResponse;
+import io.vertx.ext.web.client.impl.cache.DiskCacheStore;
 import io.vertx.ext.web.client.impl.cache.LocalCacheStore;
 import io.vertx.ext.web.client.impl.cache.NoOpCacheStore;
 import io.vertx.ext.web.client.impl.cache.SharedDataCacheStore;
@@ -53,7 +54,7 @@ public interface CacheStore {
   }
 
   /**
-   * Builds a cache store that uses a {@link java.util.concurrent.ConcurrentHashMap}.
+   * Builds a cache store that keeps the responses in memory, up to 64 MiB.
    *
    * @return the new cache store
    */
@@ -61,6 +62,42 @@ public interface CacheStore {
     return new LocalCacheStore();
   }
 
+  /**
+   * Builds a cache store that keeps the responses in memory. The least recently used responses are evicted when the
+   * size of the cached bodies and headers exceeds {@code maxWeight} bytes.
+   *
+   * @param maxWeight the maximum weight of the cached responses
+   * @return the new cache store
+   */
+  static MeteredCacheStore localStore(long maxWeight) {
+    return new LocalCacheStore(maxWeight);
+  }
+
+  /**
+   * Builds a cache store that keeps the responses in memory-mapped files in a local directory, up to 1 GiB. The
+   * responses are read back when a store is created on the same directory, e.g. after a restart.
+   *
+   * @param vertx the vertx instance
+   * @param directory the directory of the cache files
+   * @return the new cache store
+   */
+  static CacheStore diskStore(Vertx vertx, String directory) {
+    return new DiskCacheStore(vertx, directory);
+  }
+
+  /**
+   * Builds a cache store that keeps the responses in memory-mapped files in a local directory. The oldest responses
+   * are dropped when the files exceed {@code maxSize} bytes.
+   *
+   * @param vertx the vertx instance
+   * @param directory the directory of the cache files
+   * @param maxSize the maximum size of the cache files
+   * @return the new cache store
+   */
+  static CacheStore diskStore(Vertx vertx, String directory, long maxSize) {
+    return new DiskCacheStore(vertx, directory, maxSize, (int) Math.min(DiskCacheStore.DEFAULT_SEGMENT_SIZE, maxSize / 2));
+  }
+
   /**
    * Retrieve a cached response.
    *
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2022 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.client.spi;
+
+/**
+ * A {@link CacheStore} counting its lookups and evictions, e.g. to size it.
+ */
+public interface MeteredCacheStore extends CacheStore {
+
+  /**
+   * @return the number of lookups that found a response
+   */
+  long hitCount();
+
+  /**
+   * @return the number of lookups that did not find a response
+   */
+  long missCount();
+
+  /**
+   * @return the number of responses removed because the store was full or because they expired
+   */
+  long evictionCount();
+
+  /**
+   * @return the current weight of the cached responses, roughly the bytes used by their bodies and headers
+   */
+  long weight();
+
+  /**
+   * @return the number of cached responses
+   */
+  int size();
+}
@@ -1,7 +1,9 @@
 package io.vertx.ext.web.client;
 
 import io.netty.handler.codec.DateFormatter;
+import io.vertx.core.AsyncResult;
 import io.vertx.core.Future;
+import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.HttpClientOptions;
@@ -10,20 +12,28 @@ import io.vertx.core.http.HttpMethod;
 import io.vertx.core.http.HttpServer;
 import io.vertx.core.http.HttpServerOptions;
 import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.streams.WriteStream;
 import io.vertx.ext.unit.Async;
 import io.vertx.ext.unit.TestContext;
 import io.vertx.ext.unit.junit.VertxUnitRunner;
 import io.vertx.ext.web.client.impl.cache.CacheKey;
 import io.vertx.ext.web.client.impl.cache.CachedHttpResponse;
 import io.vertx.ext.web.client.spi.CacheStore;
+import io.vertx.ext.web.codec.BodyCodec;
+import io.vertx.test.core.TestUtils;
+import java.nio.file.Files;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import org.junit.After;
@@ -567,6 +577,145 @@ public class CachingWebClientTest {
     context.assertEquals(response.get().statusCode(), 503);
   }
 
+  @Test
+  public void testStaleWhileRevalidateRefreshesInBackground(TestContext context) {
+    AtomicInteger hits = new AtomicInteger();
+    startMockServer(context, req -> {
+      hits.incrementAndGet();
+      req.response().headers().set(HttpHeaders.CACHE_CONTROL, "public, max-age=1, stale-while-revalidate=10");
+    });
+
+    String body1 = executeGetBlocking(context);
+
+    // Wait > max-age but < stale-while-revalidate
+    Async waiter1 = context.async();
+    vertx.setTimer(2000, l -> waiter1.complete());
+    waiter1.await();
+
+    // The stale response is served right away and refreshed in the background
+    String body2 = executeGetBlocking(context);
+
+    Async waiter2 = context.async();
+    vertx.setTimer(500, l -> waiter2.complete());
+    waiter2.await();
+
+    String body3 = executeGetBlocking(context);
+
+    context.assertEquals(body1, body2);
+    context.assertNotEquals(body2, body3);
+    context.assertEquals(2, hits.get());
+  }
+
+  @Test
+  public void testStaleWhileRevalidateStreamedBody(TestContext context) {
+    AtomicInteger hits = new AtomicInteger();
+    startMockServer(context, req -> {
+      hits.incrementAndGet();
+      req.response().headers().set(HttpHeaders.CACHE_CONTROL, "public, max-age=1, stale-while-revalidate=10");
+    });
+
+    String body1 = executeGetBlocking(context);
+
+    // Wait > max-age but < stale-while-revalidate
+    Async waiter1 = context.async();
+    vertx.setTimer(2000, l -> waiter1.complete());
+    waiter1.await();
+
+    Buffer received = Buffer.buffer();
+    AtomicInteger ends = new AtomicInteger();
+    WriteStream<Buffer> stream = new WriteStream<Buffer>() {
+      @Override
+      public WriteStream<Buffer> exceptionHandler(Handler<Throwable> handler) {
+        return this;
+      }
+      @Override
+      public Future<Void> write(Buffer data) {
+        received.appendBuffer(data);
+        return Future.succeededFuture();
+      }
+      @Override
+      public void write(Buffer data, Handler<AsyncResult<Void>> handler) {
+        handler.handle(write(data));
+      }
+      @Override
+      public void end(Handler<AsyncResult<Void>> handler) {
+        ends.incrementAndGet();
+        handler.handle(Future.succeededFuture());
+      }
+      @Override
+      public WriteStream<Buffer> setWriteQueueMaxSize(int maxSize) {
+        return this;
+      }
+      @Override
+      public boolean writeQueueFull() {
+        return false;
+      }
+      @Override
+      public WriteStream<Buffer> drainHandler(Handler<Void> handler) {
+        return this;
+      }
+    };
+    Async request = context.async();
+    defaultClient.get("localhost", "/").as(BodyCodec.pipe(stream)).send(context.asyncAssertSuccess(resp -> {
+      request.complete();
+    }));
+    request.await();
+
+    // Let the background refresh complete
+    Async waiter2 = context.async();
+    vertx.setTimer(500, l -> waiter2.complete());
+    waiter2.await();
+
+    // The refreshed body is only cached, it does not reach the caller's stream
+    context.assertEquals(body1, received.toString());
+    context.assertEquals(1, ends.get());
+    context.assertEquals(2, hits.get());
+    context.assertNotEquals(body1, executeGetBlocking(context));
+  }
+
+  @Test
+  public void testStaleIfErrorServerDown(TestContext context) {
+    startMockServer(context, req -> {
+      req.response().headers().set(HttpHeaders.CACHE_CONTROL, "public, max-age=1, stale-if-error=10");
+    });
+
+    String body1 = executeGetBlocking(context);
+
+    Async closed = context.async();
+    server.close(context.asyncAssertSuccess(v -> closed.complete()));
+    closed.await();
+
+    Async waiter = context.async();
+    vertx.setTimer(2000, l -> waiter.complete());
+    waiter.await();
+
+    // The connection fails, the stale response is served instead
+    String body2 = executeGetBlocking(context);
+
+    context.assertEquals(body1, body2);
+  }
+
+  @Test
+  public void testStaleIfErrorMustRevalidate(TestContext context) {
+    startMockServer(context, req -> {
+      req.response().headers().set(HttpHeaders.CACHE_CONTROL, "public, max-age=1, stale-if-error=10, must-revalidate");
+    });
+
+    executeGetBlocking(context);
+
+    Async closed = context.async();
+    server.close(context.asyncAssertSuccess(v -> closed.complete()));
+    closed.await();
+
+    Async waiter = context.async();
+    vertx.setTimer(2000, l -> waiter.complete());
+    waiter.await();
+
+    Async request = context.async();
+    defaultClient.get("localhost", "/").send(context.asyncAssertFailure(err -> request.complete()));
+    request.await();
+  }
+
   @Test
   public void testMatchingPaths(TestContext context) {
     startMockServer(context, "public, max-age=300");
@@ -886,6 +1035,356 @@ public class CachingWebClientTest {
     context.assertNotEquals(body2, body3);
   }
 
+  // Body codecs
+
+  @Test
+  public void testPublicJsonBody(TestContext context) {
+    AtomicInteger hits = new AtomicInteger();
+    startMockServer(context, req -> {
+      req.response().headers().set("Cache-Control", "public, max-age=300");
+      req.response().end(new JsonObject().put("hit", hits.incrementAndGet()).encode());
+    });
+
+    for (int i = 0; i < 2; i++) {
+      Async request = context.async();
+      defaultClient.get("localhost", "/").as(BodyCodec.jsonObject()).send(context.asyncAssertSuccess(resp -> {
+        context.assertEquals(1, resp.body().getInteger("hit"));
+        request.complete();
+      }));
+      request.await();
+    }
+    context.assertEquals(1, hits.get());
+  }
+
+  @Test
+  public void testPublicStreamedBody(TestContext context) {
+    String expected = TestUtils.randomAlphaString(64 * 1024);
+    AtomicInteger hits = new AtomicInteger();
+    startMockServer(context, req -> {
+      hits.incrementAndGet();
+      req.response().headers().set("Cache-Control", "public, max-age=300");
+      req.response().end(expected);
+    });
+
+    for (int i = 0; i < 2; i++) {
+      Buffer received = Buffer.buffer();
+      WriteStream<Buffer> stream = new WriteStream<Buffer>() {
+        @Override
+        public WriteStream<Buffer> exceptionHandler(Handler<Throwable> handler) {
+          return this;
+        }
+        @Override
+        public Future<Void> write(Buffer data) {
+          received.appendBuffer(data);
+          return Future.succeededFuture();
+        }
+        @Override
+        public void write(Buffer data, Handler<AsyncResult<Void>> handler) {
+          handler.handle(write(data));
+        }
+        @Override
+        public void end(Handler<AsyncResult<Void>> handler) {
+          handler.handle(Future.succeededFuture());
+        }
+        @Override
+        public WriteStream<Buffer> setWriteQueueMaxSize(int maxSize) {
+          return this;
+        }
+        @Override
+        public boolean writeQueueFull() {
+          return false;
+        }
+        @Override
+        public WriteStream<Buffer> drainHandler(Handler<Void> handler) {
+          return this;
+        }
+      };
+      Async request = context.async();
+      defaultClient.get("localhost", "/").as(BodyCodec.pipe(stream)).send(context.asyncAssertSuccess(resp -> {
+        request.complete();
+      }));
+      request.await();
+      context.assertEquals(expected, received.toString());
+    }
+    context.assertEquals(1, hits.get());
+  }
+
+  @Test
+  public void testPublicStreamedBodyTooLarge(TestContext context) {
+    String expected = TestUtils.randomAlphaString(64 * 1024);
+    WebClient client = CachingWebClient.create(buildBaseWebClient(), new TestCacheStore(),
+      new CachingWebClientOptions().setMaxCachedBodySize(16 * 1024));
+    AtomicInteger hits = new AtomicInteger();
+    startMockServer(context, req -> {
+      hits.incrementAndGet();
+      req.response().headers().set("Cache-Control", "public, max-age=300");
+      req.response().end(expected);
+    });
+
+    for (int i = 0; i < 2; i++) {
+      Buffer received = Buffer.buffer();
+      WriteStream<Buffer> stream = new WriteStream<Buffer>() {
+        @Override
+        public WriteStream<Buffer> exceptionHandler(Handler<Throwable> handler) {
+          return this;
+        }
+        @Override
+        public Future<Void> write(Buffer data) {
+          received.appendBuffer(data);
+          return Future.succeededFuture();
+        }
+        @Override
+        public void write(Buffer data, Handler<AsyncResult<Void>> handler) {
+          handler.handle(write(data));
+        }
+        @Override
+        public void end(Handler<AsyncResult<Void>> handler) {
+          handler.handle(Future.succeededFuture());
+        }
+        @Override
+        public WriteStream<Buffer> setWriteQueueMaxSize(int maxSize) {
+          return this;
+        }
+        @Override
+        public boolean writeQueueFull() {
+          return false;
+        }
+        @Override
+        public WriteStream<Buffer> drainHandler(Handler<Void> handler) {
+          return this;
+        }
+      };
+      Async request = context.async();
+      client.get("localhost", "/").as(BodyCodec.pipe(stream)).send(context.asyncAssertSuccess(resp -> {
+        request.complete();
+      }));
+      request.await();
+      context.assertEquals(expected, received.toString());
+    }
+    context.assertEquals(2, hits.get());
+  }
+
+  @Test
+  public void testDiskStoreServesAfterRestart(TestContext context) throws Exception {
+    String directory = Files.createTempDirectory("caching-web-client").toString();
+    AtomicInteger hits = new AtomicInteger();
+    startMockServer(context, req -> {
+      hits.incrementAndGet();
+      req.response().headers().set("Cache-Control", "public, max-age=300");
+    });
+
+    WebClient client = CachingWebClient.create(buildBaseWebClient(), CacheStore.diskStore(vertx, directory));
+    String body1 = executeGetBlocking(context, client);
+
+    // as after a restart, the new client knows nothing of the responses read back by its store
+    WebClient restarted = CachingWebClient.create(buildBaseWebClient(), CacheStore.diskStore(vertx, directory));
+    String body2 = executeGetBlocking(context, restarted);
+    String body3 = executeGetBlocking(context, restarted);
+
+    context.assertEquals(body1, body2);
+    context.assertEquals(body1, body3);
+    context.assertEquals(1, hits.get());
+  }
+
+  @Test
+  public void testDiskStoreAfterRestartChecksVary(TestContext context) throws Exception {
+    String directory = Files.createTempDirectory("caching-web-client").toString();
+    AtomicInteger hits = new AtomicInteger();
+    startMockServer(context, req -> {
+      hits.incrementAndGet();
+      req.response().headers().set("Cache-Control", "public, max-age=300");
+      req.response().headers().set("Vary", "X-Test");
+    });
+
+    WebClient client = CachingWebClient.create(buildBaseWebClient(), CacheStore.diskStore(vertx, directory));
+    String body1 = executeGetBlocking(context, client);
+
+    WebClient restarted = CachingWebClient.create(buildBaseWebClient(), CacheStore.diskStore(vertx, directory));
+    // the stored response was for requests without the header
+    String body2 = executeGetBlocking(context, restarted, req -> req.putHeader("X-Test", "a"));
+    String body3 = executeGetBlocking(context, restarted);
+
+    context.assertNotEquals(body1, body2);
+    context.assertEquals(body1, body3);
+    context.assertEquals(2, hits.get());
+  }
+
+  // Request coalescing
+
+  @Test
+  public void testRequestCoalescing(TestContext context) {
+    AtomicInteger hits = new AtomicInteger();
+    Async listening = context.async();
+    server.requestHandler(req -> {
+      hits.incrementAndGet();
+      req.response().headers().set("Cache-Control", "public, max-age=1");
+      // slow enough for the concurrent requests to pile up
+      vertx.setTimer(200, l -> req.response().end(UUID.randomUUID().toString()));
+    });
+    server.listen(context.asyncAssertSuccess(s -> listening.complete()));
+    listening.awaitSuccess(15000);
+
+    WebClient client = CachingWebClient.create(buildBaseWebClient(), new TestCacheStore(),
+      new CachingWebClientOptions().setRequestCoalescing(true));
+
+    String body1 = executeGetBlocking(context, client);
+
+    // Wait for the cached response to expire
+    Async waiter = context.async();
+    vertx.setTimer(2000, l -> waiter.complete());
+    waiter.await();
+
+    int concurrent = 5;
+    Async requests = context.async(concurrent);
+    List<String> bodies = new CopyOnWriteArrayList<>();
+    for (int i = 0; i < concurrent; i++) {
+      client.get("localhost", "/").send(context.asyncAssertSuccess(response -> {
+        bodies.add(response.bodyAsString());
+        requests.countDown();
+      }));
+    }
+    requests.await();
+
+    context.assertEquals(2, hits.get());
+    context.assertEquals(concurrent, bodies.size());
+    for (String body : bodies) {
+      context.assertNotEquals(body1, body);
+      context.assertEquals(bodies.get(0), body);
+    }
+  }
+
+  @Test
+  public void testRequestCoalescingNoStore(TestContext context) {
+    AtomicInteger hits = new AtomicInteger();
+    Async listening = context.async();
+    server.requestHandler(req -> {
+      // the first response makes the request cacheable
+      req.response().headers().set("Cache-Control", hits.incrementAndGet() == 1 ? "public, max-age=1" : "no-store");
+      vertx.setTimer(200, l -> req.response().end(UUID.randomUUID().toString()));
+    });
+    server.listen(context.asyncAssertSuccess(s -> listening.complete()));
+    listening.awaitSuccess(15000);
+
+    WebClient client = CachingWebClient.create(buildBaseWebClient(), new TestCacheStore(),
+      new CachingWebClientOptions().setRequestCoalescing(true));
+
+    executeGetBlocking(context, client);
+
+    // Wait for the cached response to expire
+    Async waiter = context.async();
+    vertx.setTimer(2000, l -> waiter.complete());
+    waiter.await();
+
+    // a response the cache would not store is not shared, each request gets its own
+    int concurrent = 3;
+    Async requests = context.async(concurrent);
+    Set<String> bodies = ConcurrentHashMap.newKeySet();
+    for (int i = 0; i < concurrent; i++) {
+      client.get("localhost", "/").send(context.asyncAssertSuccess(response -> {
+        bodies.add(response.bodyAsString());
+        requests.countDown();
+      }));
+    }
+    requests.await();
+
+    context.assertEquals(concurrent + 1, hits.get());
+    context.assertEquals(concurrent, bodies.size());
+  }
+
+  @Test
+  public void testRequestCoalescingRedirectToCachedResponse(TestContext context) {
+    AtomicInteger hits = new AtomicInteger();
+    Async listening = context.async();
+    server.requestHandler(req -> {
+      if (req.path().equals("/target")) {
+        req.response().headers().set("Cache-Control", "public, max-age=60");
+        req.response().end("target");
+        return;
+      }
+      // the first response makes the request cacheable, the next ones redirect to the cached target
+      if (hits.incrementAndGet() == 1) {
+        req.response().headers().set("Cache-Control", "public, max-age=1");
+        req.response().end(UUID.randomUUID().toString());
+      } else {
+        req.response().setStatusCode(302).putHeader("Location", "/target");
+        vertx.setTimer(200, l -> req.response().end());
+      }
+    });
+    server.listen(context.asyncAssertSuccess(s -> listening.complete()));
+    listening.awaitSuccess(15000);
+
+    WebClient client = CachingWebClient.create(buildBaseWebClient(), new TestCacheStore(),
+      new CachingWebClientOptions().setRequestCoalescing(true));
+
+    executeGetBlocking(context, client);
+    executeGetBlocking(context, client, req -> req.uri("/target"));
+
+    // Wait for the cached response to expire
+    Async waiter = context.async();
+    vertx.setTimer(2000, l -> waiter.complete());
+    waiter.await();
+
+    // the leader follows the redirect and is served from the cache, the waiters get the same response
+    int concurrent = 3;
+    Async requests = context.async(concurrent);
+    List<String> bodies = new CopyOnWriteArrayList<>();
+    for (int i = 0; i < concurrent; i++) {
+      client.get("localhost", "/").send(context.asyncAssertSuccess(response -> {
+        bodies.add(response.bodyAsString());
+        requests.countDown();
+      }));
+    }
+    requests.awaitSuccess(15000);
+
+    context.assertEquals(2, hits.get());
+    for (String body : bodies) {
+      context.assertEquals("target", body);
+    }
+  }
+
+  @Test
+  public void testRequestCoalescingStripsCookies(TestContext context) {
+    AtomicInteger hits = new AtomicInteger();
+    Async listening = context.async();
+    server.requestHandler(req -> {
+      hits.incrementAndGet();
+      req.response().headers()
+        .set("Cache-Control", "public, max-age=1")
+        .set("Set-Cookie", "session=" + UUID.randomUUID());
+      vertx.setTimer(200, l -> req.response().end("body"));
+    });
+    server.listen(context.asyncAssertSuccess(s -> listening.complete()));
+    listening.awaitSuccess(15000);
+
+    WebClient client = CachingWebClient.create(buildBaseWebClient(), new TestCacheStore(),
+      new CachingWebClientOptions().setRequestCoalescing(true));
+
+    executeGetBlocking(context, client);
+
+    // Wait for the cached response to expire
+    Async waiter = context.async();
+    vertx.setTimer(2000, l -> waiter.complete());
+    waiter.await();
+
+    int concurrent = 3;
+    Async requests = context.async(concurrent);
+    AtomicInteger withCookies = new AtomicInteger();
+    for (int i = 0; i < concurrent; i++) {
+      client.get("localhost", "/").send(context.asyncAssertSuccess(response -> {
+        context.assertEquals("body", response.bodyAsString());
+        if (response.headers().contains("Set-Cookie") || !response.cookies().isEmpty()) {
+          withCookies.incrementAndGet();
+        }
+        requests.countDown();
+      }));
+    }
+    requests.await();
+
+    context.assertEquals(2, hits.get());
+    // only the request that went to the server gets the cookie
+    context.assertEquals(1, withCookies.get());
+  }
+
   static class TestCacheStore implements CacheStore {
     public final Map<String, CachedHttpResponse> db = new ConcurrentHashMap<>();
 
@@ -1,5 +1,7 @@
 package io.vertx.ext.web.client;
 
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.MultiMap;
 import io.vertx.core.VertxOptions;
@@ -12,6 +14,7 @@ import io.vertx.core.http.HttpServerOptions;
 import io.vertx.core.http.HttpTestBase;
 import io.vertx.core.http.HttpVersion;
 import io.vertx.core.json.JsonArray;
+import io.vertx.core.streams.WriteStream;
 import io.vertx.ext.unit.junit.RepeatRule;
 import io.vertx.ext.web.client.impl.ClientPhase;
 import io.vertx.ext.web.client.impl.HttpContext;
@@ -32,6 +35,7 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
+import java.util.function.Function;
 
 /**
  * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
@@ -576,4 +580,106 @@ public class InterceptorTest extends HttpTestBase {
     }));
     await();
   }
+
+  @Test
+  public void testInterceptBody() throws Exception {
+    server.requestHandler(req -> {
+      req.response().setChunked(true);
+      req.response().write("foo");
+      req.response().end("bar");
+    });
+    startServer();
+    List<String> chunks = new CopyOnWriteArrayList<>();
+    client.addInterceptor(ctx -> {
+      if (ctx.phase() == ClientPhase.RECEIVE_RESPONSE) {
+        // registered first, sees the body first
+        ctx.interceptBody(stream -> new MappingStream(stream, chunk -> {
+          chunks.add(chunk.toString());
+          return Buffer.buffer(chunk.toString().toUpperCase());
+        }));
+        ctx.interceptBody(stream -> new MappingStream(stream, chunk -> Buffer.buffer("<" + chunk + ">")));
+      }
+      ctx.next();
+    });
+    HttpRequest<Buffer> builder = client.get("/somepath").host("localhost").port(8080);
+    builder.send(onSuccess(resp -> {
+      assertEquals("foobar", String.join("", chunks));
+      assertTrue(resp.bodyAsString().startsWith("<FOO"));
+      assertTrue(resp.bodyAsString().endsWith("BAR>"));
+      testComplete();
+    }));
+    await();
+  }
+
+  @Test
+  public void testInterceptBodyFailure() throws Exception {
+    server.requestHandler(req -> req.response().end("invalid"));
+    startServer();
+    client.addInterceptor(ctx -> {
+      if (ctx.phase() == ClientPhase.RECEIVE_RESPONSE) {
+        ctx.interceptBody(stream -> new MappingStream(stream, chunk -> {
+          throw new IllegalStateException(chunk.toString());
+        }));
+      }
+      ctx.next();
+    });
+    HttpRequest<Buffer> builder = client.get("/somepath").host("localhost").port(8080);
+    builder.send(onFailure(err -> {
+      testComplete();
+    }));
+    await();
+  }
+
+  private static class MappingStream implements WriteStream<Buffer> {
+
+    private final WriteStream<Buffer> delegate;
+    private final Function<Buffer, Buffer> mapper;
+
+    MappingStream(WriteStream<Buffer> delegate, Function<Buffer, Buffer> mapper) {
+      this.delegate = delegate;
+      this.mapper = mapper;
+    }
+
+    @Override
+    public WriteStream<Buffer> exceptionHandler(Handler<Throwable> handler) {
+      delegate.exceptionHandler(handler);
+      return this;
+    }
+
+    @Override
+    public Future<Void> write(Buffer data) {
+      try {
+        return delegate.write(mapper.apply(data));
+      } catch (Exception e) {
+        return Future.failedFuture(e);
+      }
+    }
+
+    @Override
+    public void write(Buffer data, Handler<AsyncResult<Void>> handler) {
+      write(data).onComplete(handler);
+    }
+
+    @Override
+    public void end(Handler<AsyncResult<Void>> handler) {
+      delegate.end(handler);
+    }
+
+    @Override
+    public WriteStream<Buffer> setWriteQueueMaxSize(int maxSize) {
+      delegate.setWriteQueueMaxSize(maxSize);
+      return this;
+    }
+
+    @Override
+    public boolean writeQueueFull() {
+      return delegate.writeQueueFull();
+    }
+
+    @Override
+    public WriteStream<Buffer> drainHandler(Handler<Void> handler) {
+      delegate.drainHandler(handler);
+      return this;
+    }
+  }
 }
@@ -0,0 +1,207 @@
+package io.vertx.ext.web.client.impl.cache;
+
+import io.vertx.core.Future;
+import io.vertx.core.MultiMap;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.RequestOptions;
+import io.vertx.core.http.impl.headers.HeadersMultiMap;
+import io.vertx.test.core.TestUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class DiskCacheStoreTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private Vertx vertx;
+  private String directory;
+
+  @Before
+  public void setUp() throws Exception {
+    vertx = Vertx.vertx();
+    directory = folder.newFolder().getAbsolutePath();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    await(vertx.close());
+  }
+
+  @Test
+  public void testGetSet() throws Exception {
+    DiskCacheStore store = new DiskCacheStore(vertx, directory);
+    CachedHttpResponse response = response("public, max-age=60", 1000);
+    assertNull(await(store.get(key("/a"))));
+    await(store.set(key("/a"), response));
+
+    CachedHttpResponse cached = await(store.get(key("/a")));
+    assertEquals(response.getVersion(), cached.getVersion());
+    assertEquals(response.getStatusCode(), cached.getStatusCode());
+    assertEquals(response.getStatusMessage(), cached.getStatusMessage());
+    assertEquals(response.getBody(), cached.getBody());
+    assertEquals(response.getResponseHeaders().get("Cache-Control"), cached.getResponseHeaders().get("Cache-Control"));
+    assertEquals(response.getTimestamp().toEpochMilli(), cached.getTimestamp().toEpochMilli());
+    assertEquals(60, cached.getCacheControl().getMaxAge());
+
+    await(store.delete(key("/a")));
+    assertNull(await(store.get(key("/a"))));
+  }
+
+  @Test
+  public void testGetLargeRecord() throws Exception {
+    DiskCacheStore store = new DiskCacheStore(vertx, directory);
+    // read on a worker
+    CachedHttpResponse response = response("public, max-age=60", 64 * 1024);
+    await(store.set(key("/a"), response));
+    assertEquals(response.getBody(), await(store.get(key("/a"))).getBody());
+  }
+
+  @Test
+  public void testRecover() throws Exception {
+    DiskCacheStore store = new DiskCacheStore(vertx, directory);
+    CachedHttpResponse first = response("public, max-age=60", 100);
+    CachedHttpResponse second = response("public, max-age=60", 100);
+    await(store.set(key("/a"), first));
+    await(store.set(key("/b"), first));
+    await(store.set(key("/b"), second));
+    await(store.set(key("/c"), first));
+    await(store.delete(key("/c")));
+
+    // as after a restart
+    DiskCacheStore recovered = new DiskCacheStore(vertx, directory);
+    assertEquals(2, (int) await(recovered.get(key("/a")).map(v -> recovered.size())));
+    assertEquals(first.getBody(), await(recovered.get(key("/a"))).getBody());
+    assertEquals(second.getBody(), await(recovered.get(key("/b"))).getBody());
+    assertNull(await(recovered.get(key("/c"))));
+  }
+
+  @Test
+  public void testRecoverTornRecord() throws Exception {
+    DiskCacheStore store = new DiskCacheStore(vertx, directory);
+    CachedHttpResponse response = response("public, max-age=60", 100);
+    await(store.set(key("/a"), response));
+    await(store.set(key("/b"), response));
+
+    // corrupt the last bytes of the last record, as if the process died while writing it
+    File[] segments = new File(directory).listFiles();
+    assertEquals(1, segments.length);
+    int end = 0;
+    try (RandomAccessFile file = new RandomAccessFile(segments[0], "rw")) {
+      while (file.readInt() != 0) {
+        end += 12 + file.readInt();
+        file.seek(end);
+      }
+      file.seek(end - 1);
+      int last = file.read();
+      file.seek(end - 1);
+      file.write(~last);
+    }
+
+    DiskCacheStore recovered = new DiskCacheStore(vertx, directory);
+    assertNotNull(await(recovered.get(key("/a"))));
+    assertNull(await(recovered.get(key("/b"))));
+    // writes go on after the last valid record
+    await(recovered.set(key("/c"), response));
+    assertNotNull(await(new DiskCacheStore(vertx, directory).get(key("/c"))));
+  }
+
+  @Test
+  public void testCompaction() throws Exception {
+    int segmentSize = 16 * 1024;
+    DiskCacheStore store = new DiskCacheStore(vertx, directory, 4 * segmentSize, segmentSize);
+    CachedHttpResponse kept = response("public, max-age=60", 1000);
+    await(store.set(key("/kept"), kept));
+    CachedHttpResponse last = null;
+    // rewrites the same key enough to fill many segments
+    for (int i = 0; i < 100; i++) {
+      last = response("public, max-age=60", 1000);
+      await(store.set(key("/a"), last));
+    }
+    assertTrue(new File(directory).listFiles().length <= 4);
+    assertEquals(kept.getBody(), await(store.get(key("/kept"))).getBody());
+    assertEquals(last.getBody(), await(store.get(key("/a"))).getBody());
+
+    DiskCacheStore recovered = new DiskCacheStore(vertx, directory, 4 * segmentSize, segmentSize);
+    assertEquals(kept.getBody(), await(recovered.get(key("/kept"))).getBody());
+    assertEquals(last.getBody(), await(recovered.get(key("/a"))).getBody());
+  }
+
+  @Test
+  public void testCompactionLeavesRoomForRecord() throws Exception {
+    int segmentSize = 16 * 1024;
+    DiskCacheStore store = new DiskCacheStore(vertx, directory, 4 * segmentSize, segmentSize);
+    CachedHttpResponse kept = response("public, max-age=60", 1000);
+    for (int i = 0; i < 5; i++) {
+      await(store.set(key("/kept" + i), kept));
+    }
+    // the first segment is now mostly garbage
+    for (int i = 0; i < 7; i++) {
+      await(store.set(key("/a"), response("public, max-age=60", 1000)));
+    }
+    // the live records of the first segment and this one don't fit in a segment
+    CachedHttpResponse large = response("public, max-age=60", 10000);
+    await(store.set(key("/large"), large));
+    assertEquals(large.getBody(), await(store.get(key("/large"))).getBody());
+    for (int i = 0; i < 5; i++) {
+      assertEquals(kept.getBody(), await(store.get(key("/kept" + i))).getBody());
+    }
+  }
+
+  @Test
+  public void testDropOldestSegments() throws Exception {
+    int segmentSize = 16 * 1024;
+    DiskCacheStore store = new DiskCacheStore(vertx, directory, 2 * segmentSize, segmentSize);
+    // distinct keys, nothing to compact
+    for (int i = 0; i < 50; i++) {
+      await(store.set(key("/" + i), response("public, max-age=60", 1000)));
+    }
+    assertTrue(new File(directory).listFiles().length <= 2);
+    assertNull(await(store.get(key("/0"))));
+    assertNotNull(await(store.get(key("/49"))));
+    assertTrue(store.size() < 50);
+  }
+
+  @Test
+  public void testFlush() throws Exception {
+    DiskCacheStore store = new DiskCacheStore(vertx, directory);
+    await(store.set(key("/a"), response("public, max-age=60", 100)));
+    await(store.flush());
+    assertNull(await(store.get(key("/a"))));
+    assertNull(await(new DiskCacheStore(vertx, directory).get(key("/a"))));
+  }
+
+  private static <T> T await(Future<T> future) throws Exception {
+    CompletableFuture<T> result = new CompletableFuture<>();
+    future.onComplete(ar -> {
+      if (ar.succeeded()) {
+        result.complete(ar.result());
+      } else {
+        result.completeExceptionally(ar.cause());
+      }
+    });
+    return result.get(10, TimeUnit.SECONDS);
+  }
+
+  private static CachedHttpResponse response(String cacheControl, int length) {
+    MultiMap headers = new HeadersMultiMap().add("Cache-Control", cacheControl);
+    return new CachedHttpResponse("HTTP_1_1", 200, "OK", Buffer.buffer(TestUtils.randomAlphaString(length)),
+      headers, CacheControl.parse(headers));
+  }
+
+  private static CacheKey key(String path) {
+    RequestOptions request = new RequestOptions().setHost("localhost").setPort(8080).setURI(path);
+    return new CacheKey(request, new Vary(new HeadersMultiMap(), new HeadersMultiMap()));
+  }
+}
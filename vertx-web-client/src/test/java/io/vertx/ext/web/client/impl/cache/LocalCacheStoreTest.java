@@ -0,0 +1,124 @@
+package io.vertx.ext.web.client.impl.cache;
+
+import io.vertx.core.MultiMap;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.RequestOptions;
+import io.vertx.core.http.impl.headers.HeadersMultiMap;
+import io.vertx.ext.web.client.spi.CacheStore;
+import io.vertx.ext.web.client.spi.MeteredCacheStore;
+import io.vertx.test.core.TestUtils;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class LocalCacheStoreTest {
+
+  @Test
+  public void testEvictsLeastRecentlyUsed() {
+    CachedHttpResponse response = response("public, max-age=60", 1000);
+    LocalCacheStore store = new LocalCacheStore(weight(response) * 3);
+
+    store.set(key("/a"), response);
+    store.set(key("/b"), response);
+    store.set(key("/c"), response);
+    assertEquals(3, store.size());
+    assertEquals(weight(response) * 3, store.weight());
+
+    // /b becomes the least recently used
+    assertSame(response, store.get(key("/a")).result());
+    store.set(key("/d"), response);
+
+    assertEquals(3, store.size());
+    assertEquals(1, store.evictionCount());
+    assertNull(store.get(key("/b")).result());
+    assertNotNull(store.get(key("/a")).result());
+    assertNotNull(store.get(key("/c")).result());
+    assertNotNull(store.get(key("/d")).result());
+    assertEquals(4, store.hitCount());
+    assertEquals(1, store.missCount());
+  }
+
+  @Test
+  public void testPublicCounters() {
+    MeteredCacheStore store = CacheStore.localStore(LocalCacheStore.DEFAULT_MAX_WEIGHT);
+    CachedHttpResponse response = response("public, max-age=60", 10);
+
+    store.set(key("/a"), response);
+    assertSame(response, store.get(key("/a")).result());
+    assertNull(store.get(key("/b")).result());
+    assertEquals(1, store.hitCount());
+    assertEquals(1, store.missCount());
+    assertEquals(0, store.evictionCount());
+    assertEquals(1, store.size());
+  }
+
+  @Test
+  public void testReplaceKeepsWeight() {
+    LocalCacheStore store = new LocalCacheStore(LocalCacheStore.DEFAULT_MAX_WEIGHT);
+    CachedHttpResponse small = response("public, max-age=60", 10);
+    CachedHttpResponse large = response("public, max-age=60", 1000);
+
+    store.set(key("/a"), small);
+    store.set(key("/a"), large);
+    assertEquals(1, store.size());
+    assertEquals(weight(large), store.weight());
+
+    store.delete(key("/a"));
+    assertEquals(0, store.weight());
+  }
+
+  @Test
+  public void testTooLargeIsNotStored() {
+    LocalCacheStore store = new LocalCacheStore(512);
+    store.set(key("/a"), response("public, max-age=60", 1024));
+    assertEquals(0, store.size());
+    assertEquals(0, store.weight());
+  }
+
+  @Test
+  public void testPurgesExpired() throws Exception {
+    LocalCacheStore store = new LocalCacheStore(LocalCacheStore.DEFAULT_MAX_WEIGHT);
+    store.set(key("/a"), response("public, max-age=1", 10));
+    // with an entity tag the response can still be revalidated
+    CachedHttpResponse withEtag = response("public, max-age=1", 10, "\"v1\"");
+    store.set(key("/b"), withEtag);
+    // can still be served while stale
+    store.set(key("/c"), response("public, max-age=1, stale-if-error=60", 10));
+
+    Thread.sleep(2100);
+
+    store.set(key("/d"), response("public, max-age=60", 10));
+    assertEquals(3, store.size());
+    assertEquals(1, store.evictionCount());
+    assertNull(store.get(key("/a")).result());
+    assertSame(withEtag, store.get(key("/b")).result());
+    assertNotNull(store.get(key("/c")).result());
+  }
+
+  private static long weight(CachedHttpResponse response) {
+    LocalCacheStore store = new LocalCacheStore(LocalCacheStore.DEFAULT_MAX_WEIGHT);
+    store.set(key("/"), response);
+    return store.weight();
+  }
+
+  private static CachedHttpResponse response(String cacheControl, int length) {
+    return response(cacheControl, length, null);
+  }
+
+  private static CachedHttpResponse response(String cacheControl, int length, String etag) {
+    MultiMap headers = new HeadersMultiMap().add("Cache-Control", cacheControl);
+    if (etag != null) {
+      headers.add("ETag", etag);
+    }
+    return new CachedHttpResponse("HTTP_1_1", 200, "OK", Buffer.buffer(TestUtils.randomAlphaString(length)),
+      headers, CacheControl.parse(headers));
+  }
+
+  private static CacheKey key(String path) {
+    RequestOptions request = new RequestOptions().setHost("localhost").setPort(8080).setURI(path);
+    return new CacheKey(request, new Vary(new HeadersMultiMap(), new HeadersMultiMap()));
+  }
+}
@@ -15,13 +15,19 @@
  */
 package io.vertx.ext.web.sstore.cookie.impl;
 
+import io.vertx.core.VertxException;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.auth.VertxContextPRNG;
 import io.vertx.ext.web.sstore.AbstractSession;
 
 import javax.crypto.Mac;
+import java.io.ByteArrayOutputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.function.Supplier;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
 
 import static io.vertx.ext.auth.impl.Codec.base64UrlDecode;
 import static io.vertx.ext.auth.impl.Codec.base64UrlEncode;
@@ -31,44 +37,76 @@ import static io.vertx.ext.auth.impl.Codec.base64UrlEncode;
  */
 public class CookieSession extends AbstractSession {
 
-  private final Mac mac;
+  // payloads from this size are compressed
+  private static final int COMPRESSION_THRESHOLD = 256;
+  // prefix of a compressed payload, not part of the base64url alphabet
+  private static final char DEFLATED = '~';
+
+  // a Mac is not thread safe, each thread has its own
+  private final Supplier<Mac> mac;
   // track the original version
   private int oldVersion = 0;
-  // track the original crc
-  private int oldCrc = 0;
 
-  public CookieSession(Mac mac, VertxContextPRNG prng, long timeout, int length) {
+  // the last value and the state it was computed from
+  private String value;
+  private String valueId;
+  private long valueLastAccessed;
+  private int valueVersion;
+
+  public CookieSession(Supplier<Mac> mac, VertxContextPRNG prng, long timeout, int length) {
     super(prng, timeout, length);
     this.mac = mac;
   }
 
-  public CookieSession(Mac mac, VertxContextPRNG prng) {
+  public CookieSession(Supplier<Mac> mac, VertxContextPRNG prng) {
     super(prng);
     this.mac = mac;
   }
 
   @Override
   public String value() {
+    if (value != null && id().equals(valueId) && lastAccessed() == valueLastAccessed && version() == valueVersion && !isModified()) {
+      // nothing changed, no need to encode and sign again
+      return value;
+    }
 
-    Buffer payload = new JsonObject()
+    byte[] payload = new JsonObject()
       .put("id", id())
       .put("timeout", timeout())
       .put("lastAccessed", lastAccessed())
       .put("version", version())
-      .put("data", data())
-      .toBuffer();
+      .put("data", readOnlyData())
+      .toBuffer()
+      .getBytes();
+
+    String b64 = null;
+    if (payload.length >= COMPRESSION_THRESHOLD) {
+      byte[] compressed = deflate(payload);
+      if (compressed.length < payload.length) {
+        b64 = DEFLATED + base64UrlEncode(compressed);
+      }
+    }
+    if (b64 == null) {
+      b64 = base64UrlEncode(payload);
+    }
+    String signature = base64UrlEncode(mac.get().doFinal(b64.getBytes(StandardCharsets.US_ASCII)));
 
-    String b64 = base64UrlEncode(payload.getBytes());
-    String signature = base64UrlEncode(mac.doFinal(b64.getBytes(StandardCharsets.US_ASCII)));
+    return remember(b64 + "." + signature);
+  }
 
-    return b64 + "." + signature;
+  private String remember(String value) {
+    this.value = value;
+    this.valueId = id();
+    this.valueLastAccessed = lastAccessed();
+    this.valueVersion = version();
+    return value;
   }
 
   @Override
   public boolean isRegenerated() {
     if (!super.isRegenerated()) {
-      // force a new checksum calculation
-      return oldCrc != checksum();
+      // the cookie must be updated when the data changed
+      return isModified();
     }
 
     return true;
@@ -88,14 +126,19 @@ public class CookieSession extends AbstractSession {
       return null;
     }
 
-    String signature = base64UrlEncode(mac.doFinal(tokens[0].getBytes(StandardCharsets.US_ASCII)));
+    String signature = base64UrlEncode(mac.get().doFinal(tokens[0].getBytes(StandardCharsets.US_ASCII)));
 
     if(!signature.equals(tokens[1])) {
       throw new RuntimeException("Session data was Tampered!");
     }
 
     // reconstruct the session
-    JsonObject decoded = new JsonObject(Buffer.buffer(base64UrlDecode(tokens[0])));
+    JsonObject decoded;
+    if (tokens[0].charAt(0) == DEFLATED) {
+      decoded = new JsonObject(Buffer.buffer(inflate(base64UrlDecode(tokens[0].substring(1)))));
+    } else {
+      decoded = new JsonObject(Buffer.buffer(base64UrlDecode(tokens[0])));
+    }
 
     setId(decoded.getString("id"));
     setTimeout(decoded.getLong("timeout"));
@@ -105,7 +148,7 @@ public class CookieSession extends AbstractSession {
 
     // defaults
     oldVersion = version();
-    oldCrc = crc();
+    remember(payload);
 
     return this;
   }
@@ -113,4 +156,41 @@ public class CookieSession extends AbstractSession {
   int oldVersion() {
     return oldVersion;
   }
+
+  private static byte[] deflate(byte[] bytes) {
+    final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    try {
+      deflater.setInput(bytes);
+      deflater.finish();
+      final ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length);
+      final byte[] chunk = new byte[1024];
+      while (!deflater.finished()) {
+        out.write(chunk, 0, deflater.deflate(chunk));
+      }
+      return out.toByteArray();
+    } finally {
+      deflater.end();
+    }
+  }
+
+  private static byte[] inflate(byte[] bytes) {
+    final Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(bytes);
+      final ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length * 4);
+      final byte[] chunk = new byte[1024];
+      while (!inflater.finished()) {
+        final int n = inflater.inflate(chunk);
+        if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          throw new RuntimeException("Session data was Tampered!");
+        }
+        out.write(chunk, 0, n);
+      }
+      return out.toByteArray();
+    } catch (DataFormatException e) {
+      throw new VertxException(e);
+    } finally {
+      inflater.end();
+    }
+  }
 }
@@ -44,7 +44,8 @@ public class CookieSessionStoreImpl implements CookieSessionStore {
     init(vertx, new JsonObject().put("secret", secret));
   }
 
-  private Mac mac;
+  // a Mac is not thread safe, each event loop signs with its own
+  private ThreadLocal<Mac> mac;
   private VertxContextPRNG random;
   private ContextInternal ctx;
 
@@ -54,14 +55,22 @@ public class CookieSessionStoreImpl implements CookieSessionStore {
     this.random = VertxContextPRNG.current(vertx);
     this.ctx = (ContextInternal) vertx.getOrCreateContext();
 
+    final SecretKeySpec key = new SecretKeySpec(options.getString("secret").getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+    // fail early on an invalid key
+    newMac(key);
+    mac = ThreadLocal.withInitial(() -> newMac(key));
+
+    return this;
+  }
+
+  private static Mac newMac(SecretKeySpec key) {
     try {
-      mac = Mac.getInstance("HmacSHA256");
-      mac.init(new SecretKeySpec(options.getString("secret").getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+      final Mac mac = Mac.getInstance("HmacSHA256");
+      mac.init(key);
+      return mac;
     } catch (NoSuchAlgorithmException | InvalidKeyException e) {
       throw new RuntimeException(e);
     }
-
-    return this;
   }
 
   @Override
@@ -71,18 +80,18 @@ public class CookieSessionStoreImpl implements CookieSessionStore {
 
   @Override
   public Session createSession(long timeout) {
-    return new CookieSession(mac, random, timeout, DEFAULT_SESSIONID_LENGTH);
+    return new CookieSession(mac::get, random, timeout, DEFAULT_SESSIONID_LENGTH);
   }
 
   @Override
   public Session createSession(long timeout, int length) {
-    return new CookieSession(mac, random, timeout, length);
+    return new CookieSession(mac::get, random, timeout, length);
   }
 
   @Override
   public Future<@Nullable Session> get(String cookieValue) {
     try {
-      Session session = new CookieSession(mac, random).setValue(cookieValue);
+      Session session = new CookieSession(mac::get, random).setValue(cookieValue);
 
       if (session == null) {
         return ctx.succeededFuture();
@@ -20,10 +20,13 @@ import io.vertx.core.http.HttpMethod;
 import io.vertx.ext.web.Session;
 import io.vertx.ext.web.handler.SessionHandler;
 import io.vertx.ext.web.handler.SessionHandlerTestBase;
+import io.vertx.test.core.TestUtils;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import java.util.List;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 
 /**
  * @author <a href="mailto:plopes@redhat.com">Paulo Lopes</a>
@@ -65,6 +68,51 @@ public class CookieSessionHandlerTest extends SessionHandlerTestBase {
     await();
   }
 
+  @Test
+  public void testCompressedValue() {
+    Session session = store.createSession(30_000);
+    String large = new String(new char[5000]).replace('\0', 'x');
+    session.put("large", large);
+    store.put(session);
+    String cookieValue = session.value();
+    assertTrue(cookieValue.length() < 1000);
+    // not encoded and signed again when nothing changed
+    assertSame(cookieValue, session.value());
+
+    store.get(cookieValue, get -> {
+      assertEquals(large, get.result().get("large"));
+      assertEquals(cookieValue, get.result().value());
+      testComplete();
+    });
+
+    await();
+  }
+
+  @Test
+  public void testLargeSessionInChunks() throws Exception {
+    String large = TestUtils.randomAlphaString(5_000);
+    router.route().handler(SessionHandler.create(store));
+    router.route("/set").handler(rc -> {
+      rc.session().put("large", large);
+      rc.response().end();
+    });
+    router.route("/get").handler(rc -> {
+      assertEquals(large, rc.session().get("large"));
+      rc.response().end();
+    });
+
+    AtomicReference<String> cookies = new AtomicReference<>();
+    testRequest(HttpMethod.GET, "/set", null, resp -> {
+      List<String> setCookies = resp.headers().getAll("set-cookie");
+      // a single cookie can't hold the session
+      assertTrue(setCookies.size() > 1);
+      cookies.set(setCookies.stream()
+        .map(setCookie -> setCookie.substring(0, setCookie.indexOf(';')))
+        .collect(Collectors.joining("; ")));
+    }, 200, "OK", null);
+    testRequest(HttpMethod.GET, "/get", req -> req.putHeader("cookie", cookies.get()), null, 200, "OK", null);
+  }
+
   /**
    * This test overrides the original as at the end there is no way to guarantee that the session cannot be
    * reused as Cookies do not preserve state across clients
@@ -30,8 +30,13 @@ import io.vertx.ext.web.sstore.redis.RedisSessionStore;
 import io.vertx.redis.client.Redis;
 import io.vertx.redis.client.RedisOptions;
 import io.vertx.redis.client.Request;
+import io.vertx.redis.client.Response;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Objects;
+import java.util.function.Function;
 
 import static io.vertx.redis.client.Command.*;
 import static io.vertx.redis.client.Request.cmd;
@@ -40,6 +45,38 @@ import static io.vertx.redis.client.Request.cmd;
  * @author <a href="https://github.com/llfbandit">Rémy Noël</a>
  */
 public class RedisSessionStoreImpl implements RedisSessionStore {
+
+  // Sessions are stored as SharedDataSessionImpl buffers, their header is:
+  // id length (int), id, timeout (long), last accessed (long), version (int)
+
+  /**
+   * Gets a session and postpones its expiration by its timeout in a single round trip. GETEX cannot be used as the
+   * timeout is only known once the session is read.
+   */
+  private static final Script GET_SESSION = new Script(
+    "local v = redis.call('GET', KEYS[1])\n" +
+      "if v then\n" +
+      "  local len = struct.unpack('>i4', v)\n" +
+      "  local timeout = struct.unpack('>i8', v, 5 + len)\n" +
+      "  redis.call('PEXPIRE', KEYS[1], string.format('%.0f', timeout))\n" +
+      "end\n" +
+      "return v\n");
+
+  /**
+   * Sets a session if the stored session (if any) has the expected version, returns 1 on success, 0 on a version
+   * mismatch.
+   */
+  private static final Script PUT_SESSION = new Script(
+    "local v = redis.call('GET', KEYS[1])\n" +
+      "if v then\n" +
+      "  local len = struct.unpack('>i4', v)\n" +
+      "  if struct.unpack('>i4', v, 21 + len) ~= tonumber(ARGV[1]) then\n" +
+      "    return 0\n" +
+      "  end\n" +
+      "end\n" +
+      "redis.call('SET', KEYS[1], ARGV[2], 'PX', ARGV[3])\n" +
+      "return 1\n");
+
   private Redis redis;
   private VertxContextPRNG random;
   private long retryTimeout;
@@ -82,15 +119,12 @@ public class RedisSessionStoreImpl implements RedisSessionStore {
 
   @Override
   public Future<@Nullable Session> get(String id) {
-    return redis.send(cmd(GET).arg(id))
+    return eval(GET_SESSION, id, Function.identity())
       .compose(response -> {
         if (response != null) {
           SharedDataSessionImpl session = new SharedDataSessionImpl(random);
           session.readFromBuffer(0, response.toBuffer());
-          // postpone expiration time, this cannot be done in a single frame with GET cmd
-          return redis
-            .send(cmd(PEXPIRE).arg(id).arg(session.timeout()))
-            .map(session);
+          return ctx.succeededFuture(session);
         } else {
           return ctx.succeededFuture();
         }
@@ -105,36 +139,45 @@ public class RedisSessionStoreImpl implements RedisSessionStore {
 
   @Override
   public Future<Void> put(Session session) {
-    return redis.send(cmd(GET).arg(session.id()))
-      .compose(response -> {
-      AbstractSession newSession = (AbstractSession) session;
-      if (response != null) {
-        // Old session exists, we need to validate versions
-        SharedDataSessionImpl oldSession = new SharedDataSessionImpl(random);
-        oldSession.readFromBuffer(0, response.toBuffer());
-
-        if (oldSession.version() != newSession.version()) {
-          return Future.failedFuture("Session version mismatch");
-        }
-      }
+    AbstractSession newSession = (AbstractSession) session;
+    // the stored session (if any) must still have the version this session was read with
+    final int version = newSession.version();
+    final boolean modified = newSession.isModified();
 
-      newSession.incrementVersion();
-      return writeSession(newSession);
-    });
-  }
-
-  private Future<Void> writeSession(Session session) {
     Buffer buffer = Buffer.buffer();
     SharedDataSessionImpl sessionImpl = (SharedDataSessionImpl) session;
     sessionImpl.writeToBuffer(buffer);
+    if (modified) {
+      // the stored session gets the next version, the session itself only once the write succeeded so a failed put
+      // can be retried
+      buffer.setInt(20 + buffer.getInt(0), version + 1);
+    }
+
+    // the version check and the write (with expiration TO in ms) happen atomically on the server
+    return eval(PUT_SESSION, session.id(), rq -> rq.arg(version).arg(buffer).arg(session.timeout()))
+      .compose(response -> {
+        if (response == null || response.toInteger() != 1) {
+          return Future.failedFuture("Session version mismatch");
+        }
+        if (modified) {
+          newSession.incrementVersion();
+        }
+        return ctx.succeededFuture();
+      });
+  }
 
-    // submit with all session data & expiration TO in ms
-    Request rq = cmd(SET)
-      .arg(session.id()).arg(buffer)
-      .arg("PX").arg(session.timeout());
-
-    return redis.send(rq)
-      .mapEmpty();
+  /**
+   * Runs a script by its digest, the script source is only sent when the server does not have it cached yet.
+   */
+  private Future<@Nullable Response> eval(Script script, String key, Function<Request, Request> args) {
+    return redis.send(args.apply(cmd(EVALSHA).arg(script.sha).arg(1).arg(key)))
+      .recover(err -> {
+        if (err.getMessage() != null && err.getMessage().startsWith("NOSCRIPT")) {
+          // EVAL also caches the script for the next calls
+          return redis.send(args.apply(cmd(EVAL).arg(script.source).arg(1).arg(key)));
+        }
+        return Future.failedFuture(err);
+      });
   }
 
   @Override
@@ -161,4 +204,28 @@ public class RedisSessionStoreImpl implements RedisSessionStore {
   public void close() {
     redis.close();
   }
+
+  private static final class Script {
+
+    final String source;
+    final String sha;
+
+    Script(String source) {
+      this.source = source;
+      this.sha = sha1(source);
+    }
+
+    private static String sha1(String source) {
+      try {
+        final byte[] digest = MessageDigest.getInstance("SHA-1").digest(source.getBytes(StandardCharsets.UTF_8));
+        final StringBuilder hex = new StringBuilder(digest.length * 2);
+        for (byte b : digest) {
+          hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+      } catch (NoSuchAlgorithmException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+  }
 }
@@ -4,12 +4,15 @@ import io.vertx.ext.unit.Async;
 import io.vertx.ext.unit.TestContext;
 import io.vertx.ext.unit.junit.RunTestOnContext;
 import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.redis.client.Command;
 import io.vertx.redis.client.Redis;
 import io.vertx.redis.client.RedisOptions;
+import io.vertx.redis.client.Request;
 import org.junit.*;
 
 import io.vertx.core.CompositeFuture;
 import io.vertx.ext.web.Session;
+import io.vertx.ext.web.sstore.AbstractSession;
 import io.vertx.ext.web.sstore.SessionStore;
 import org.junit.runner.RunWith;
 import org.testcontainers.containers.GenericContainer;
@@ -28,19 +31,21 @@ public class RedisSessionStoreTest {
   public RunTestOnContext rule = new RunTestOnContext();
 
   private SessionStore store;
+  private Redis redis;
 
   @Before
   public void before() {
-    store = RedisSessionStore.create(
-      // get the vertx instance
-      rule.vertx(),
-      // provide a client
-      Redis.createClient(rule.vertx(), new RedisOptions()
+    redis = Redis.createClient(rule.vertx(), new RedisOptions()
         .setConnectionString("redis://" + container.getContainerIpAddress() + ":" + container.getMappedPort(6379))
         // how many connections are we willing to open to redis?
         .setMaxPoolSize(2)
         // how many waiting connections are we allowing to queue?
-        .setMaxPoolWaiting(32)));
+        .setMaxPoolWaiting(32));
+    store = RedisSessionStore.create(
+      // get the vertx instance
+      rule.vertx(),
+      // provide a client
+      redis);
   }
 
   @After
@@ -159,4 +164,83 @@ public class RedisSessionStoreTest {
       test.complete();
     });
   }
+
+  @Test(timeout = 10_000)
+  public void testVersionMismatch(TestContext should) {
+    final Async test = should.async();
+
+    Session session = store.createSession(30_000);
+    session.put("a", 1);
+
+    store.put(session)
+      .compose(aVoid -> store.get(session.id()))
+      .compose(stale -> {
+        session.put("b", 2);
+        return store.put(session)
+          .compose(aVoid -> {
+            // the stored session has been modified since this copy was read
+            stale.put("c", 3);
+            return store.put(stale);
+          });
+      })
+      .onComplete(res -> {
+        should.assertTrue(res.failed());
+        should.assertEquals("Session version mismatch", res.cause().getMessage());
+        test.complete();
+      });
+  }
+
+  @Test(timeout = 10_000)
+  public void testFailedPutCanBeRetried(TestContext should) {
+    final Async test = should.async();
+
+    Session session = store.createSession(30_000);
+    session.put("a", 1);
+
+    store.put(session)
+      .compose(aVoid -> store.get(session.id()))
+      .compose(stale -> {
+        session.put("b", 2);
+        return store.put(session)
+          .compose(aVoid -> {
+            stale.put("c", 3);
+            final int version = ((AbstractSession) stale).version();
+            return store.put(stale)
+              .recover(err -> {
+                // the failed put neither bumped the version nor forgot the change
+                should.assertEquals(version, ((AbstractSession) stale).version());
+                should.assertTrue(((AbstractSession) stale).isModified());
+                // once the conflicting session is gone the retry succeeds
+                return store.delete(stale.id()).compose(v -> store.put(stale));
+              })
+              .compose(aVoid2 -> store.get(stale.id()));
+          });
+      })
+      .onComplete(should.asyncAssertSuccess(stored -> {
+        should.assertEquals(3, (int) stored.get("c"));
+        should.assertNull(stored.get("b"));
+        test.complete();
+      }));
+  }
+
+  @Test(timeout = 10_000)
+  public void testGetPostponesExpiration(TestContext should) {
+    final Async test = should.async();
+
+    Session session = store.createSession(30_000);
+    session.put("a", 1);
+
+    store.put(session)
+      .compose(aVoid -> redis.send(Request.cmd(Command.PEXPIRE).arg(session.id()).arg(1_000)))
+      .compose(response -> store.get(session.id()))
+      .compose(sessionGet -> {
+        should.assertEquals(1, (int) sessionGet.get("a"));
+        return redis.send(Request.cmd(Command.PTTL).arg(session.id()));
+      })
+      .onComplete(res -> {
+        should.assertTrue(res.succeeded());
+        should.assertTrue(res.result().toLong() > 1_000);
+        test.complete();
+      });
+  }
 }
@@ -2,9 +2,11 @@ package io.vertx.ext.web;
 
 import io.vertx.codegen.annotations.Nullable;
 import io.vertx.codegen.annotations.VertxGen;
+import io.vertx.core.Future;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
+import io.vertx.core.streams.ReadStream;
 
 @VertxGen
 public interface RequestBody {
@@ -86,9 +88,31 @@ public interface RequestBody {
   /**
    * @return Get the entire HTTP request body as a {@link Buffer}. The context must have first been routed to a
    * {@link io.vertx.ext.web.handler.BodyHandler} for this to be populated.
+   * <br/>
+   * A body spooled to disk by a streaming {@link io.vertx.ext.web.handler.BodyHandler} must first be loaded with
+   * {@link #load()} when this is called from an event loop.
    */
   @Nullable Buffer buffer();
 
+  /**
+   * Load a body spooled to disk by a streaming {@link io.vertx.ext.web.handler.BodyHandler} in memory, so it can be
+   * read as a buffer, a string or JSON from an event loop. Other bodies are already in memory.
+   *
+   * @return a future completed when the body is in memory
+   * @see io.vertx.ext.web.handler.BodyHandler#setStreaming(boolean)
+   */
+  Future<Void> load();
+
+  /**
+   * @return a new stream of the HTTP request body, each call returns a stream that starts at the beginning of the body.
+   * The stream can be paused and resumed, when the body was spooled to disk by a streaming
+   * {@link io.vertx.ext.web.handler.BodyHandler} it is read from the file and not loaded in memory, the file is closed
+   * when the stream ends, fails or when the response ends. The context must have first been routed to a
+   * {@link io.vertx.ext.web.handler.BodyHandler} for this to be populated.
+   * @see io.vertx.ext.web.handler.BodyHandler#setStreaming(boolean)
+   */
+  @Nullable ReadStream<Buffer> stream();
+
   /**
    * @return Get the entire HTTP request body as a POJO. The context must have first been routed to a
    * {@link io.vertx.ext.web.handler.BodyHandler} for this to be populated.
@@ -57,6 +57,16 @@ public interface BodyHandler extends Handler<RoutingContext> {
    */
   boolean DEFAULT_PREALLOCATE_BODY_BUFFER = false;
 
+  /**
+   * Default value of whether the body is spooled to disk instead of being kept in memory
+   */
+  boolean DEFAULT_STREAMING = false;
+
+  /**
+   * Default value of whether the body is a composite of the received chunks
+   */
+  boolean DEFAULT_COMPOSITE_BODY = false;
+
   /**
    * Create a body handler with defaults
    *
@@ -142,4 +152,30 @@ public interface BodyHandler extends Handler<RoutingContext> {
   @Fluent
   BodyHandler setPreallocateBodyBuffer(boolean isPreallocateBodyBuffer);
 
+  /**
+   * Set whether the body should be streamed instead of being gathered in memory. In streaming mode, a body larger than
+   * 64KB is written to a temporary file in the uploads directory as it is received, the request is paused while the
+   * file cannot keep up. The body limit is still enforced. Handlers should read the body with
+   * {@link io.vertx.ext.web.RequestBody#stream()}, a handler that reads the body as a buffer, string or JSON must load
+   * the file in memory first with {@link io.vertx.ext.web.RequestBody#load()}. The file is deleted when the response
+   * ends. Multipart forms are not affected.
+   *
+   * @param streaming {@code true} to stream the body
+   * @return reference to this for fluency
+   */
+  @Fluent
+  BodyHandler setStreaming(boolean streaming);
+
+  /**
+   * Set whether the body should be a composite of the chunks received from the connection instead of a single buffer.
+   * The chunks are not copied and no buffer is reallocated as the body grows, the body is decoded as a string or as JSON
+   * directly from the chunks. This reduces the garbage created by medium sized bodies, while reading a single byte of
+   * the body is slightly slower.
+   *
+   * @param compositeBody {@code true} to keep the chunks
+   * @return reference to this for fluency
+   */
+  @Fluent
+  BodyHandler setCompositeBody(boolean compositeBody);
+
 }
@@ -117,6 +117,26 @@ public interface StaticHandler extends Handler<RoutingContext> {
    */
   boolean DEFAULT_SEND_VARY_HEADER = true;
 
+  /**
+   * Default of whether precompressed siblings of the files should be served
+   */
+  boolean DEFAULT_SERVE_PRECOMPRESSED_FILES = false;
+
+  /**
+   * Default of whether strong etags should be computed from the content of the files
+   */
+  boolean DEFAULT_ENABLE_STRONG_ETAGS = false;
+
+  /**
+   * Default max size, in bytes, of the in-memory file content cache. Disabled by default.
+   */
+  long DEFAULT_MAX_CONTENT_CACHE_SIZE = 0;
+
+  /**
+   * Default max size, in bytes, of a file kept in the in-memory file content cache
+   */
+  long DEFAULT_MAX_CONTENT_CACHE_FILE_SIZE = 1024 * 1024; // 1MB
+
   /**
    * Create a handler using defaults
    *
@@ -337,4 +357,62 @@ public interface StaticHandler extends Handler<RoutingContext> {
    */
   @Fluent
   StaticHandler setDefaultContentEncoding(String contentEncoding);
+
+  /**
+   * Set the max size, in bytes, of the in-memory cache of file contents. Cached files are written from memory without
+   * accessing the file system, the least recently used files are evicted first. A cached content is revalidated with
+   * the file last modified time and size each time the file properties are read, see
+   * {@link #setCacheEntryTimeout(long)}. A size of {@code 0} disables the cache.
+   *
+   * @param maxContentCacheSize the max size of the content cache, in bytes
+   * @return a reference to this, so the API can be used fluently
+   */
+  @Fluent
+  StaticHandler setMaxContentCacheSize(long maxContentCacheSize);
+
+  /**
+   * Set the max size, in bytes, of a file kept in the in-memory cache of file contents, larger files are always sent
+   * from the file system.
+   *
+   * @param maxContentCacheFileSize the max size of a cached file, in bytes
+   * @return a reference to this, so the API can be used fluently
+   */
+  @Fluent
+  StaticHandler setMaxContentCacheFileSize(long maxContentCacheFileSize);
+
+  /**
+   * Set whether precompressed siblings of the files should be served. When enabled, a request for {@code app.js} that
+   * accepts one of the {@code br}, {@code zstd} or {@code gzip} encodings is served with {@code app.js.br},
+   * {@code app.js.zst} or {@code app.js.gz} when present, with the matching {@code Content-Encoding} header. The
+   * lookup of the siblings is cached with the file properties.
+   *
+   * @param servePrecompressedFiles true to serve precompressed files
+   * @return a reference to this, so the API can be used fluently
+   */
+  @Fluent
+  StaticHandler setServePrecompressedFiles(boolean servePrecompressedFiles);
+
+  /**
+   * Set whether strong etags should be sent. The etag of a file is a digest of its content, it does not depend on the
+   * last modified time, so it stays the same across servers that deployed the same files. The digest is computed once
+   * on a worker thread, unless it is found in the manifest, and kept with the cached file properties, etags are only
+   * sent when caching is enabled.
+   *
+   * @param enableStrongETags true to send strong etags
+   * @return a reference to this, so the API can be used fluently
+   * @see #setETagManifest(String)
+   */
+  @Fluent
+  StaticHandler setEnableStrongETags(boolean enableStrongETags);
+
+  /**
+   * Set the manifest of the etags computed at build time. The manifest is a JSON object with the path of the files,
+   * relative to the web root, as keys and their digests as values, e.g.: {@code {"js/app.js": "3f2a9c"}}. Files that
+   * are not in the manifest have their digest computed. Setting a manifest enables strong etags.
+   *
+   * @param manifest the path to the manifest file
+   * @return a reference to this, so the API can be used fluently
+   */
+  @Fluent
+  StaticHandler setETagManifest(String manifest);
 }
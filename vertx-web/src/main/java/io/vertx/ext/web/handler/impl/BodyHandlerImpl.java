@@ -17,17 +17,22 @@
 package io.vertx.ext.web.handler.impl;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
 import io.netty.handler.codec.DecoderException;
 import io.netty.handler.codec.http.HttpHeaderValues;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.buffer.Buffer;
+import io.vertx.core.file.AsyncFile;
 import io.vertx.core.file.FileSystem;
+import io.vertx.core.file.OpenOptions;
 import io.vertx.core.http.HttpHeaders;
 import io.vertx.core.http.HttpServerRequest;
 import io.vertx.core.http.HttpServerResponse;
@@ -53,7 +58,11 @@ public class BodyHandlerImpl implements BodyHandler {
   private boolean mergeFormAttributes = DEFAULT_MERGE_FORM_ATTRIBUTES;
   private boolean deleteUploadedFilesOnEnd = DEFAULT_DELETE_UPLOADED_FILES_ON_END;
   private boolean isPreallocateBodyBuffer = DEFAULT_PREALLOCATE_BODY_BUFFER;
+  private boolean streaming = DEFAULT_STREAMING;
+  private boolean compositeBody = DEFAULT_COMPOSITE_BODY;
   private static final int DEFAULT_INITIAL_BODY_BUFFER_SIZE = 1024; //bytes
+  // in streaming mode, larger bodies are spooled to disk
+  private static final int STREAMING_MEMORY_THRESHOLD = 65536; //bytes
 
 
   public BodyHandlerImpl() {
@@ -173,6 +182,18 @@ public class BodyHandlerImpl implements BodyHandler {
     return this;
   }
 
+  @Override
+  public BodyHandler setStreaming(boolean streaming) {
+    this.streaming = streaming;
+    return this;
+  }
+
+  @Override
+  public BodyHandler setCompositeBody(boolean compositeBody) {
+    this.compositeBody = compositeBody;
+    return this;
+  }
+
   private long parseContentLengthHeader(HttpServerRequest request) {
     String contentLength = request.getHeader(HttpHeaders.CONTENT_LENGTH);
     if (contentLength == null || contentLength.isEmpty()) {
@@ -192,21 +213,28 @@ public class BodyHandlerImpl implements BodyHandler {
     final RoutingContext context;
     final long contentLength;
     Buffer body;
+    // composite mode: the received chunks, once there is more than one
+    CompositeByteBuf chunks;
     boolean failed;
     final AtomicInteger uploadCount = new AtomicInteger();
     final AtomicBoolean cleanup = new AtomicBoolean(false);
     boolean ended;
     long uploadSize = 0L;
+    // streaming mode: the file the body is spooled to, and the buffers received while it is opened
+    String spoolFile;
+    AsyncFile spool;
+    List<Buffer> spoolPending;
     final boolean isMultipart;
     final boolean isUrlEncoded;
 
     public BHandler(RoutingContext context, long contentLength) {
       this.context = context;
-      this.contentLength = contentLength;
+      // a streamed body is never preallocated above the memory threshold
+      this.contentLength = streaming && contentLength > STREAMING_MEMORY_THRESHOLD ? -1 : contentLength;
       // the request clearly states that there should
       // be a body, so we respect the client and ensure
       // that the body will not be null
-      if (contentLength != -1) {
+      if (contentLength != -1 && !compositeBody) {
         initBodyBuffer();
       }
 
@@ -258,7 +286,9 @@ public class BodyHandlerImpl implements BodyHandler {
       }
 
       context.request().exceptionHandler(t -> {
+        failed = true;
         cancelAndCleanupFileUploads();
+        deleteSpool();
         if (t instanceof DecoderException) {
           // bad request
           context.fail(400, t.getCause());
@@ -300,12 +330,21 @@ public class BodyHandlerImpl implements BodyHandler {
       if (bodyLimit != -1 && uploadSize > bodyLimit) {
         failed = true;
         cancelAndCleanupFileUploads();
+        deleteSpool();
         context.fail(413);
       } else {
         // multipart requests will not end up in the request body
         // url encoded should also not, however jQuery by default
         // post in urlencoded even if the payload is something else
         if (!isMultipart /* && !isUrlEncoded */) {
+          if (streaming && (spoolFile != null || uploadSize > STREAMING_MEMORY_THRESHOLD)) {
+            spool(buff);
+            return;
+          }
+          if (compositeBody) {
+            appendChunk(buff);
+            return;
+          }
           if (body == null) {
             initBodyBuffer();
           }
@@ -314,6 +353,119 @@ public class BodyHandlerImpl implements BodyHandler {
       }
     }
 
+    /**
+     * Adds the chunk to the body without copying it, the chunks are owned by the handler as the request does not reuse
+     * them.
+     */
+    private void appendChunk(Buffer buff) {
+      if (body == null) {
+        // most bodies fit in a single chunk
+        body = buff;
+        return;
+      }
+      if (chunks == null) {
+        // never consolidate, this would copy all the chunks
+        chunks = Unpooled.compositeBuffer(Integer.MAX_VALUE);
+        chunks.addComponent(true, body.getByteBuf());
+        body = Buffer.buffer(chunks);
+      }
+      chunks.addComponent(true, buff.getByteBuf());
+    }
+
+    /**
+     * Writes the buffer to the spool file, the file is opened on the first call. The request is paused while the file
+     * is opened and while its write queue is full.
+     */
+    private void spool(Buffer buff) {
+      if (spool != null) {
+        writeSpool(buff);
+        return;
+      }
+      if (spoolPending != null) {
+        // still opening
+        spoolPending.add(buff);
+        return;
+      }
+
+      spoolPending = new ArrayList<>(2);
+      if (body != null) {
+        spoolPending.add(body);
+        body = null;
+        chunks = null;
+      }
+      spoolPending.add(buff);
+
+      final HttpServerRequest request = context.request();
+      final FileSystem fileSystem = context.vertx().fileSystem();
+      makeUploadDir(fileSystem);
+      final String file = new File(uploadsDir, UUID.randomUUID().toString()).getPath();
+      spoolFile = file;
+      request.pause();
+      fileSystem.open(file, new OpenOptions(), open -> {
+        if (open.failed()) {
+          spoolFile = null;
+          failed = true;
+          cancelAndCleanupFileUploads();
+          context.fail(open.cause());
+          return;
+        }
+        if (failed) {
+          // the spool was deleted while it was opened
+          deleteFile(open.result(), file);
+          return;
+        }
+        spool = open.result();
+        spool.exceptionHandler(t -> {
+          failed = true;
+          deleteSpool();
+          context.fail(t);
+        });
+        spool.drainHandler(v -> {
+          if (!ended) {
+            request.resume();
+          }
+        });
+        for (Buffer pending : spoolPending) {
+          writeSpool(pending);
+        }
+        spoolPending = null;
+        if (ended) {
+          if (uploadCount.get() == 0) {
+            doEnd();
+          }
+        } else if (!spool.writeQueueFull()) {
+          request.resume();
+        }
+      });
+    }
+
+    private void writeSpool(Buffer buff) {
+      spool.write(buff);
+      if (spool.writeQueueFull()) {
+        context.request().pause();
+      }
+    }
+
+    private void deleteSpool() {
+      if (spoolFile == null) {
+        return;
+      }
+      if (spool != null) {
+        deleteFile(spool, spoolFile);
+        spool = null;
+      }
+      // when the file is still being opened, it is deleted once opened
+      spoolFile = null;
+    }
+
+    private void deleteFile(AsyncFile spool, String file) {
+      spool.close(close -> context.vertx().fileSystem().delete(file, delete -> {
+        if (delete.failed()) {
+          LOG.warn("Delete of spooled body failed: " + file, delete.cause());
+        }
+      }));
+    }
+
     void uploadEnded() {
       int count = uploadCount.decrementAndGet();
       // only if parsing is done and count is 0 then all files have been processed
@@ -340,6 +492,11 @@ public class BodyHandlerImpl implements BodyHandler {
         return;
       }
 
+      if (spoolFile != null && spool == null) {
+        // the spool file is still being opened, the body is completed once the pending buffers are written
+        return;
+      }
+
       if (deleteUploadedFilesOnEnd) {
         context.addBodyEndHandler(x -> cancelAndCleanupFileUploads());
       }
@@ -348,9 +505,35 @@ public class BodyHandlerImpl implements BodyHandler {
       if (mergeFormAttributes && req.isExpectMultipart()) {
         req.params().addAll(req.formAttributes());
       }
+
+      if (spoolFile != null) {
+        final String file = spoolFile;
+        spool.close(close -> {
+          if (close.failed()) {
+            failed = true;
+            context.fail(close.cause());
+            return;
+          }
+          spool = null;
+          context.addEndHandler(v -> context.vertx().fileSystem().delete(file, delete -> {
+            if (delete.failed()) {
+              LOG.warn("Delete of spooled body failed: " + file, delete.cause());
+            }
+          }));
+          ((RoutingContextInternal) context).setBodyFile(file, uploadSize);
+          context.next();
+        });
+        return;
+      }
+
+      if (body == null && contentLength != -1) {
+        // the request stated a body, it must not be null
+        body = Buffer.buffer();
+      }
       ((RoutingContextInternal) context).setBody(body);
       // release body as it may take lots of memory
       body = null;
+      chunks = null;
 
       context.next();
     }
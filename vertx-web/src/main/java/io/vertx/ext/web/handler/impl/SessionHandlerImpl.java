@@ -28,9 +28,12 @@ import io.vertx.ext.web.RoutingContext;
 import io.vertx.ext.web.Session;
 import io.vertx.ext.web.handler.SessionHandler;
 import io.vertx.ext.web.impl.RoutingContextInternal;
+import io.vertx.ext.web.sstore.AbstractSession;
 import io.vertx.ext.web.sstore.SessionStore;
 import io.vertx.ext.web.sstore.impl.SessionInternal;
 
+import java.util.Set;
+
 /**
  * @author <a href="http://tfox.org">Tim Fox</a>
  */
@@ -42,6 +45,9 @@ public class SessionHandlerImpl implements SessionHandler {
 
   private static final Logger LOG = LoggerFactory.getLogger(SessionHandlerImpl.class);
 
+  // browsers limit a cookie to 4096 bytes, including the name and the attributes
+  private static final int MAX_COOKIE_VALUE_LENGTH = 3800;
+
   private final SessionStore sessionStore;
 
   private String sessionCookieName = DEFAULT_SESSION_COOKIE_NAME;
@@ -191,7 +197,7 @@ public class SessionHandlerImpl implements SessionHandler {
             final Cookie cookie = sessionCookie(context, session);
             // restore defaults
             session.setAccessed();
-            cookie.setValue(session.value());
+            setCookieValue(context, cookie, session.value());
             setCookieProperties(cookie, false);
           }
 
@@ -213,7 +219,7 @@ public class SessionHandlerImpl implements SessionHandler {
             sessionCookie(context, session);
           }
           session.setAccessed();
-          return sessionStore.put(session)
+          return store(session)
             .onSuccess(put -> {
               context.put(SESSION_FLUSHED_KEY, true);
               if (session instanceof SessionInternal) {
@@ -235,6 +241,7 @@ public class SessionHandlerImpl implements SessionHandler {
         if (expiredCookie != null) {
           setCookieProperties(expiredCookie, true);
         }
+        expireChunks(context, 1);
       }
       // if the session was regenerated in the request
       // the old id must also be removed
@@ -257,6 +264,17 @@ public class SessionHandlerImpl implements SessionHandler {
     }
   }
 
+  private Future<Void> store(Session session) {
+    if (session instanceof AbstractSession) {
+      final Set<String> changedKeys = ((AbstractSession) session).changedKeys();
+      if (changedKeys != null) {
+        // the store may only write the changed keys
+        return sessionStore.putChanges(session, changedKeys);
+      }
+    }
+    return sessionStore.put(session);
+  }
+
   @Override
   public void handle(RoutingContext context) {
     HttpServerRequest request = context.request();
@@ -378,8 +396,18 @@ public class SessionHandlerImpl implements SessionHandler {
       // Cookies with longer paths are listed before cookies with shorter paths.
       Cookie cookie = context.request().getCookie(sessionCookieName);
       if (cookie != null) {
-        // Look up sessionId
-        return cookie.getValue();
+        Cookie chunk = context.request().getCookie(chunkName(1));
+        if (chunk == null) {
+          // Look up sessionId
+          return cookie.getValue();
+        }
+        // a large value (e.g.: a cookie session store) continues in the chunks
+        final StringBuilder value = new StringBuilder(cookie.getValue());
+        for (int i = 2; chunk != null; i++) {
+          value.append(chunk.getValue());
+          chunk = context.request().getCookie(chunkName(i));
+        }
+        return value.toString();
       }
     }
 
@@ -452,9 +480,44 @@ public class SessionHandlerImpl implements SessionHandler {
     if (cookie != null) {
       return cookie;
     }
-    cookie = Cookie.cookie(sessionCookieName, session.value());
+    cookie = Cookie.cookie(sessionCookieName, "");
+    setCookieValue(context, cookie, session.value());
     setCookieProperties(cookie, false);
     context.response().addCookie(cookie);
     return cookie;
   }
+
+  /**
+   * Sets the value of the session cookie, values too large for a single cookie are continued in chunk cookies named
+   * after the session cookie ({@code name.1}, {@code name.2}, ...). Chunks left from a previous larger value are
+   * expired.
+   */
+  private void setCookieValue(RoutingContext context, Cookie cookie, String value) {
+    if (value.length() <= MAX_COOKIE_VALUE_LENGTH) {
+      cookie.setValue(value);
+      expireChunks(context, 1);
+      return;
+    }
+    cookie.setValue(value.substring(0, MAX_COOKIE_VALUE_LENGTH));
+    int i = 1;
+    for (int start = MAX_COOKIE_VALUE_LENGTH; start < value.length(); start += MAX_COOKIE_VALUE_LENGTH, i++) {
+      final Cookie chunk = Cookie.cookie(chunkName(i), value.substring(start, Math.min(value.length(), start + MAX_COOKIE_VALUE_LENGTH)));
+      setCookieProperties(chunk, false);
+      context.response().addCookie(chunk);
+    }
+    expireChunks(context, i);
+  }
+
+  private void expireChunks(RoutingContext context, int from) {
+    for (int i = from; context.request().getCookie(chunkName(i)) != null; i++) {
+      final Cookie expired = context.response().removeCookie(chunkName(i));
+      if (expired != null) {
+        setCookieProperties(expired, true);
+      }
+    }
+  }
+
+  private String chunkName(int i) {
+    return sessionCookieName + "." + i;
+  }
 }
@@ -22,26 +22,42 @@ import static io.netty.handler.codec.http.HttpResponseStatus.PARTIAL_CONTENT;
 import static io.netty.handler.codec.http.HttpResponseStatus.REQUESTED_RANGE_NOT_SATISFIABLE;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Base64;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.ThreadLocalRandom;
 
+import io.netty.buffer.Unpooled;
 import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.MultiMap;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.file.AsyncFile;
 import io.vertx.core.file.FileProps;
 import io.vertx.core.file.FileSystem;
+import io.vertx.core.file.OpenOptions;
 import io.vertx.core.http.HttpHeaders;
 import io.vertx.core.http.HttpMethod;
 import io.vertx.core.http.HttpServerRequest;
@@ -49,12 +65,15 @@ import io.vertx.core.http.HttpServerResponse;
 import io.vertx.core.http.HttpVersion;
 import io.vertx.core.http.impl.HttpUtils;
 import io.vertx.core.http.impl.MimeMapping;
+import io.vertx.core.impl.VertxInternal;
 import io.vertx.core.impl.logging.Logger;
 import io.vertx.core.impl.logging.LoggerFactory;
 import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
 import io.vertx.core.net.impl.URIDecoder;
 import io.vertx.ext.web.Http2PushMapping;
 import io.vertx.ext.web.MIMEHeader;
+import io.vertx.ext.web.ParsedHeaderValue;
 import io.vertx.ext.web.RoutingContext;
 import io.vertx.ext.web.handler.FileSystemAccess;
 import io.vertx.ext.web.handler.StaticHandler;
@@ -88,6 +107,12 @@ public class StaticHandlerImpl implements StaticHandler {
   // TODO change to private final after setAllowRootAccess has been removed
   private boolean allowRootFileSystemAccess = DEFAULT_ROOT_FILESYSTEM_ACCESS;
   private boolean sendVaryHeader = DEFAULT_SEND_VARY_HEADER;
+  private boolean servePrecompressedFiles = DEFAULT_SERVE_PRECOMPRESSED_FILES;
+  private boolean strongETags = DEFAULT_ENABLE_STRONG_ETAGS;
+  private String etagManifestResource;
+  private volatile Map<String, String> etagManifest;
+  // the manifest is read once, on a worker
+  private Future<Map<String, String>> etagManifestLoading;
   private String defaultContentEncoding = Charset.defaultCharset().name();
 
   private Set<String> compressedMediaTypes = Collections.emptySet();
@@ -95,6 +120,7 @@ public class StaticHandlerImpl implements StaticHandler {
 
   private final FSTune tune = new FSTune();
   private final FSPropsCache cache = new FSPropsCache();
+  private final FSContentCache contentCache = new FSContentCache();
 
   /**
    * Constructor called by static factory method
@@ -137,6 +163,45 @@ public class StaticHandlerImpl implements StaticHandler {
     return directoryTemplate;
   }
 
+  private void etagManifest(Vertx vertx, FileSystem fileSystem, Handler<Map<String, String>> handler) {
+    if (etagManifestResource == null) {
+      handler.handle(Collections.emptyMap());
+      return;
+    }
+    final Map<String, String> manifest = etagManifest;
+    if (manifest != null) {
+      handler.handle(manifest);
+      return;
+    }
+    // back to the context of the request, the manifest may be loaded from another one
+    final Context context = vertx.getOrCreateContext();
+    loadETagManifest(vertx, fileSystem).onComplete(res -> context.runOnContext(v -> handler.handle(res.result())));
+  }
+
+  private synchronized Future<Map<String, String>> loadETagManifest(Vertx vertx, FileSystem fileSystem) {
+    if (etagManifestLoading == null) {
+      final String resource = etagManifestResource;
+      // a build time manifest may list thousands of files
+      etagManifestLoading = vertx.<Map<String, String>>executeBlocking(promise -> {
+        final Map<String, String> manifest = new HashMap<>();
+        try {
+          final JsonObject json = new JsonObject(fileSystem.readFileBlocking(resource));
+          for (Map.Entry<String, Object> kv : json) {
+            if (kv.getValue() instanceof String) {
+              // keys are relative to the web root, with or without a leading slash
+              final String key = kv.getKey().startsWith("/") ? kv.getKey().substring(1) : kv.getKey();
+              manifest.put(key, (String) kv.getValue());
+            }
+          }
+        } catch (RuntimeException e) {
+          LOG.warn("Could not read the etag manifest: " + resource, e);
+        }
+        promise.complete(manifest);
+      }, false).onSuccess(manifest -> etagManifest = manifest);
+    }
+    return etagManifestLoading;
+  }
+
   /**
    * Create all required header so content can be cache by Caching servers or
    * Browsers
@@ -150,7 +215,7 @@ public class StaticHandlerImpl implements StaticHandler {
 
     if (cache.enabled()) {
       // We use cache-control and last-modified
-      // We *do not use* etags and expires (since they do the same thing - redundant)
+      // We *do not use* expires (it does the same thing - redundant), etags are only sent when strong etags are enabled
       Utils.addToMapIfAbsent(headers, HttpHeaders.CACHE_CONTROL, "public, immutable, max-age=" + maxAgeSeconds);
       Utils.addToMapIfAbsent(headers, HttpHeaders.LAST_MODIFIED, Utils.formatRFC1123DateTime(props.lastModifiedTime()));
       // We send the vary header (for intermediate caches)
@@ -220,6 +285,23 @@ public class StaticHandlerImpl implements StaticHandler {
       }
     }
 
+    final String localFile;
+
+    if (file == null) {
+      String ctxFile = getFile(path, context);
+      if (index) {
+        localFile = ctxFile + indexPage;
+      } else {
+        localFile = ctxFile;
+      }
+    } else {
+      if (index) {
+        localFile = file + indexPage;
+      } else {
+        localFile = file;
+      }
+    }
+
     // Look in cache
     final CacheEntry entry = cache.get(path);
 
@@ -241,32 +323,23 @@ public class StaticHandlerImpl implements StaticHandler {
         // a hit needs to be verified for freshness
         final long lastModified = Utils.secondsFactor(entry.props.lastModifiedTime());
 
-        if (Utils.fresh(context, lastModified)) {
+        // with strong etags the freshness is verified once the etag of the representation is known
+        if (!strongETags && Utils.fresh(context, lastModified)) {
           context.response()
               .setStatusCode(NOT_MODIFIED.code())
               .end();
           return;
         }
+
+        // a hit with the content in memory is sent without accessing the file system
+        if (contentCache.contains(localFile, entry.props)) {
+          sendNegotiated(context, fileSystem, localFile, entry.props, entry);
+          return;
+        }
       }
     }
 
     final boolean dirty = cache.enabled() && entry != null;
-    final String localFile;
-
-    if (file == null) {
-      String ctxFile = getFile(path, context);
-      if (index) {
-        localFile = ctxFile + indexPage;
-      } else {
-        localFile = ctxFile;
-      }
-    } else {
-      if (index) {
-        localFile = file + indexPage;
-      } else {
-        localFile = file;
-      }
-    }
 
     // verify if the file exists
     fileSystem
@@ -321,15 +394,16 @@ public class StaticHandlerImpl implements StaticHandler {
                   sendDirectory(context, fileSystem, path, localFile);
                 }
               } else {
+                CacheEntry fresh = null;
                 if (cache.enabled()) {
-                  cache.put(path, fprops);
+                  fresh = cache.put(path, fprops);
 
-                  if (Utils.fresh(context, Utils.secondsFactor(fprops.lastModifiedTime()))) {
+                  if (!strongETags && Utils.fresh(context, Utils.secondsFactor(fprops.lastModifiedTime()))) {
                     context.response().setStatusCode(NOT_MODIFIED.code()).end();
                     return;
                   }
                 }
-                sendFile(context, fileSystem, localFile, fprops);
+                sendNegotiated(context, fileSystem, localFile, fprops, fresh);
               }
             } else {
               if (!context.request().isEnded()) {
@@ -388,11 +462,143 @@ public class StaticHandlerImpl implements StaticHandler {
     }
   }
 
-  private static final Pattern RANGE = Pattern.compile("^bytes=(\\d+)-(\\d*)$");
+  /**
+   * Sends the file, or a precompressed sibling of the file when enabled and accepted by the client. The siblings found
+   * are kept in the cache entry of the file so the file system is only probed once.
+   */
+  private void sendNegotiated(RoutingContext context, FileSystem fileSystem, String file, FileProps fileProps, CacheEntry entry) {
+    final MultiMap headers = context.request().headers();
+    // representations are only negotiated for whole files, a range applies to the identity
+    if (!servePrecompressedFiles || !headers.contains(HttpHeaders.ACCEPT_ENCODING) || (rangeSupport && headers.contains("Range"))) {
+      sendTagged(context, fileSystem, file, fileProps, entry, null);
+      return;
+    }
+
+    if (entry != null && entry.precompressed != null) {
+      sendTagged(context, fileSystem, file, fileProps, entry, Precompressed.select(context, entry.precompressed));
+      return;
+    }
+
+    probePrecompressed(fileSystem, file, 0, new ArrayList<>(), found -> {
+      if (entry != null) {
+        entry.precompressed = found;
+      }
+      sendTagged(context, fileSystem, file, fileProps, entry, Precompressed.select(context, found));
+    });
+  }
+
+  /**
+   * Sends the file with the strong etag of the representation when enabled, the etag is kept in the cache entry (or in
+   * the precompressed sibling) so it is only computed once per file. Conditional requests are answered with the etag.
+   */
+  private void sendTagged(RoutingContext context, FileSystem fileSystem, String file, FileProps fileProps, CacheEntry entry, Precompressed precompressed) {
+    if (!strongETags || entry == null) {
+      sendFile(context, fileSystem, file, fileProps, precompressed);
+      return;
+    }
+
+    final String known = precompressed == null ? entry.etag : precompressed.etag;
+    if (known != null) {
+      sendConditional(context, fileSystem, file, fileProps, precompressed, known);
+      return;
+    }
+
+    // concurrent first requests may compute the same digest, they will all store the same value
+    computeETag(context, fileSystem, precompressed == null ? file : precompressed.file, etag -> {
+      if (precompressed == null) {
+        entry.etag = etag;
+      } else {
+        precompressed.etag = etag;
+      }
+      sendConditional(context, fileSystem, file, fileProps, precompressed, etag);
+    });
+  }
+
+  private void sendConditional(RoutingContext context, FileSystem fileSystem, String file, FileProps fileProps, Precompressed precompressed, String etag) {
+    if (etag != null) {
+      context.response().putHeader(HttpHeaders.ETAG, etag);
+    }
+    if (Utils.fresh(context, Utils.secondsFactor(fileProps.lastModifiedTime()))) {
+      context.response()
+          .setStatusCode(NOT_MODIFIED.code())
+          .end();
+      return;
+    }
+    sendFile(context, fileSystem, file, fileProps, precompressed);
+  }
+
+  /**
+   * Looks up the etag of the file in the manifest, or computes it on a worker thread from a digest of the content. The
+   * handler receives {@code null} when the digest cannot be computed.
+   */
+  private void computeETag(RoutingContext context, FileSystem fileSystem, String file, Handler<String> handler) {
+    final Vertx vertx = context.vertx();
+    etagManifest(vertx, fileSystem, manifest -> {
+      final String digest = manifest.get(file.substring(Math.min(webRoot.length() + 1, file.length())));
+      if (digest != null) {
+        handler.handle(strongETag(digest));
+      } else {
+        digestETag(vertx, file, handler);
+      }
+    });
+  }
+
+  private void digestETag(Vertx vertx, String file, Handler<String> handler) {
+    vertx.<String>executeBlocking(promise -> {
+      try {
+        final MessageDigest md = MessageDigest.getInstance("SHA-256");
+        // the file may be a classpath resource, it is resolved as the file system would
+        try (InputStream in = Files.newInputStream(((VertxInternal) vertx).resolveFile(file).toPath())) {
+          final byte[] buffer = new byte[8192];
+          int read;
+          while ((read = in.read(buffer)) != -1) {
+            md.update(buffer, 0, read);
+          }
+        }
+        promise.complete(strongETag(Base64.getUrlEncoder().withoutPadding().encodeToString(md.digest())));
+      } catch (IOException | NoSuchAlgorithmException e) {
+        promise.fail(e);
+      }
+    }, false, res -> {
+      if (res.failed()) {
+        LOG.warn("Could not compute the etag of: " + file, res.cause());
+      }
+      handler.handle(res.result());
+    });
+  }
+
+  private static String strongETag(String digest) {
+    if (digest.length() > 1 && digest.charAt(0) == '"' && digest.charAt(digest.length() - 1) == '"') {
+      return digest;
+    }
+    return '"' + digest + '"';
+  }
+
+  private void probePrecompressed(FileSystem fileSystem, String file, int index, List<Precompressed> found, Handler<List<Precompressed>> handler) {
+    if (index == Precompressed.ENCODINGS.length) {
+      handler.handle(found);
+      return;
+    }
+    final String encoding = Precompressed.ENCODINGS[index];
+    final String sibling = file + Precompressed.SUFFIXES[index];
+    getFileProps(fileSystem, sibling, res -> {
+      if (res.succeeded() && res.result() != null && res.result().isRegularFile()) {
+        found.add(new Precompressed(encoding, sibling, res.result()));
+      }
+      probePrecompressed(fileSystem, file, index + 1, found, handler);
+    });
+  }
+
+  // more ranges are not worth a multipart response, the whole file is sent
+  private static final int MAX_RANGES = 32;
+  private static final int RANGE_CHUNK_SIZE = 64 * 1024;
 
-  private void sendFile(RoutingContext context, FileSystem fileSystem, String file, FileProps fileProps) {
+  private void sendFile(RoutingContext context, FileSystem fileSystem, String file, FileProps fileProps, Precompressed precompressed) {
     final HttpServerRequest request = context.request();
     final HttpServerResponse response = context.response();
+    // the file actually sent, the type and cache headers are always the ones of the requested file
+    final String sent = precompressed == null ? file : precompressed.file;
+    final FileProps sentProps = precompressed == null ? fileProps : precompressed.props;
 
     Long offset = null;
     Long end = null;
@@ -401,59 +607,61 @@ public class StaticHandlerImpl implements StaticHandler {
     if (response.closed())
       return;
 
+    List<long[]> ranges = null;
+
     if (rangeSupport) {
       // check if the client is making a range request
       String range = request.getHeader("Range");
       // end byte is length - 1
-      end = fileProps.size() - 1;
-
-      if (range != null) {
-        Matcher m = RANGE.matcher(range);
-        if (m.matches()) {
-          try {
-            String part = m.group(1);
-            // offset cannot be empty
-            offset = Long.parseLong(part);
-            // offset must fall inside the limits of the file
-            if (offset < 0 || offset >= fileProps.size()) {
-              throw new IndexOutOfBoundsException();
-            }
-            // length can be empty
-            part = m.group(2);
-            if (part != null && part.length() > 0) {
-              // ranges are inclusive
-              end = Math.min(end, Long.parseLong(part));
-              // end offset must not be smaller than start offset
-              if (end < offset) {
-                throw new IndexOutOfBoundsException();
-              }
-            }
-          } catch (NumberFormatException | IndexOutOfBoundsException e) {
-            context.response().putHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + fileProps.size());
+      end = sentProps.size() - 1;
+
+      // when the validator does not match, the whole file is sent
+      if (range != null && ifRange(context, fileProps)) {
+        ranges = parseRanges(range, sentProps.size());
+        if (ranges != null) {
+          if (ranges.isEmpty()) {
+            context.response().putHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + sentProps.size());
             if (!context.request().isEnded()) {
               context.request().resume();
             }
             context.fail(REQUESTED_RANGE_NOT_SATISFIABLE.code());
             return;
           }
+          if (ranges.size() == 1) {
+            offset = ranges.get(0)[0];
+            end = ranges.get(0)[1];
+            ranges = null;
+          }
         }
       }
 
       // notify client we support range requests
       headers = response.headers();
       headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
-      // send the content length even for HEAD requests
-      headers.set(HttpHeaders.CONTENT_LENGTH, Long.toString(end + 1 - (offset == null ? 0 : offset)));
+      if (ranges == null) {
+        // send the content length even for HEAD requests
+        headers.set(HttpHeaders.CONTENT_LENGTH, Long.toString(end + 1 - (offset == null ? 0 : offset)));
+      }
     }
 
     writeCacheHeaders(request, fileProps);
 
-    if (request.method() == HttpMethod.HEAD) {
+    if (servePrecompressedFiles) {
+      // the representation depends on the accept-encoding header
+      Utils.addToMapIfAbsent(response.headers(), HttpHeaders.VARY, "accept-encoding");
+      if (precompressed != null) {
+        response.putHeader(HttpHeaders.CONTENT_ENCODING, precompressed.encoding);
+      }
+    }
+
+    if (ranges != null) {
+      sendRanges(context, fileSystem, file, sent, sentProps, ranges);
+    } else if (request.method() == HttpMethod.HEAD) {
       response.end();
     } else {
       if (rangeSupport && offset != null) {
         // must return content range
-        headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + offset + "-" + end + "/" + fileProps.size());
+        headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + offset + "-" + end + "/" + sentProps.size());
         // return a partial response
         response.setStatusCode(PARTIAL_CONTENT.code());
 
@@ -469,19 +677,12 @@ public class StaticHandlerImpl implements StaticHandler {
           }
         }
 
-        response.sendFile(file, finalOffset, finalLength, res2 -> {
-          if (res2.failed()) {
-            if (!context.request().isEnded()) {
-              context.request().resume();
-            }
-            context.fail(res2.cause());
-          }
-        });
+        send(context, fileSystem, sent, sentProps, finalOffset, finalLength);
       } else {
         // guess content type
         String extension = getFileExtension(file);
         String contentType = MimeMapping.getMimeTypeForExtension(extension);
-        if (compressedMediaTypes.contains(contentType) || compressedFileSuffixes.contains(extension)) {
+        if (precompressed == null && (compressedMediaTypes.contains(contentType) || compressedFileSuffixes.contains(extension))) {
           response.putHeader(HttpHeaders.CONTENT_ENCODING, HttpHeaders.IDENTITY);
         }
         if (contentType != null) {
@@ -539,16 +740,295 @@ public class StaticHandlerImpl implements StaticHandler {
           response.putHeader("Link", links);
         }
 
-        response.sendFile(file, res2 -> {
-          if (res2.failed()) {
-            if (!context.request().isEnded()) {
-              context.request().resume();
-            }
-            context.fail(res2.cause());
-          }
+        send(context, fileSystem, sent, sentProps, 0, Long.MAX_VALUE);
+      }
+    }
+  }
+
+  /**
+   * Evaluates the {@code If-Range} header, a range request is only honored when the validator matches the file: an
+   * etag must be strongly equal to the etag of the response and a date must be the exact last modified date.
+   */
+  private boolean ifRange(RoutingContext context, FileProps props) {
+    final String ifRange = context.request().getHeader("If-Range");
+    if (ifRange == null) {
+      return true;
+    }
+    if (ifRange.startsWith("\"")) {
+      return ifRange.equals(context.response().headers().get(HttpHeaders.ETAG));
+    }
+    if (ifRange.startsWith("W/")) {
+      // weak etags never match
+      return false;
+    }
+    return Utils.parseRFC1123DateTime(ifRange) == Utils.secondsFactor(props.lastModifiedTime());
+  }
+
+  /**
+   * Parses a {@code Range} header (RFC 7233).
+   *
+   * @return {@code null} when the header must be ignored, otherwise the satisfiable ranges as inclusive first and last
+   * bytes, in the requested order. An empty list means that no range can be satisfied.
+   */
+  private static List<long[]> parseRanges(String header, long size) {
+    if (!header.regionMatches(true, 0, "bytes=", 0, 6)) {
+      return null;
+    }
+    final List<long[]> ranges = new ArrayList<>(1);
+    int specs = 0;
+    int start = 6;
+    while (start <= header.length()) {
+      int comma = header.indexOf(',', start);
+      if (comma == -1) {
+        comma = header.length();
+      }
+      final String spec = header.substring(start, comma).trim();
+      start = comma + 1;
+      if (spec.isEmpty()) {
+        // empty list elements are allowed
+        continue;
+      }
+      specs++;
+      final int dash = spec.indexOf('-');
+      if (dash == -1) {
+        return null;
+      }
+      final long first = parseBytePos(spec.substring(0, dash).trim());
+      final long last = parseBytePos(spec.substring(dash + 1).trim());
+      if (first == -2 || last == -2) {
+        return null;
+      }
+      if (first == -1) {
+        // suffix range, the last N bytes
+        if (last == -1) {
+          return null;
+        }
+        if (last > 0 && size > 0) {
+          ranges.add(new long[]{Math.max(0, size - last), size - 1});
+        }
+      } else {
+        // a range ending before it starts can't be satisfied
+        if (first < size && (last == -1 || last >= first)) {
+          ranges.add(new long[]{first, last == -1 ? size - 1 : Math.min(last, size - 1)});
+        }
+      }
+      if (ranges.size() > MAX_RANGES) {
+        return null;
+      }
+    }
+    if (specs == 0) {
+      // a range set without any range is as if no range was requested
+      return null;
+    }
+    long total = 0;
+    for (long[] range : ranges) {
+      total += range[1] + 1 - range[0];
+    }
+    // overlapping ranges asking for more than the file are served with the whole file
+    if (ranges.size() > 1 && total > size) {
+      return null;
+    }
+    return ranges;
+  }
+
+  /**
+   * @return the position, {@code -1} when empty or {@code -2} when it is not a number.
+   */
+  private static long parseBytePos(String value) {
+    if (value.isEmpty()) {
+      return -1;
+    }
+    for (int i = 0; i < value.length(); i++) {
+      if (value.charAt(i) < '0' || value.charAt(i) > '9') {
+        return -2;
+      }
+    }
+    try {
+      return Long.parseLong(value);
+    } catch (NumberFormatException e) {
+      return -2;
+    }
+  }
+
+  /**
+   * Sends a {@code multipart/byteranges} response. The parts are streamed from the content cache or read from the file
+   * in chunks, following the write queue of the response, so the file is never held in memory.
+   */
+  private void sendRanges(RoutingContext context, FileSystem fileSystem, String file, String sent, FileProps fileProps, List<long[]> ranges) {
+    final HttpServerResponse response = context.response();
+    final String boundary = Long.toHexString(ThreadLocalRandom.current().nextLong()) + Long.toHexString(ThreadLocalRandom.current().nextLong());
+    final String contentType = MimeMapping.getMimeTypeForFilename(file);
+
+    final List<Buffer> delimiters = new ArrayList<>(ranges.size() + 1);
+    long length = 0;
+    for (int i = 0; i < ranges.size(); i++) {
+      final long[] range = ranges.get(i);
+      final StringBuilder part = new StringBuilder();
+      if (i > 0) {
+        part.append("\r\n");
+      }
+      part.append("--").append(boundary).append("\r\n");
+      if (contentType != null) {
+        part.append("Content-Type: ").append(contentType);
+        if (contentType.startsWith("text")) {
+          part.append(";charset=").append(defaultContentEncoding);
+        }
+        part.append("\r\n");
+      }
+      part.append("Content-Range: bytes ").append(range[0]).append('-').append(range[1]).append('/').append(fileProps.size()).append("\r\n\r\n");
+      final Buffer delimiter = Buffer.buffer(part.toString());
+      delimiters.add(delimiter);
+      length += delimiter.length() + range[1] + 1 - range[0];
+    }
+    final Buffer close = Buffer.buffer("\r\n--" + boundary + "--\r\n");
+    delimiters.add(close);
+    length += close.length();
+
+    response
+      .setStatusCode(PARTIAL_CONTENT.code())
+      .putHeader(HttpHeaders.CONTENT_TYPE, "multipart/byteranges; boundary=" + boundary)
+      .putHeader(HttpHeaders.CONTENT_LENGTH, Long.toString(length));
+
+    if (context.request().method() == HttpMethod.HEAD) {
+      response.end();
+      return;
+    }
+
+    final Buffer content = contentCache.cacheable(fileProps) ? contentCache.get(sent, fileProps) : null;
+    if (content != null) {
+      final Handler<AsyncResult<Void>> onWrite = res -> {
+        if (res.failed() && !response.closed()) {
+          LOG.debug("Could not send the ranges of: " + sent, res.cause());
+          response.reset();
+        }
+      };
+      for (int i = 0; i < ranges.size(); i++) {
+        final long[] range = ranges.get(i);
+        response.write(delimiters.get(i), onWrite);
+        response.write(FSContentCache.slice(content, range[0], range[1] + 1 - range[0]), onWrite);
+      }
+      response.end(close, onWrite);
+      return;
+    }
+
+    fileSystem.open(sent, new OpenOptions().setRead(true).setWrite(false).setCreate(false), open -> {
+      if (open.failed()) {
+        if (!context.request().isEnded()) {
+          context.request().resume();
+        }
+        context.fail(open.cause());
+        return;
+      }
+      final AsyncFile asyncFile = open.result();
+      final Promise<Void> written = Promise.promise();
+      written.future().onComplete(res -> {
+        asyncFile.close();
+        if (res.failed() && !response.closed()) {
+          LOG.debug("Could not send the ranges of: " + sent, res.cause());
+          // the status was already sent, the only way to signal the failure is to drop the connection
+          response.reset();
+        }
+      });
+      // a closed connection never drains the write queue, stop the chain so the file is closed
+      context.addEndHandler(res -> {
+        if (res.failed()) {
+          written.tryFail(res.cause());
+        }
+      });
+      writeParts(response, asyncFile, ranges, delimiters, 0, res -> {
+        if (res.succeeded()) {
+          written.tryComplete();
+        } else {
+          written.tryFail(res.cause());
+        }
+      });
+    });
+  }
+
+  private static void writeParts(HttpServerResponse response, AsyncFile file, List<long[]> ranges, List<Buffer> delimiters, int index, Handler<AsyncResult<Void>> handler) {
+    if (index == ranges.size()) {
+      response.end(delimiters.get(index), handler);
+      return;
+    }
+    final long[] range = ranges.get(index);
+    response.write(delimiters.get(index));
+    writeRange(response, file, range[0], range[1] + 1 - range[0], res -> {
+      if (res.failed()) {
+        handler.handle(res);
+      } else {
+        writeParts(response, file, ranges, delimiters, index + 1, handler);
+      }
+    });
+  }
+
+  private static void writeRange(HttpServerResponse response, AsyncFile file, long position, long remaining, Handler<AsyncResult<Void>> handler) {
+    if (remaining == 0) {
+      handler.handle(Future.succeededFuture());
+      return;
+    }
+    if (response.closed()) {
+      handler.handle(Future.failedFuture("Response closed"));
+      return;
+    }
+    final int chunk = (int) Math.min(remaining, RANGE_CHUNK_SIZE);
+    file.read(Buffer.buffer(chunk), 0, position, chunk, read -> {
+      if (read.failed()) {
+        handler.handle(Future.failedFuture(read.cause()));
+        return;
+      }
+      final Buffer buffer = read.result();
+      if (buffer.length() == 0) {
+        handler.handle(Future.failedFuture("Unexpected end of file"));
+        return;
+      }
+      response.write(buffer);
+      final long next = position + buffer.length();
+      final long left = remaining - buffer.length();
+      if (response.writeQueueFull()) {
+        response.drainHandler(v -> {
+          response.drainHandler(null);
+          writeRange(response, file, next, left, handler);
         });
+      } else {
+        writeRange(response, file, next, left, handler);
+      }
+    });
+  }
+
+  /**
+   * Sends the given region of the file, from the content cache when possible. Cacheable files not yet in the cache are
+   * read at once and the region is sliced from the read buffer.
+   */
+  private void send(RoutingContext context, FileSystem fileSystem, String file, FileProps fileProps, long offset, long length) {
+    final HttpServerResponse response = context.response();
+    final Handler<AsyncResult<Void>> handler = res -> {
+      if (res.failed()) {
+        if (!context.request().isEnded()) {
+          context.request().resume();
+        }
+        context.fail(res.cause());
       }
+    };
+
+    if (!contentCache.cacheable(fileProps)) {
+      response.sendFile(file, offset, length, handler);
+      return;
     }
+
+    final Buffer content = contentCache.get(file, fileProps);
+    if (content != null) {
+      response.end(FSContentCache.slice(content, offset, length), handler);
+      return;
+    }
+
+    fileSystem.readFile(file, read -> {
+      if (read.succeeded() && read.result().length() == fileProps.size()) {
+        response.end(FSContentCache.slice(contentCache.put(file, fileProps, read.result()), offset, length), handler);
+      } else {
+        // the file changed (or vanished) since its properties were read, let the file system handle it
+        response.sendFile(file, offset, length, handler);
+      }
+    });
   }
 
   /**
@@ -694,6 +1174,43 @@ public class StaticHandlerImpl implements StaticHandler {
     return this;
   }
 
+  @Override
+  public StaticHandler setServePrecompressedFiles(boolean servePrecompressedFiles) {
+    this.servePrecompressedFiles = servePrecompressedFiles;
+    return this;
+  }
+
+  @Override
+  public StaticHandler setEnableStrongETags(boolean enableStrongETags) {
+    this.strongETags = enableStrongETags;
+    return this;
+  }
+
+  @Override
+  public StaticHandler setETagManifest(String manifest) {
+    this.etagManifestResource = manifest;
+    this.etagManifest = null;
+    synchronized (this) {
+      this.etagManifestLoading = null;
+    }
+    if (manifest != null) {
+      this.strongETags = true;
+    }
+    return this;
+  }
+
+  @Override
+  public StaticHandler setMaxContentCacheSize(long maxContentCacheSize) {
+    contentCache.setMaxSize(maxContentCacheSize);
+    return this;
+  }
+
+  @Override
+  public StaticHandler setMaxContentCacheFileSize(long maxContentCacheFileSize) {
+    contentCache.setMaxFileSize(maxContentCacheFileSize);
+    return this;
+  }
+
   private String getFile(String path, RoutingContext context) {
     String file = webRoot + Utils.pathOffset(path, context);
     if (LOG.isTraceEnabled()) {
@@ -841,6 +1358,10 @@ public class StaticHandlerImpl implements StaticHandler {
 
     final FileProps props;
     final long cacheEntryTimeout;
+    // precompressed siblings of the file, null until probed
+    volatile List<Precompressed> precompressed;
+    // strong etag of the file, null until computed
+    volatile String etag;
 
     private CacheEntry(FileProps props, long cacheEntryTimeout) {
       this.props = props;
@@ -854,6 +1375,11 @@ public class StaticHandlerImpl implements StaticHandler {
     public boolean isMissing() {
       return props == null;
     }
+
+    boolean sameFile(FileProps other) {
+      return props != null && other != null &&
+        props.lastModifiedTime() == other.lastModifiedTime() && props.size() == other.size();
+    }
   }
 
   private static class FSTune {
@@ -982,11 +1508,175 @@ public class StaticHandlerImpl implements StaticHandler {
       return null;
     }
 
-    void put(String path, FileProps props) {
+    CacheEntry put(String path, FileProps props) {
       if (propsCache != null) {
         CacheEntry now = new CacheEntry(props, cacheEntryTimeout);
+        final CacheEntry previous = propsCache.get(path);
+        if (previous != null && previous.sameFile(props)) {
+          // the props were refreshed but the file did not change, its digest and siblings are still valid
+          now.etag = previous.etag;
+          now.precompressed = previous.precompressed;
+        }
         propsCache.put(path, now);
+        return now;
+      }
+      return null;
+    }
+  }
+
+  /**
+   * Bounded cache of file contents, keyed by the resolved file. The contents are kept in direct buffers that are never
+   * copied: hits write a read-only view of the cached buffer and ranges are slices of it. A content is only returned
+   * when the last modified time and size of the file match the properties it was read with.
+   */
+  private static class FSContentCache {
+
+    private final LinkedHashMap<String, ContentEntry> contents = new LinkedHashMap<>(16, 0.75f, true);
+    private volatile long maxSize = DEFAULT_MAX_CONTENT_CACHE_SIZE;
+    private volatile long maxFileSize = DEFAULT_MAX_CONTENT_CACHE_FILE_SIZE;
+    private long size;
+
+    synchronized void setMaxSize(long maxSize) {
+      if (maxSize < 0) {
+        throw new IllegalArgumentException("maxContentCacheSize must be >= 0");
+      }
+      this.maxSize = maxSize;
+      evict();
+    }
+
+    void setMaxFileSize(long maxFileSize) {
+      if (maxFileSize < 0) {
+        throw new IllegalArgumentException("maxContentCacheFileSize must be >= 0");
+      }
+      this.maxFileSize = maxFileSize;
+    }
+
+    boolean cacheable(FileProps props) {
+      final long fileSize = props.size();
+      return maxSize > 0 && fileSize <= maxFileSize && fileSize <= maxSize && props.isRegularFile();
+    }
+
+    boolean contains(String file, FileProps props) {
+      return maxSize > 0 && get(file, props) != null;
+    }
+
+    synchronized Buffer get(String file, FileProps props) {
+      final ContentEntry entry = contents.get(file);
+      if (entry == null) {
+        return null;
+      }
+      if (entry.lastModifiedTime != props.lastModifiedTime() || entry.content.length() != props.size()) {
+        // stale
+        contents.remove(file);
+        size -= entry.content.length();
+        return null;
+      }
+      return entry.content;
+    }
+
+    /**
+     * @return the cached copy of the content.
+     */
+    synchronized Buffer put(String file, FileProps props, Buffer content) {
+      final int length = content.length();
+      final ByteBuffer direct = ByteBuffer.allocateDirect(length);
+      content.getByteBuf().getBytes(0, direct);
+      direct.flip();
+      // the memory is reclaimed by the garbage collector, never by a release of in-flight writes
+      final Buffer cached = Buffer.buffer(Unpooled.unreleasableBuffer(Unpooled.wrappedBuffer(direct)));
+
+      final ContentEntry previous = contents.put(file, new ContentEntry(cached, props.lastModifiedTime()));
+      if (previous != null) {
+        size -= previous.content.length();
+      }
+      size += length;
+      evict();
+      return cached;
+    }
+
+    static Buffer slice(Buffer content, long offset, long length) {
+      final int start = (int) Math.min(offset, content.length());
+      final int len = (int) Math.min(length, content.length() - start);
+      // a view with its own indexes, the cached buffer is shared by concurrent responses
+      return Buffer.buffer(content.getByteBuf().slice(start, len));
+    }
+
+    private void evict() {
+      final Iterator<ContentEntry> it = contents.values().iterator();
+      while (size > maxSize && it.hasNext()) {
+        size -= it.next().content.length();
+        it.remove();
+      }
+    }
+  }
+
+  /**
+   * A precompressed sibling of a file, e.g.: {@code app.js.br} for {@code app.js}.
+   */
+  private static final class Precompressed {
+
+    // in order of preference when the client accepts several encodings with the same weight
+    static final String[] ENCODINGS = {"br", "zstd", "gzip"};
+    static final String[] SUFFIXES = {".br", ".zst", ".gz"};
+
+    final String encoding;
+    final String file;
+    final FileProps props;
+    // strong etag of the sibling, null until computed
+    volatile String etag;
+
+    Precompressed(String encoding, String file, FileProps props) {
+      this.encoding = encoding;
+      this.file = file;
+      this.props = props;
+    }
+
+    /**
+     * Selects the sibling with the highest weight in the {@code Accept-Encoding} header, {@code null} when the identity
+     * is preferred or none is acceptable.
+     */
+    static Precompressed select(RoutingContext context, List<Precompressed> candidates) {
+      if (candidates.isEmpty()) {
+        return null;
       }
+      final List<ParsedHeaderValue> accepted = context.parsedHeaders().acceptEncoding();
+      Precompressed selected = null;
+      float selectedWeight = weight(accepted, "identity");
+      for (Precompressed candidate : candidates) {
+        final float weight = weight(accepted, candidate.encoding);
+        if (weight > 0 && (weight > selectedWeight || selected == null && weight == selectedWeight)) {
+          selected = candidate;
+          selectedWeight = weight;
+        }
+      }
+      return selected;
+    }
+
+    private static float weight(List<ParsedHeaderValue> accepted, String encoding) {
+      float wildcard = -1;
+      for (ParsedHeaderValue value : accepted) {
+        if (encoding.equalsIgnoreCase(value.value())) {
+          return value.weight();
+        }
+        if ("*".equals(value.value())) {
+          wildcard = value.weight();
+        }
+      }
+      if (wildcard != -1) {
+        return wildcard;
+      }
+      // the identity is always acceptable unless excluded, other encodings must be listed
+      return "identity".equals(encoding) ? 0.001f : 0;
+    }
+  }
+
+  private static final class ContentEntry {
+    final Buffer content;
+    final long lastModifiedTime;
+
+    ContentEntry(Buffer content, long lastModifiedTime) {
+      this.content = content;
+      this.lastModifiedTime = lastModifiedTime;
     }
   }
 }
@@ -29,15 +29,29 @@ import io.vertx.ext.web.handler.sockjs.SockJSSocket;
 class BridgeEventImpl implements BridgeEvent {
 
   private final BridgeEventType type;
-  private final JsonObject rawMessage;
+  private JsonObject rawMessage;
   private final SockJSSocket socket;
   private final Promise<Boolean> promise;
+  // the raw message is shared with other events, it is copied before being handed out
+  private boolean shared;
 
   public BridgeEventImpl(BridgeEventType type, JsonObject rawMessage, SockJSSocket socket) {
+    this(type, rawMessage, socket, false);
+  }
+
+  BridgeEventImpl(BridgeEventType type, JsonObject rawMessage, SockJSSocket socket, boolean shared) {
     this.type = type;
     this.rawMessage = rawMessage;
     this.socket = socket;
     this.promise = Promise.promise();
+    this.shared = shared;
+  }
+
+  /**
+   * @return true if the shared raw message was never handed out, so it can't have been modified for this event
+   */
+  boolean isRawMessageShared() {
+    return shared;
   }
 
   @Override
@@ -52,12 +66,16 @@ class BridgeEventImpl implements BridgeEvent {
 
   @Override
   public JsonObject getRawMessage() {
+    if (shared) {
+      rawMessage = rawMessage.copy();
+      shared = false;
+    }
     return rawMessage;
   }
 
   @Override
   public BridgeEvent setRawMessage(JsonObject message) {
-    if (message != rawMessage) {
+    if (message != getRawMessage()) {
       rawMessage.clear().mergeIn(message);
     }
     return this;
@@ -36,6 +36,7 @@ import io.vertx.core.*;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.eventbus.*;
 import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.impl.ContextInternal;
 import io.vertx.core.json.DecodeException;
 import io.vertx.core.json.JsonObject;
 import io.vertx.core.impl.logging.Logger;
@@ -48,13 +49,11 @@ import io.vertx.ext.bridge.BridgeEventType;
 import io.vertx.ext.bridge.PermittedOptions;
 import io.vertx.ext.web.Session;
 import io.vertx.ext.web.handler.sockjs.*;
+import io.vertx.ext.web.impl.ConcurrentLRUCache;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import static io.vertx.core.buffer.Buffer.buffer;
@@ -66,17 +65,18 @@ public class EventBusBridgeImpl implements Handler<SockJSSocket> {
 
   private static final Logger LOG = LoggerFactory.getLogger(EventBusBridgeImpl.class);
 
-  private final Map<SockJSSocket, SockInfo> sockInfos = new HashMap<>();
-  private final List<PermittedOptions> inboundPermitted;
-  private final List<PermittedOptions> outboundPermitted;
+  private final Map<SockJSSocket, SockInfo> sockInfos = new ConcurrentHashMap<>();
+  private final PermittedIndex inboundPermitted;
+  private final PermittedIndex outboundPermitted;
   private final int maxAddressLength;
   private final int maxHandlersPerSocket;
   private final long pingTimeout;
   private final long replyTimeout;
   private final Vertx vertx;
   private final EventBus eb;
-  private final Map<String, Message<?>> messagesAwaitingReply = new HashMap<>();
-  private final Map<String, Pattern> compiledREs = new HashMap<>();
+  private final Map<String, Message<?>> messagesAwaitingReply = new ConcurrentHashMap<>();
+  // a single event bus consumer per address, shared by the sockets registered to it
+  private final Map<String, AddressConsumer> addressConsumers = new ConcurrentHashMap<>();
   private final Handler<BridgeEvent> bridgeEventHandler;
   private final AuthorizationProvider authzProvider;
 
@@ -84,8 +84,8 @@ public class EventBusBridgeImpl implements Handler<SockJSSocket> {
     this.vertx = vertx;
     this.eb = vertx.eventBus();
     this.authzProvider = authzProvider;
-    this.inboundPermitted = options.getInboundPermitteds() == null ? new ArrayList<>() : options.getInboundPermitteds();
-    this.outboundPermitted = options.getOutboundPermitteds() == null ? new ArrayList<>() : options.getOutboundPermitteds();
+    this.inboundPermitted = new PermittedIndex(options.getInboundPermitteds());
+    this.outboundPermitted = new PermittedIndex(options.getOutboundPermitteds());
     this.maxAddressLength = options.getMaxAddressLength();
     this.maxHandlersPerSocket = options.getMaxHandlersPerSocket();
     this.pingTimeout = options.getPingTimeout();
@@ -93,7 +93,7 @@ public class EventBusBridgeImpl implements Handler<SockJSSocket> {
     this.bridgeEventHandler = bridgeEventHandler;
   }
 
-  private void handleSocketData(SockJSSocket sock, Buffer data, Map<String, MessageConsumer<?>> registrations) {
+  private void handleSocketData(SockJSSocket sock, Buffer data, Set<String> registrations) {
     JsonObject msg;
 
     try {
@@ -201,7 +201,7 @@ public class EventBusBridgeImpl implements Handler<SockJSSocket> {
     }
   }
 
-  private void internalHandleRegister(SockJSSocket sock, JsonObject rawMsg, Map<String, MessageConsumer<?>> registrations) {
+  private void internalHandleRegister(SockJSSocket sock, JsonObject rawMsg, Set<String> registrations) {
     final SockInfo info = sockInfos.get(sock);
     if (!checkMaxHandlers(sock, info)) {
       return;
@@ -223,44 +223,22 @@ public class EventBusBridgeImpl implements Handler<SockJSSocket> {
           // the socket is already listening to this address
           // we don't allow more registrations as doing this operation in a
           // loop could DDoS the bridge.
-          if (registrations.containsKey(address)) {
+          if (registrations.contains(address)) {
             LOG.warn("Refusing to register as address is already registered");
             replyError(sock, "address_already_registered");
             return;
           }
 
-          Handler<Message<Object>> handler = msg -> {
-            Match curMatch = checkMatches(false, address, msg.body());
-            if (curMatch.doesMatch) {
-              if (curMatch.requiredAuthority != null) {
-                authorise(curMatch, sock.webUser(), res -> {
-                  if (res.succeeded()) {
-                    if (res.result()) {
-                      checkAddAccceptedReplyAddress(msg);
-                      deliverMessage(sock, address, msg);
-                    } else {
-                      if (debug) {
-                        LOG.debug("Outbound message for address " + address + " rejected because auth is required and socket is not authed");
-                      }
-                    }
-                  } else {
-                    LOG.error(res.cause());
-                  }
-                });
-
-              } else {
-                checkAddAccceptedReplyAddress(msg);
-                deliverMessage(sock, address, msg);
-              }
-            } else {
-              // outbound match failed
-              if (debug) {
-                LOG.debug("Outbound message for address " + address + " rejected because there is no inbound match");
-              }
+          // sockets of other contexts may register or unregister the address at the same time
+          final Context context = vertx.getOrCreateContext();
+          addressConsumers.compute(address, (key, consumer) -> {
+            if (consumer == null) {
+              consumer = new AddressConsumer(key);
             }
-          };
-          MessageConsumer<?> reg = eb.consumer(address).handler(handler);
-          registrations.put(address, reg);
+            consumer.add(sock, context);
+            return consumer;
+          });
+          registrations.add(address);
           info.handlerCount++;
           // Notify registration completed
           checkCallHook(() -> new BridgeEventImpl(BridgeEventType.REGISTERED, rawMsg, sock));
@@ -274,7 +252,7 @@ public class EventBusBridgeImpl implements Handler<SockJSSocket> {
       }, () -> replyError(sock, "rejected"));
   }
 
-  private void internalHandleUnregister(SockJSSocket sock, JsonObject rawMsg, Map<String, MessageConsumer<?>> registrations) {
+  private void internalHandleUnregister(SockJSSocket sock, JsonObject rawMsg, Set<String> registrations) {
     checkCallHook(() -> new BridgeEventImpl(BridgeEventType.UNREGISTER, rawMsg, sock),
       () -> {
         String address = rawMsg.getString("address");
@@ -284,10 +262,9 @@ public class EventBusBridgeImpl implements Handler<SockJSSocket> {
         }
         Match match = checkMatches(false, address, null);
         if (match.doesMatch) {
-          MessageConsumer<?> registration = registrations.remove(address);
-          if (registration != null) {
+          if (registrations.remove(address)) {
             SockInfo info = sockInfos.get(sock);
-            registration.unregister();
+            unsubscribe(sock, address);
             info.handlerCount--;
           }
         } else {
@@ -316,7 +293,7 @@ public class EventBusBridgeImpl implements Handler<SockJSSocket> {
   public void handle(final SockJSSocket sock) {
     checkCallHook(() -> new BridgeEventImpl(BridgeEventType.SOCKET_CREATED, null, sock),
       () -> {
-        Map<String, MessageConsumer<?>> registrations = new HashMap<>();
+        Set<String> registrations = new HashSet<>();
 
         sock
           .handler(data -> handleSocketData(sock, data, registrations))
@@ -340,12 +317,12 @@ public class EventBusBridgeImpl implements Handler<SockJSSocket> {
       }, sock::close);
   }
 
-  private void handleSocketClosed(SockJSSocket sock, Map<String, MessageConsumer<?>> registrations) {
+  private void handleSocketClosed(SockJSSocket sock, Set<String> registrations) {
     clearSocketState(sock, registrations);
     checkCallHook(() -> new BridgeEventImpl(BridgeEventType.SOCKET_CLOSED, null, sock));
   }
 
-  private void handleSocketException(SockJSSocket sock, Throwable err, Map<String, MessageConsumer<?>> registrations) {
+  private void handleSocketException(SockJSSocket sock, Throwable err, Set<String> registrations) {
     LOG.error("SockJSSocket exception", err);
     clearSocketState(sock, registrations);
     final JsonObject msg = new JsonObject().put("type", "err").put("failureType", "socketException");
@@ -355,14 +332,14 @@ public class EventBusBridgeImpl implements Handler<SockJSSocket> {
     checkCallHook(() -> new BridgeEventImpl(BridgeEventType.SOCKET_ERROR, msg, sock));
   }
 
-  private void clearSocketState(SockJSSocket sock, Map<String, MessageConsumer<?>> registrations) {
+  private void clearSocketState(SockJSSocket sock, Set<String> registrations) {
     // On close or exception unregister any handlers that haven't been unregistered
-    for (MessageConsumer<?> registration : registrations.values()) {
-      registration.unregister();
+    for (String address : registrations) {
+      unsubscribe(sock, address);
       checkCallHook(() ->
         new BridgeEventImpl(
           BridgeEventType.UNREGISTER,
-          new JsonObject().put("type", "unregister").put("address", registration.address()),
+          new JsonObject().put("type", "unregister").put("address", address),
           sock));
     }
     // ensure that no timers remain active
@@ -391,25 +368,20 @@ public class EventBusBridgeImpl implements Handler<SockJSSocket> {
     }
   }
 
-  private void deliverMessage(SockJSSocket sock, String address, Message<?> message) {
-    JsonObject envelope = new JsonObject().put("type", "rec").put("address", address).put("body", message.body());
-    if (message.replyAddress() != null) {
-      envelope.put("replyAddress", message.replyAddress());
-    }
-    if (message.headers() != null && !message.headers().isEmpty()) {
-      JsonObject headersCopy = new JsonObject();
-      for (String name : message.headers().names()) {
-        List<String> values = message.headers().getAll(name);
-        if (values.size() == 1) {
-          headersCopy.put(name, values.get(0));
-        } else {
-          headersCopy.put(name, values);
-        }
-      }
-      envelope.put("headers", headersCopy);
+  private void unsubscribe(SockJSSocket sock, String address) {
+    // the last socket listening to the address removes the consumer, atomically with respect to a new registration
+    addressConsumers.computeIfPresent(address, (key, consumer) -> consumer.remove(sock) ? null : consumer);
+  }
+
+  private void deliverMessage(SockJSSocket sock, Envelope envelope) {
+    if (bridgeEventHandler == null) {
+      sock.write(envelope.encoded());
+      return;
     }
-    checkCallHook(() -> new BridgeEventImpl(BridgeEventType.RECEIVE, envelope, sock),
-      () -> sock.write(buffer(envelope.encode())),
+    // the envelope is shared by all the receiving sockets, the event copies it if the hook reads it
+    final BridgeEventImpl event = new BridgeEventImpl(BridgeEventType.RECEIVE, envelope.json(), sock, true);
+    checkCallHook(() -> event,
+      () -> sock.write(event.isRawMessageShared() ? envelope.encoded() : event.getRawMessage().encode()),
       () -> LOG.debug("outbound message rejected by bridge event handler"));
   }
 
@@ -432,7 +404,7 @@ public class EventBusBridgeImpl implements Handler<SockJSSocket> {
     final Message<?> awaitingReply = messagesAwaitingReply.remove(address);
     Match curMatch;
     if (awaitingReply != null) {
-      curMatch = new Match(true);
+      curMatch = Match.MATCH;
     } else {
       curMatch = checkMatches(true, address, body);
     }
@@ -496,7 +468,7 @@ public class EventBusBridgeImpl implements Handler<SockJSSocket> {
           // Now - the reply message might itself be waiting for a reply - which would be inbound -so we need
           // to add the message to the messages awaiting reply so it can be let through
           checkAddAccceptedReplyAddress(message);
-          deliverMessage(sock, replyAddress, message);
+          deliverMessage(sock, new Envelope(replyAddress, message));
         } else {
           ReplyException cause = (ReplyException) result.cause();
           JsonObject envelope =
@@ -578,40 +550,7 @@ public class EventBusBridgeImpl implements Handler<SockJSSocket> {
   this means that specifying one match with a JSON empty object means everything is accepted
    */
   private Match checkMatches(boolean inbound, String address, Object body) {
-
-    List<PermittedOptions> matches = inbound ? inboundPermitted : outboundPermitted;
-
-    for (PermittedOptions matchHolder : matches) {
-      String matchAddress = matchHolder.getAddress();
-      String matchRegex;
-      if (matchAddress == null) {
-        matchRegex = matchHolder.getAddressRegex();
-      } else {
-        matchRegex = null;
-      }
-
-      boolean addressOK;
-      if (matchAddress == null) {
-        addressOK = matchRegex == null || regexMatches(matchRegex, address);
-      } else {
-        addressOK = matchAddress.equals(address);
-      }
-
-      if (addressOK) {
-        boolean matched = structureMatches(matchHolder.getMatch(), body);
-        if (matched) {
-          String requiredAuthority = matchHolder.getRequiredAuthority();
-          return new Match(true, requiredAuthority);
-        }
-      }
-    }
-    return new Match(false);
-  }
-
-  private boolean regexMatches(String matchRegex, String address) {
-    Pattern pattern = compiledREs.computeIfAbsent(matchRegex, Pattern::compile);
-    Matcher m = pattern.matcher(address);
-    return m.matches();
+    return (inbound ? inboundPermitted : outboundPermitted).match(address, body);
   }
 
   private static void replyError(SockJSSocket sock, String err) {
@@ -644,6 +583,10 @@ public class EventBusBridgeImpl implements Handler<SockJSSocket> {
   }
 
   private static class Match {
+
+    static final Match MATCH = new Match(true);
+    static final Match NO_MATCH = new Match(false);
+
     public final boolean doesMatch;
     public final Authorization requiredAuthority;
 
@@ -659,6 +602,310 @@ public class EventBusBridgeImpl implements Handler<SockJSSocket> {
 
   }
 
+  /**
+   * The permitted options of one direction, indexed by address. Exact addresses are looked up in a hash map, the
+   * regular expressions are evaluated once per address and the ordered list of options matching an address is cached.
+   * When the first of them has no {@code match} constraint the decision does not depend on the body at all.
+   * <p>
+   * The options are still tried in the order they were added, so the outcome is the same as a linear scan.
+   */
+  private static final class PermittedIndex {
+
+    private static final int MAX_CACHED_ADDRESSES = 1024;
+    private static final Rule[] NO_RULES = new Rule[0];
+
+    private final Map<String, List<Rule>> exact = new HashMap<>();
+    // the options with a regex or without any address constraint
+    private final List<Rule> patterns = new ArrayList<>();
+    // shared by the event loops of the bridged sockets
+    private final ConcurrentLRUCache<String, Rule[]> cache = new ConcurrentLRUCache<>(MAX_CACHED_ADDRESSES);
+
+    PermittedIndex(List<PermittedOptions> permitted) {
+      if (permitted != null) {
+        for (int i = 0; i < permitted.size(); i++) {
+          final PermittedOptions options = permitted.get(i);
+          final Rule rule = new Rule(i, options);
+          if (options.getAddress() != null) {
+            exact.computeIfAbsent(options.getAddress(), k -> new ArrayList<>()).add(rule);
+          } else {
+            patterns.add(rule);
+          }
+        }
+      }
+    }
+
+    Match match(String address, Object body) {
+      final Rule[] rules = rules(address);
+      for (Rule rule : rules) {
+        if (rule.match == null || structureMatches(rule.match, body)) {
+          return rule.result;
+        }
+      }
+      return Match.NO_MATCH;
+    }
+
+    private Rule[] rules(String address) {
+      Rule[] rules = cache.get(address);
+      if (rules == null) {
+        final List<Rule> list = new ArrayList<>(exact.getOrDefault(address, Collections.emptyList()));
+        for (Rule rule : patterns) {
+          if (rule.pattern == null || rule.pattern.matcher(address).matches()) {
+            list.add(rule);
+          }
+        }
+        if (list.isEmpty()) {
+          rules = NO_RULES;
+        } else {
+          list.sort(Comparator.comparingInt(rule -> rule.order));
+          // the rules after one without body constraint can never be reached
+          int end = 1;
+          while (end < list.size() && list.get(end - 1).match != null) {
+            end++;
+          }
+          rules = list.subList(0, end).toArray(NO_RULES);
+        }
+        cache.put(address, rules);
+      }
+      return rules;
+    }
+  }
+
+  private static final class Rule {
+
+    final int order;
+    final Pattern pattern;
+    final JsonObject match;
+    final Match result;
+
+    Rule(int order, PermittedOptions options) {
+      this.order = order;
+      this.pattern = options.getAddress() == null && options.getAddressRegex() != null ?
+        Pattern.compile(options.getAddressRegex()) :
+        null;
+      this.match = options.getMatch();
+      this.result = new Match(true, options.getRequiredAuthority());
+    }
+  }
+
+  /**
+   * The event bus consumer of an address. A message is checked against the outbound permitted options and encoded
+   * once for all the registered sockets, authorization is still verified per socket. The consumer runs on the context
+   * of the first socket, the other sockets are written from their own context. When that context is closed (e.g. its
+   * verticle is undeployed) Vert.x unregisters the consumer, it is then registered again on the context of a remaining
+   * socket.
+   * <p>
+   * For point to point messages the bridge counts as a single consumer of the address, the sockets receive the messages
+   * of the bridge in turn.
+   */
+  private final class AddressConsumer implements Handler<Message<Object>>, Closeable {
+
+    private final String address;
+    // null while the consumer is registered again after its context was closed
+    private MessageConsumer<Object> consumer;
+    private ContextInternal context;
+    private volatile Receiver[] receivers = new Receiver[0];
+    // the last socket that received a point to point message
+    private int last = -1;
+
+    AddressConsumer(String address) {
+      this.address = address;
+    }
+
+    /**
+     * Must be called on the context of the socket.
+     */
+    synchronized void add(SockJSSocket sock, Context context) {
+      final Receiver[] receivers = Arrays.copyOf(this.receivers, this.receivers.length + 1);
+      receivers[receivers.length - 1] = new Receiver(sock, context);
+      this.receivers = receivers;
+      if (consumer == null) {
+        register((ContextInternal) context);
+      }
+    }
+
+    /**
+     * @return {@code true} when no socket is left, the consumer is then unregistered
+     */
+    synchronized boolean remove(SockJSSocket sock) {
+      final List<Receiver> list = new ArrayList<>(receivers.length);
+      for (Receiver receiver : receivers) {
+        if (receiver.sock != sock) {
+          list.add(receiver);
+        }
+      }
+      receivers = list.toArray(new Receiver[0]);
+      if (receivers.length == 0) {
+        if (consumer != null) {
+          consumer.unregister();
+          context.removeCloseHook(this);
+          consumer = null;
+          context = null;
+        }
+        return true;
+      }
+      return false;
+    }
+
+    /**
+     * Must be called on the given context, the event bus binds the consumer to the current context.
+     */
+    private void register(ContextInternal context) {
+      this.context = context;
+      this.consumer = eb.consumer(address, this);
+      context.addCloseHook(this);
+    }
+
+    /**
+     * The context of the consumer is closed, the sockets of the other contexts must keep receiving.
+     */
+    @Override
+    public synchronized void close(Promise<Void> completion) {
+      final ContextInternal closed = context;
+      if (consumer != null) {
+        consumer.unregister();
+        consumer = null;
+        context = null;
+      }
+      for (Receiver receiver : receivers) {
+        if (receiver.context != closed) {
+          final ContextInternal survivor = (ContextInternal) receiver.context;
+          survivor.runOnContext(v -> reregister(survivor));
+          break;
+        }
+      }
+      completion.complete();
+    }
+
+    private synchronized void reregister(ContextInternal context) {
+      // a socket may have registered it already, or all the sockets may be gone meanwhile
+      if (consumer == null && receivers.length > 0) {
+        register(context);
+      }
+    }
+
+    @Override
+    public void handle(Message<Object> msg) {
+      final Receiver[] receivers = this.receivers;
+      if (receivers.length == 0) {
+        return;
+      }
+      final Match curMatch = checkMatches(false, address, msg.body());
+      if (!curMatch.doesMatch) {
+        // outbound match failed
+        if (LOG.isDebugEnabled()) {
+          LOG.debug("Outbound message for address " + address + " rejected because there is no inbound match");
+        }
+        return;
+      }
+      final Envelope envelope = new Envelope(address, msg);
+      if (msg.isSend()) {
+        // point to point, as with one consumer per socket only one of them gets the message
+        last = (last + 1) % receivers.length;
+        deliver(receivers[last], curMatch, envelope);
+      } else {
+        for (Receiver receiver : receivers) {
+          deliver(receiver, curMatch, envelope);
+        }
+      }
+    }
+
+    private void deliver(Receiver receiver, Match curMatch, Envelope envelope) {
+      if (receiver.context == Vertx.currentContext()) {
+        deliver(receiver.sock, curMatch, envelope);
+      } else {
+        // encoded before it is shared with another thread
+        envelope.encoded();
+        receiver.context.runOnContext(v -> deliver(receiver.sock, curMatch, envelope));
+      }
+    }
+
+    private void deliver(SockJSSocket sock, Match curMatch, Envelope envelope) {
+      if (curMatch.requiredAuthority != null) {
+        authorise(curMatch, sock.webUser(), res -> {
+          if (res.succeeded()) {
+            if (res.result()) {
+              envelope.acceptReplyAddress();
+              deliverMessage(sock, envelope);
+            } else {
+              if (LOG.isDebugEnabled()) {
+                LOG.debug("Outbound message for address " + address + " rejected because auth is required and socket is not authed");
+              }
+            }
+          } else {
+            LOG.error(res.cause());
+          }
+        });
+      } else {
+        envelope.acceptReplyAddress();
+        deliverMessage(sock, envelope);
+      }
+    }
+  }
+
+  private static final class Receiver {
+
+    final SockJSSocket sock;
+    final Context context;
+
+    Receiver(SockJSSocket sock, Context context) {
+      this.sock = sock;
+      this.context = context;
+    }
+  }
+
+  /**
+   * The {@code rec} frame of a message, built and encoded at most once whatever the number of receiving sockets.
+   */
+  private final class Envelope {
+
+    private final String address;
+    private final Message<?> message;
+    private JsonObject json;
+    private String encoded;
+    private boolean replyAddressAccepted;
+
+    Envelope(String address, Message<?> message) {
+      this.address = address;
+      this.message = message;
+    }
+
+    synchronized void acceptReplyAddress() {
+      if (!replyAddressAccepted) {
+        replyAddressAccepted = true;
+        checkAddAccceptedReplyAddress(message);
+      }
+    }
+
+    JsonObject json() {
+      if (json == null) {
+        json = new JsonObject().put("type", "rec").put("address", address).put("body", message.body());
+        if (message.replyAddress() != null) {
+          json.put("replyAddress", message.replyAddress());
+        }
+        if (message.headers() != null && !message.headers().isEmpty()) {
+          JsonObject headersCopy = new JsonObject();
+          for (String name : message.headers().names()) {
+            List<String> values = message.headers().getAll(name);
+            if (values.size() == 1) {
+              headersCopy.put(name, values.get(0));
+            } else {
+              headersCopy.put(name, values);
+            }
+          }
+          json.put("headers", headersCopy);
+        }
+      }
+      return json;
+    }
+
+    String encoded() {
+      if (encoded == null) {
+        encoded = json().encode();
+      }
+      return encoded;
+    }
+  }
+
   private static final class PingInfo {
     long lastPing;
     long timerID;
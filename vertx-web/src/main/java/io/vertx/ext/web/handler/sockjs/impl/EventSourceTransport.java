@@ -47,6 +47,8 @@ import io.vertx.ext.web.handler.PlatformHandler;
 import io.vertx.ext.web.handler.sockjs.SockJSHandlerOptions;
 import io.vertx.ext.web.handler.sockjs.SockJSSocket;
 
+import java.nio.charset.StandardCharsets;
+
 import static io.vertx.core.buffer.Buffer.buffer;
 
 /**
@@ -57,6 +59,9 @@ class EventSourceTransport extends BaseTransport {
 
   private static final Logger LOG = LoggerFactory.getLogger(EventSourceTransport.class);
 
+  private static final byte[] DATA = "data: ".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] CRLF_CRLF = "\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+
   private final Handler<SockJSSocket> sockHandler;
 
   EventSourceTransport(Vertx vertx, Router router, LocalMap<String, SockJSSession> sessions, SockJSHandlerOptions options, Handler<SockJSSocket> sockHandler) {
@@ -91,6 +96,22 @@ class EventSourceTransport extends BaseTransport {
 
     @Override
     public void sendFrame(String body, Handler<AsyncResult<Void>> handler) {
+      String sb = "data: " +
+        body +
+        "\r\n\r\n";
+      write(buffer(sb), handler);
+    }
+
+    @Override
+    public void sendFrame(Buffer body, Handler<AsyncResult<Void>> handler) {
+      Buffer buff = Buffer.buffer(body.length() + 10)
+        .appendBytes(DATA)
+        .appendBuffer(body)
+        .appendBytes(CRLF_CRLF);
+      write(buff, handler);
+    }
+
+    private void write(Buffer buff, Handler<AsyncResult<Void>> handler) {
       if (LOG.isTraceEnabled()) LOG.trace("EventSource, sending frame");
       if (!headersWritten) {
         // event stream data is always UTF8
@@ -102,10 +123,6 @@ class EventSourceTransport extends BaseTransport {
         rc.response().setChunked(true).write("\r\n");
         headersWritten = true;
       }
-      String sb = "data: " +
-        body +
-        "\r\n\r\n";
-      Buffer buff = buffer(sb);
       rc.response().write(buff, handler);
       bytesSent += buff.length();
       if (bytesSent >= maxBytesStreaming) {
@@ -33,15 +33,15 @@
 package io.vertx.ext.web.handler.sockjs.impl;
 
 import com.fasterxml.jackson.core.JsonFactory;
-import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.io.CharTypes;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.json.EncodeException;
 
-import java.io.IOException;
-import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -68,53 +68,64 @@ public class JsonCodec {
 
   // This code was adapted from http://wiki.fasterxml.com/JacksonSampleQuoteChars
 
-  private static final char[] HEX_CHARS = "0123456789abcdef".toCharArray();
+  private static final byte[] HEX_BYTES = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
   private static final int[] ESCAPE_CODES = CharTypes.get7BitOutputEscapes();
 
-  private static void writeUnicodeEscape(JsonGenerator gen, char c) throws IOException {
-    gen.writeRaw('\\');
-    gen.writeRaw('u');
-    gen.writeRaw(HEX_CHARS[(c >> 12) & 0xF]);
-    gen.writeRaw(HEX_CHARS[(c >> 8) & 0xF]);
-    gen.writeRaw(HEX_CHARS[(c >> 4) & 0xF]);
-    gen.writeRaw(HEX_CHARS[c & 0xF]);
-  }
-
-  private static void writeShortEscape(JsonGenerator gen, char c) throws IOException {
-    gen.writeRaw('\\');
-    gen.writeRaw(c);
+  public static String encode(String[] messages) throws EncodeException {
+    final Buffer buffer = Buffer.buffer();
+    buffer.appendByte((byte) '[');
+    for (int i = 0; i < messages.length; i++) {
+      if (i > 0) {
+        buffer.appendByte((byte) ',');
+      }
+      encode(buffer, messages[i]);
+    }
+    buffer.appendByte((byte) ']');
+    return buffer.toString(StandardCharsets.US_ASCII);
   }
 
-  public static String encode(String[] messages) throws EncodeException {
-    StringWriter sw = new StringWriter();
-    try (JsonGenerator gen = factory.createGenerator(sw)) {
-      gen.writeStartArray();
-      boolean first = true;
-      for (String message : messages) {
-        if (first) {
-          first = false;
-        } else {
-          gen.writeRaw(',');
-        }
-        gen.writeRaw('"');
-        for (char c : message.toCharArray()) {
-          if (c >= 0x80) writeUnicodeEscape(gen, c); // use generic escaping for all non US-ASCII characters
-          else {
-            // use escape table for first 128 characters
-            int code = (c < ESCAPE_CODES.length ? ESCAPE_CODES[c] : 0);
-            if (code == 0) gen.writeRaw(c); // no escaping
-            else if (code == -1) writeUnicodeEscape(gen, c); // generic escaping
-            else writeShortEscape(gen, (char) code); // short escaping (\n \t ...)
-          }
-        }
-        gen.writeRaw('"');
+  /**
+   * Appends a message to a buffer as a JSON string. As all non US-ASCII characters are escaped the result is plain
+   * ASCII, so it is written as bytes directly without building an intermediate {@code String}.
+   *
+   * @param buffer the buffer to append to
+   * @param message the message to encode
+   * @return the number of bytes appended
+   */
+  public static int encode(Buffer buffer, String message) {
+    final int len = message.length();
+    // the common case is a message without characters to escape
+    byte[] bytes = new byte[len + 2];
+    int pos = 0;
+    bytes[pos++] = '"';
+    for (int i = 0; i < len; i++) {
+      final char c = message.charAt(i);
+      final int code = c < ESCAPE_CODES.length ? ESCAPE_CODES[c] : -1;
+      if (code == 0) {
+        // no escaping
+        bytes[pos++] = (byte) c;
+        continue;
+      }
+      // an escape takes at most 6 bytes, plus the closing quote
+      if (pos + 6 + (len - i) > bytes.length) {
+        bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, pos + 6 + (len - i)));
+      }
+      bytes[pos++] = '\\';
+      if (code == -1) {
+        // generic escaping, also used for all non US-ASCII characters
+        bytes[pos++] = 'u';
+        bytes[pos++] = HEX_BYTES[(c >> 12) & 0xF];
+        bytes[pos++] = HEX_BYTES[(c >> 8) & 0xF];
+        bytes[pos++] = HEX_BYTES[(c >> 4) & 0xF];
+        bytes[pos++] = HEX_BYTES[c & 0xF];
+      } else {
+        // short escaping (\n \t ...)
+        bytes[pos++] = (byte) code;
       }
-      gen.writeEndArray();
-      gen.close();
-      return sw.toString();
-    } catch (Exception e) {
-      throw new EncodeException("Failed to encode as JSON", e);
     }
+    bytes[pos++] = '"';
+    buffer.appendBytes(bytes, 0, pos);
+    return pos;
   }
 
   public static List<String> decodeValues(String messages) {
@@ -66,7 +66,10 @@ class SockJSSession extends SockJSSocketBase implements Shareable {
   private static final Logger LOG = LoggerFactory.getLogger(SockJSSession.class);
 
   private final LocalMap<String, SockJSSession> sessions;
-  private final Deque<String> pendingWrites = new LinkedList<>();
+  // the pending messages, already encoded as an array frame without its closing bracket
+  private Buffer pendingWrites;
+  private int lastFrameSize = 128;
+  private boolean flushScheduled;
   private final Context context;
   private final InboundBuffer<Buffer> pendingReads;
   private final String id;
@@ -78,7 +81,7 @@ class SockJSSession extends SockJSSocketBase implements Shareable {
   private boolean closed;
   private boolean openWritten;
   private long timeoutTimerID = -1;
-  private int maxQueueSize = 64 * 1024; // Message queue size is measured in *characters* (not bytes)
+  private int maxQueueSize = 64 * 1024; // Message queue size is measured in encoded bytes
   private int messagesSize;
   private Handler<Void> drainHandler;
   private Handler<Void> endHandler;
@@ -114,19 +117,30 @@ class SockJSSession extends SockJSSocketBase implements Shareable {
   }
 
   private void writeInternal(String msg, Promise<Void> promise) {
+    final boolean flush;
     synchronized (this) {
-      pendingWrites.add(msg);
-      messagesSize += msg.length();
+      if (pendingWrites == null) {
+        pendingWrites = Buffer.buffer(lastFrameSize);
+        pendingWrites.appendByte((byte) 'a').appendByte((byte) '[');
+      } else {
+        pendingWrites.appendByte((byte) ',');
+      }
+      messagesSize += JsonCodec.encode(pendingWrites, msg);
       writeAcks.add(promise);
+      // all the messages written during the same event loop tick go out as a single frame
+      flush = listener != null && !flushScheduled;
+      if (flush) {
+        flushScheduled = true;
+      }
     }
 
-    if (listener != null) {
-      final Context ctx = transportCtx;
-      if (Vertx.currentContext() != ctx) {
-        ctx.runOnContext(v -> writePendingMessages());
-      } else {
+    if (flush) {
+      transportCtx.runOnContext(v -> {
+        synchronized (this) {
+          flushScheduled = false;
+        }
         writePendingMessages();
-      }
+      });
     }
   }
 
@@ -231,6 +245,10 @@ class SockJSSession extends SockJSSocketBase implements Shareable {
   // Yes, SockJS is weird, but it's hard to work out expected server behaviour when there's no spec
   @Override
   public void close() {
+    if (listener != null && Vertx.currentContext() == transportCtx) {
+      // don't lose the messages written before closing
+      writePendingMessages();
+    }
     synchronized (this) {
       if (!closed) {
         closed = true;
@@ -307,12 +325,14 @@ class SockJSSession extends SockJSSocketBase implements Shareable {
   private void writePendingMessages() {
     final TransportListener listener = this.listener;
     if (listener != null) {
-      final String json;
+      final Buffer frame;
       final List<Handler<AsyncResult<Void>>> acks;
       synchronized (this) {
-        if (!pendingWrites.isEmpty()) {
-          json = JsonCodec.encode(pendingWrites.toArray(new String[0]));
-          pendingWrites.clear();
+        if (pendingWrites != null) {
+          frame = pendingWrites.appendByte((byte) ']');
+          pendingWrites = null;
+          // size the next frame like this one, up to a limit
+          lastFrameSize = Math.min(frame.length(), 8192);
           if (!writeAcks.isEmpty()) {
             acks = new ArrayList<>(writeAcks);
             writeAcks.clear();
@@ -321,15 +341,15 @@ class SockJSSession extends SockJSSocketBase implements Shareable {
           }
           messagesSize = 0;
         } else {
-          json = null;
+          frame = null;
           acks = Collections.emptyList();
         }
       }
-      if (json != null) {
+      if (frame != null) {
         if (!acks.isEmpty()) {
-          listener.sendFrame("a" + json, ar -> acks.forEach(a -> a.handle(ar)));
+          listener.sendFrame(frame, ar -> acks.forEach(a -> a.handle(ar)));
         } else {
-          listener.sendFrame("a" + json, null);
+          listener.sendFrame(frame, null);
         }
       }
       if (drainHandler != null) {
@@ -378,7 +398,7 @@ class SockJSSession extends SockJSSocketBase implements Shareable {
           listener = null;
           lst.close();
         } else {
-          if (!pendingWrites.isEmpty()) {
+          if (pendingWrites != null) {
             writePendingMessages();
           }
         }
@@ -412,7 +432,8 @@ class SockJSSession extends SockJSSocketBase implements Shareable {
   private void handleClosed() {
     synchronized (this) {
       pendingReads.clear();
-      pendingWrites.clear();
+      pendingWrites = null;
+      messagesSize = 0;
       writeAcks.forEach(handler -> context.runOnContext(v -> handler.handle(Future.failedFuture(ConnectionBase.CLOSED_EXCEPTION))));
       writeAcks.clear();
     }
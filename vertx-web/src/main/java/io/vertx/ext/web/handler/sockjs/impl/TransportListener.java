@@ -34,6 +34,7 @@ package io.vertx.ext.web.handler.sockjs.impl;
 
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
 
 /**
  * @author <a href="http://tfox.org">Tim Fox</a>
@@ -42,6 +43,13 @@ interface TransportListener {
 
   void sendFrame(String body, Handler<AsyncResult<Void>> handler);
 
+  /**
+   * Send a frame already encoded by the session, the listener owns the buffer and may append to it.
+   */
+  default void sendFrame(Buffer body, Handler<AsyncResult<Void>> handler) {
+    sendFrame(body.toString(), handler);
+  }
+
   void close();
 
   void sessionClosed();
@@ -212,6 +212,13 @@ class XhrTransport extends BaseTransport {
       close();
     }
 
+    @Override
+    public void sendFrame(Buffer body, Handler<AsyncResult<Void>> handler) {
+      super.beforeSend();
+      rc.response().write(body.appendByte((byte) '\n'), handler);
+      close();
+    }
+
     @Override
     public void close() {
       if (LOG.isTraceEnabled()) LOG.trace("XHR poll closing listener");
@@ -247,7 +254,20 @@ class XhrTransport extends BaseTransport {
         rc.response().write(H_BLOCK);
       }
       String sbody = body + "\n";
-      Buffer buff = buffer(sbody);
+      write(buffer(sbody), handler);
+    }
+
+    @Override
+    public void sendFrame(Buffer body, Handler<AsyncResult<Void>> handler) {
+      boolean hr = headersWritten;
+      super.beforeSend();
+      if (!hr) {
+        rc.response().write(H_BLOCK);
+      }
+      write(body.appendByte((byte) '\n'), handler);
+    }
+
+    private void write(Buffer buff, Handler<AsyncResult<Void>> handler) {
       rc.response().write(buff, handler);
       bytesSent += buff.length();
       if (bytesSent >= maxBytesStreaming) {
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2022 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.impl;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A bounded cache safe for concurrent use, unlike {@link LRUCache} reads never lock.
+ * <p>
+ * The eviction is an approximation of LRU (second chance): entries are queued in insertion order and reading an entry
+ * marks it as used. When the cache is full the head of the queue is evicted, unless it is marked, in which case it
+ * loses its mark and goes back to the tail. Each put evicts in amortized constant time.
+ */
+public class ConcurrentLRUCache<K, V> {
+
+  private final ConcurrentHashMap<K, Entry<K, V>> map;
+  private final Queue<Entry<K, V>> queue = new ConcurrentLinkedQueue<>();
+  // removed entries still in the queue
+  private final AtomicInteger removed = new AtomicInteger();
+  private final int maxSize;
+
+  public ConcurrentLRUCache(int maxSize) {
+    if (maxSize < 1) {
+      throw new IllegalArgumentException("maxSize must be >= 1");
+    }
+    this.maxSize = maxSize;
+    this.map = new ConcurrentHashMap<>(Math.min(maxSize, 1024));
+  }
+
+  public V get(K key) {
+    final Entry<K, V> entry = map.get(key);
+    if (entry == null) {
+      return null;
+    }
+    // plain write, losing a mark only makes the entry a better eviction candidate
+    entry.used = true;
+    return entry.value;
+  }
+
+  public void put(K key, V value) {
+    final Entry<K, V> entry = new Entry<>(key, value);
+    final Entry<K, V> previous = map.putIfAbsent(key, entry);
+    if (previous != null) {
+      // keep the queue position of the entry
+      previous.value = value;
+      return;
+    }
+    queue.offer(entry);
+    while (map.size() > maxSize && evict()) {
+      // continue
+    }
+  }
+
+  public V remove(K key) {
+    final Entry<K, V> entry = map.remove(key);
+    if (entry == null) {
+      return null;
+    }
+    if (removed.incrementAndGet() > maxSize) {
+      // drop the removed entries once they outnumber the live ones
+      removed.set(0);
+      queue.removeIf(e -> map.get(e.key) != e);
+    }
+    return entry.value;
+  }
+
+  public int size() {
+    return map.size();
+  }
+
+  public void clear() {
+    map.clear();
+    queue.clear();
+    removed.set(0);
+  }
+
+  private boolean evict() {
+    Entry<K, V> entry;
+    while ((entry = queue.poll()) != null) {
+      if (map.get(entry.key) != entry) {
+        // already removed
+        continue;
+      }
+      if (entry.used) {
+        // second chance
+        entry.used = false;
+        queue.offer(entry);
+      } else if (map.remove(entry.key, entry)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static final class Entry<K, V> {
+
+    final K key;
+    volatile V value;
+    boolean used;
+
+    Entry(K key, V value) {
+      this.key = key;
+      this.value = value;
+    }
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2022 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.impl;
+
+import java.util.*;
+
+/**
+ * A hash index of the routes with an exact static path (e.g.: {@code /api/users}). For a given request only the routes
+ * registered for the request path are selected, all other exact static routes are skipped. Routes with parameters,
+ * wildcards, regular expressions or without a path are always selected.
+ * <p>
+ * Routes of any HTTP method are kept under the same path, a route that matches the path but not the method must still
+ * be visited as it turns a {@code 404} into a {@code 405}. These routes fail fast, before any pattern is evaluated.
+ */
+final class ExactPathIndex extends RouteIndex {
+
+  private final BitSet always;
+  private final Map<String, int[]> exact = new HashMap<>();
+
+  ExactPathIndex(Set<RouteImpl> routes) {
+    super(routes);
+    this.always = new BitSet(this.routes.length);
+
+    for (int i = 0; i < this.routes.length; i++) {
+      final RouteState state = this.routes[i].state();
+      if (isExactStaticPath(state)) {
+        final int ordinal = i;
+        exact.compute(key(state.getPath()), (k, ordinals) -> {
+          if (ordinals == null) {
+            return new int[]{ordinal};
+          }
+          final int[] copy = Arrays.copyOf(ordinals, ordinals.length + 1);
+          copy[ordinals.length] = ordinal;
+          return copy;
+        });
+      } else {
+        always.set(i);
+      }
+    }
+  }
+
+  @Override
+  BitSet candidates(RoutingContextImplBase context) {
+    final BitSet candidates = (BitSet) always.clone();
+    if (exact.isEmpty()) {
+      return candidates;
+    }
+
+    final String path = relativePath(context);
+    if (path == null) {
+      // nothing can be skipped, the matching algorithm will take care of the request
+      candidates.set(0, routes.length);
+    } else {
+      final int[] ordinals = exact.get(key(path));
+      if (ordinals != null) {
+        for (int ordinal : ordinals) {
+          candidates.set(ordinal);
+        }
+      }
+    }
+    return candidates;
+  }
+
+  private static String key(String path) {
+    // exact paths match with or without the trailing slash
+    final int len = path.length();
+    if (len > 1 && path.charAt(len - 1) == '/') {
+      return path.substring(0, len - 1);
+    }
+    return path;
+  }
+}
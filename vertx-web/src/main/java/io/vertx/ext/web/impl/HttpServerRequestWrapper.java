@@ -29,6 +29,7 @@ class HttpServerRequestWrapper implements HttpServerRequestInternal {
 
   private final HttpServerRequestInternal delegate;
   private final ForwardedParser forwardedParser;
+  private final PathParams pathParams;
 
   private boolean modified;
 
@@ -39,12 +40,19 @@ class HttpServerRequestWrapper implements HttpServerRequestInternal {
   private String absoluteURI;
   private MultiMap params;
 
-  HttpServerRequestWrapper(HttpServerRequest request, AllowForwardHeaders allowForward) {
+  HttpServerRequestWrapper(HttpServerRequest request, AllowForwardHeaders allowForward, PathParams pathParams) {
     delegate = (HttpServerRequestInternal) request;
     forwardedParser = new ForwardedParser(delegate, allowForward);
+    this.pathParams = pathParams;
   }
 
   void changeTo(HttpMethod method, String uri) {
+    // path params captured so far belong to the current params
+    if (modified && params != null) {
+      pathParams.mergeInto(params);
+    } else {
+      pathParams.clearPending();
+    }
     modified = true;
     this.method = method;
     this.uri = uri;
@@ -172,6 +180,13 @@ class HttpServerRequestWrapper implements HttpServerRequestInternal {
 
   @Override
   public MultiMap params() {
+    final MultiMap params = requestParams();
+    // path params captured by the router are added on first read
+    pathParams.mergeInto(params);
+    return params;
+  }
+
+  private MultiMap requestParams() {
     if (!modified) {
       return delegate.params();
     }
@@ -194,7 +209,7 @@ class HttpServerRequestWrapper implements HttpServerRequestInternal {
 
   @Override
   public String getParam(String param) {
-    if (!modified) {
+    if (!modified && !pathParams.hasPending()) {
       return delegate.getParam(param);
     }
 
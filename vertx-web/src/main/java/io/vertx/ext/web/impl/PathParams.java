@@ -0,0 +1,258 @@
+/*
+ * Copyright 2022 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.impl;
+
+import io.vertx.core.MultiMap;
+import io.vertx.core.net.impl.URIDecoder;
+
+import java.util.*;
+
+/**
+ * The path parameters of a routing context. Parameters captured by the router are kept as offsets into the request
+ * path, the value is only extracted and decoded when it is read.
+ * <p>
+ * Captured parameters are also added to the request params (unless a query param with the same name exists), this is
+ * deferred until the request params are read, see {@link #mergeInto(MultiMap)}.
+ * <p>
+ * This class is not thread-safe, like the routing context it belongs to.
+ */
+final class PathParams extends AbstractMap<String, String> {
+
+  private Map<String, Object> params;
+  // captured params not yet added to the request params
+  private List<Object> pending;
+
+  /**
+   * Captures a parameter from the request path, the value will be URI decoded and added to the request params.
+   *
+   * @throws IllegalArgumentException if the value contains an invalid escape sequence.
+   */
+  void capture(String name, String path, int start, int end) {
+    final Slice slice = new Slice(path, start, end, true);
+    params().put(name, slice);
+    if (pending == null) {
+      pending = new ArrayList<>(4);
+    }
+    pending.add(name);
+    pending.add(slice);
+  }
+
+  /**
+   * Puts a parameter from the request path, the value is not added to the request params.
+   *
+   * @throws IllegalArgumentException if {@code decode} is {@code true} and the value contains an invalid escape sequence.
+   */
+  void put(String name, String path, int start, int end, boolean decode) {
+    params().put(name, new Slice(path, start, end, decode));
+  }
+
+  boolean hasPending() {
+    return pending != null && !pending.isEmpty();
+  }
+
+  /**
+   * Adds the captured params to the given request params, a param is only added if the request params do not contain it
+   * already.
+   */
+  void mergeInto(MultiMap requestParams) {
+    if (hasPending()) {
+      for (int i = 0; i < pending.size(); i += 2) {
+        final String name = (String) pending.get(i);
+        if (!requestParams.contains(name)) {
+          requestParams.add(name, ((Slice) pending.get(i + 1)).value());
+        }
+      }
+      pending.clear();
+    }
+  }
+
+  /**
+   * Drops the captured params not yet added to the request params.
+   */
+  void clearPending() {
+    if (pending != null) {
+      pending.clear();
+    }
+  }
+
+  @Override
+  public String get(Object key) {
+    if (params == null) {
+      return null;
+    }
+    return value(params.get(key));
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return params != null && params.containsKey(key);
+  }
+
+  @Override
+  public String put(String key, String value) {
+    return value(params().put(key, value));
+  }
+
+  @Override
+  public String remove(Object key) {
+    if (params == null) {
+      return null;
+    }
+    return value(params.remove(key));
+  }
+
+  @Override
+  public int size() {
+    return params == null ? 0 : params.size();
+  }
+
+  @Override
+  public void clear() {
+    if (params != null) {
+      params.clear();
+    }
+  }
+
+  @Override
+  public Set<Map.Entry<String, String>> entrySet() {
+    return new AbstractSet<Map.Entry<String, String>>() {
+      @Override
+      public Iterator<Map.Entry<String, String>> iterator() {
+        final Iterator<Map.Entry<String, Object>> it = params().entrySet().iterator();
+        return new Iterator<Map.Entry<String, String>>() {
+          @Override
+          public boolean hasNext() {
+            return it.hasNext();
+          }
+
+          @Override
+          public Map.Entry<String, String> next() {
+            return new Entry(it.next());
+          }
+
+          @Override
+          public void remove() {
+            it.remove();
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return PathParams.this.size();
+      }
+    };
+  }
+
+  private Map<String, Object> params() {
+    if (params == null) {
+      params = new HashMap<>();
+    }
+    return params;
+  }
+
+  private static String value(Object value) {
+    if (value instanceof Slice) {
+      return ((Slice) value).value();
+    }
+    return (String) value;
+  }
+
+  private static final class Entry implements Map.Entry<String, String> {
+
+    private final Map.Entry<String, Object> entry;
+
+    Entry(Map.Entry<String, Object> entry) {
+      this.entry = entry;
+    }
+
+    @Override
+    public String getKey() {
+      return entry.getKey();
+    }
+
+    @Override
+    public String getValue() {
+      return value(entry.getValue());
+    }
+
+    @Override
+    public String setValue(String value) {
+      return value(entry.setValue(value));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Map.Entry)) {
+        return false;
+      }
+      final Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+      return Objects.equals(getKey(), e.getKey()) && Objects.equals(getValue(), e.getValue());
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(getKey()) ^ Objects.hashCode(getValue());
+    }
+
+    @Override
+    public String toString() {
+      return getKey() + "=" + getValue();
+    }
+  }
+
+  private static final class Slice {
+
+    private final String path;
+    private final int start;
+    private final int end;
+    private final boolean decode;
+    private String value;
+
+    Slice(String path, int start, int end, boolean decode) {
+      if (decode) {
+        checkEscapes(path, start, end);
+      }
+      this.path = path;
+      this.start = start;
+      this.end = end;
+      this.decode = decode;
+    }
+
+    String value() {
+      if (value == null) {
+        final String raw = path.substring(start, end);
+        value = decode ? URIDecoder.decodeURIComponent(raw, false) : raw;
+      }
+      return value;
+    }
+
+    /**
+     * Validates the escape sequences without decoding, so an invalid path fails while routing as it would if the value
+     * was decoded eagerly.
+     */
+    private static void checkEscapes(String path, int start, int end) {
+      for (int i = start; i < end; i++) {
+        if (path.charAt(i) == '%') {
+          if (i + 2 >= end || Character.digit(path.charAt(i + 1), 16) == -1 || Character.digit(path.charAt(i + 2), 16) == -1) {
+            throw new IllegalArgumentException("Invalid escape sequence in path: " + path.substring(start, end));
+          }
+          i += 2;
+        }
+      }
+    }
+  }
+}
@@ -16,10 +16,16 @@
 package io.vertx.ext.web.impl;
 
 import io.vertx.codegen.annotations.Nullable;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
 import io.vertx.core.buffer.Buffer;
+import io.vertx.core.file.AsyncFile;
+import io.vertx.core.file.OpenOptions;
 import io.vertx.core.json.Json;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
+import io.vertx.core.streams.ReadStream;
 import io.vertx.ext.web.RequestBody;
 import io.vertx.ext.web.MIMEHeader;
 import io.vertx.ext.web.ParsedHeaderValues;
@@ -35,6 +41,10 @@ public class RequestBodyImpl implements RequestBody {
   private final RoutingContext ctx;
 
   private Buffer body;
+  // the body spooled to disk, loaded in memory only if read as a buffer
+  private String file;
+  private long fileLength;
+  private Future<Void> loading;
 
   // caches
   private String string;
@@ -47,14 +57,23 @@ public class RequestBodyImpl implements RequestBody {
 
   public void setBuffer(Buffer body) {
     this.body = body;
+    this.file = null;
+    this.loading = null;
     // reset caches
     string = null;
     jsonObject = null;
     jsonArray = null;
   }
 
+  public void setFile(String file, long length) {
+    setBuffer(null);
+    this.file = file;
+    this.fileLength = length;
+  }
+
   @Override
   public @Nullable String asString() {
+    final Buffer body = buffer();
     if (body == null) {
       return null;
     } else {
@@ -78,6 +97,7 @@ public class RequestBodyImpl implements RequestBody {
 
   @Override
   public @Nullable String asString(String encoding) {
+    final Buffer body = buffer();
     if (body == null) {
       return null;
     } else {
@@ -87,14 +107,14 @@ public class RequestBodyImpl implements RequestBody {
 
   @Override
   public @Nullable JsonObject asJsonObject(int maxAllowedLength) {
-    if (body == null) {
+    if (length() == -1) {
       return null;
     } else {
       if (jsonObject == null) {
-        if (maxAllowedLength >= 0 && body.length() > maxAllowedLength) {
+        if (maxAllowedLength >= 0 && length() > maxAllowedLength) {
           throw new IllegalStateException("RoutingContext body size exceeds the allowed limit");
         }
-        jsonObject = (JsonObject) Json.decodeValue(body);
+        jsonObject = (JsonObject) Json.decodeValue(buffer());
       }
       return jsonObject;
     }
@@ -102,14 +122,14 @@ public class RequestBodyImpl implements RequestBody {
 
   @Override
   public @Nullable JsonArray asJsonArray(int maxAllowedLength) {
-    if (body == null) {
+    if (length() == -1) {
       return null;
     } else {
       if (jsonArray == null) {
-        if (maxAllowedLength >= 0 && body.length() > maxAllowedLength) {
+        if (maxAllowedLength >= 0 && length() > maxAllowedLength) {
           throw new IllegalStateException("RoutingContext body size exceeds the allowed limit");
         }
-        jsonArray = (JsonArray) Json.decodeValue(body);
+        jsonArray = (JsonArray) Json.decodeValue(buffer());
       }
       return jsonArray;
     }
@@ -117,23 +137,64 @@ public class RequestBodyImpl implements RequestBody {
 
   @Override
   public <R> @Nullable R asPojo(Class<R> clazz, int maxAllowedLength) {
-    if (body == null) {
+    if (length() == -1) {
       return null;
     } else {
-      if (maxAllowedLength >= 0 && body.length() > maxAllowedLength) {
+      if (maxAllowedLength >= 0 && length() > maxAllowedLength) {
         throw new IllegalStateException("RoutingContext body size exceeds the allowed limit");
       }
-      return Json.decodeValue(body, clazz);
+      return Json.decodeValue(buffer(), clazz);
     }
   }
 
   @Override
   public @Nullable Buffer buffer() {
+    if (body == null && file != null) {
+      if (Context.isOnEventLoopThread()) {
+        throw new IllegalStateException("The body was spooled to disk, it must be loaded first");
+      }
+      // a blocking handler needs the whole body, the spooled file is loaded
+      body = ctx.vertx().fileSystem().readFileBlocking(file);
+    }
     return body;
   }
 
+  @Override
+  public Future<Void> load() {
+    if (body != null || file == null) {
+      return Future.succeededFuture();
+    }
+    if (loading == null) {
+      final String file = this.file;
+      loading = ctx.vertx().fileSystem()
+        .readFile(file)
+        .onSuccess(buffer -> {
+          // the body may have been replaced meanwhile
+          if (file == this.file) {
+            body = buffer;
+          }
+        })
+        .mapEmpty();
+    }
+    return loading;
+  }
+
+  @Override
+  public @Nullable ReadStream<Buffer> stream() {
+    if (body == null && file != null) {
+      return new FileReadStream(ctx, file);
+    }
+    if (body == null) {
+      return null;
+    }
+    return new BufferReadStream(ctx.vertx().getOrCreateContext(), body);
+  }
+
   @Override
   public int length() {
+    if (body == null && file != null) {
+      return (int) Math.min(fileLength, Integer.MAX_VALUE);
+    }
     if (body == null) {
       return -1;
     } else {
@@ -145,4 +206,208 @@ public class RequestBodyImpl implements RequestBody {
   public boolean available() {
     return ((RoutingContextInternal) ctx).seenHandler(RoutingContextInternal.BODY_HANDLER);
   }
+
+  /**
+   * A stream of a body spooled to disk, the file is opened without blocking and closed when the stream ends, fails or
+   * when the response ends. The demand is recorded until the file is opened.
+   */
+  private static final class FileReadStream implements ReadStream<Buffer> {
+
+    private final RoutingContext ctx;
+    private final int endHandlerId;
+    private AsyncFile file;
+    private boolean closed;
+    private long demand = Long.MAX_VALUE;
+    private Handler<Buffer> handler;
+    private Handler<Void> endHandler;
+    private Handler<Throwable> exceptionHandler;
+
+    FileReadStream(RoutingContext ctx, String path) {
+      this.ctx = ctx;
+      this.endHandlerId = ctx.addEndHandler(v -> close());
+      ctx.vertx().fileSystem().open(path, new OpenOptions().setRead(true).setWrite(false).setCreate(false), open -> {
+        if (open.failed()) {
+          release();
+          if (exceptionHandler != null) {
+            exceptionHandler.handle(open.cause());
+          }
+          return;
+        }
+        file = open.result();
+        if (closed) {
+          // the response ended while opening
+          file.close();
+          return;
+        }
+        file.exceptionHandler(t -> {
+          release();
+          if (exceptionHandler != null) {
+            exceptionHandler.handle(t);
+          }
+        });
+        file.endHandler(v -> {
+          release();
+          if (endHandler != null) {
+            endHandler.handle(null);
+          }
+        });
+        if (demand != Long.MAX_VALUE) {
+          file.pause();
+          file.fetch(demand);
+        }
+        file.handler(handler);
+      });
+    }
+
+    @Override
+    public ReadStream<Buffer> exceptionHandler(Handler<Throwable> handler) {
+      this.exceptionHandler = handler;
+      return this;
+    }
+
+    @Override
+    public ReadStream<Buffer> handler(Handler<Buffer> handler) {
+      this.handler = handler;
+      if (file != null && !closed) {
+        file.handler(handler);
+      }
+      return this;
+    }
+
+    @Override
+    public ReadStream<Buffer> pause() {
+      if (file != null) {
+        file.pause();
+      } else {
+        demand = 0;
+      }
+      return this;
+    }
+
+    @Override
+    public ReadStream<Buffer> resume() {
+      return fetch(Long.MAX_VALUE);
+    }
+
+    @Override
+    public ReadStream<Buffer> fetch(long amount) {
+      if (file != null) {
+        file.fetch(amount);
+      } else if (amount > 0) {
+        demand += amount;
+        if (demand < 0) {
+          demand = Long.MAX_VALUE;
+        }
+      }
+      return this;
+    }
+
+    @Override
+    public ReadStream<Buffer> endHandler(Handler<Void> endHandler) {
+      this.endHandler = endHandler;
+      return this;
+    }
+
+    private void release() {
+      ctx.removeEndHandler(endHandlerId);
+      close();
+    }
+
+    private void close() {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      if (file != null) {
+        file.close();
+      }
+    }
+  }
+
+  /**
+   * A stream of a body held in memory, the buffer is emitted once there is a demand.
+   */
+  private static final class BufferReadStream implements ReadStream<Buffer> {
+
+    private final Context context;
+    private Buffer buffer;
+    private long demand = Long.MAX_VALUE;
+    private Handler<Buffer> handler;
+    private Handler<Void> endHandler;
+    private boolean ended;
+
+    BufferReadStream(Context context, Buffer buffer) {
+      this.context = context;
+      this.buffer = buffer;
+    }
+
+    @Override
+    public ReadStream<Buffer> exceptionHandler(Handler<Throwable> handler) {
+      // never fails
+      return this;
+    }
+
+    @Override
+    public ReadStream<Buffer> handler(Handler<Buffer> handler) {
+      this.handler = handler;
+      schedule();
+      return this;
+    }
+
+    @Override
+    public ReadStream<Buffer> pause() {
+      demand = 0;
+      return this;
+    }
+
+    @Override
+    public ReadStream<Buffer> resume() {
+      return fetch(Long.MAX_VALUE);
+    }
+
+    @Override
+    public ReadStream<Buffer> fetch(long amount) {
+      if (amount > 0) {
+        demand += amount;
+        if (demand < 0) {
+          demand = Long.MAX_VALUE;
+        }
+        schedule();
+      }
+      return this;
+    }
+
+    @Override
+    public ReadStream<Buffer> endHandler(Handler<Void> endHandler) {
+      this.endHandler = endHandler;
+      return this;
+    }
+
+    private void schedule() {
+      // handlers are set before the stream emits
+      context.runOnContext(v -> emit());
+    }
+
+    private void emit() {
+      if (ended || handler == null || demand == 0) {
+        return;
+      }
+      if (buffer != null) {
+        final Buffer chunk = buffer;
+        buffer = null;
+        if (demand != Long.MAX_VALUE) {
+          demand--;
+        }
+        handler.handle(chunk);
+        if (demand == 0) {
+          // paused, the end is emitted by the next fetch
+          return;
+        }
+      }
+      ended = true;
+      if (endHandler != null) {
+        endHandler.handle(null);
+      }
+    }
+  }
 }
@@ -224,6 +224,7 @@ public class RouteImpl implements Route {
   @Override
   public synchronized Route useNormalizedPath(boolean useNormalizedPath) {
     state = state.setUseNormalizedPath(useNormalizedPath);
+    checkRefresh();
     return this;
   }
 
@@ -308,12 +309,14 @@ public class RouteImpl implements Route {
         throw new IllegalArgumentException("path param does not follow the variable naming rules, expected (" + params + ") found (" + found + ")");
       }
     }
+    checkRefresh();
   }
 
   private synchronized void setRegex(String regex) {
     state = state.setPattern(Pattern.compile(regex));
     state = state.setExactPath(true);
     findNamedGroups(state.getPattern().pattern());
+    checkRefresh();
   }
 
   private synchronized void findNamedGroups(String path) {
@@ -390,6 +393,13 @@ public class RouteImpl implements Route {
     }
   }
 
+  private synchronized void checkRefresh() {
+    // the router may have compiled the previous matching rules
+    if (state.isAdded()) {
+      router.refresh();
+    }
+  }
+
   public synchronized RouteImpl setEmptyBodyPermittedWithConsumes(boolean emptyBodyPermittedWithConsumes) {
     state = state.setEmptyBodyPermittedWithConsumes(emptyBodyPermittedWithConsumes);
     return this;
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2022 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.impl;
+
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Base class of the structures compiled from the routes of a router to select the routes that <em>may</em> match a
+ * request. An index never decides if a route matches, the selected routes are still verified with
+ * {@link RouteState#matches(RoutingContextImplBase, String, boolean)}, all the other routes are skipped.
+ * <p>
+ * Routes are identified by their ordinal in the router order, so iterating the selected ordinals keeps the route order
+ * and the resolution of the match failure status code.
+ * <p>
+ * Implementations must be immutable and thread-safe, a new index is compiled for each {@link RouterState}.
+ */
+abstract class RouteIndex {
+
+  protected final RouteImpl[] routes;
+
+  RouteIndex(Set<RouteImpl> routes) {
+    this(routes.toArray(new RouteImpl[0]));
+  }
+
+  RouteIndex(RouteImpl[] routes) {
+    this.routes = routes;
+  }
+
+  /**
+   * @return the ordinals of the routes that may match the given context.
+   */
+  abstract BitSet candidates(RoutingContextImplBase context);
+
+  /**
+   * @return an index selecting all the routes.
+   */
+  static RouteIndex all(Set<RouteImpl> routes) {
+    return new RouteIndex(routes) {
+      @Override
+      BitSet candidates(RoutingContextImplBase context) {
+        final BitSet candidates = new BitSet(this.routes.length);
+        candidates.set(0, this.routes.length);
+        return candidates;
+      }
+    };
+  }
+
+  /**
+   * Creates a lazy iterator of the routes that may match the given context. The request path is only read on the
+   * first call to {@link Iterator#hasNext()} as the context may not be fully initialized yet.
+   */
+  Iterator<RouteImpl> iterator(RoutingContextImplBase context) {
+    return new Iterator<RouteImpl>() {
+
+      private BitSet candidates;
+      private int next;
+
+      @Override
+      public boolean hasNext() {
+        if (candidates == null) {
+          candidates = candidates(context);
+          next = candidates.nextSetBit(0);
+        }
+        return next != -1;
+      }
+
+      @Override
+      public RouteImpl next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        final RouteImpl route = routes[next];
+        next = candidates.nextSetBit(next + 1);
+        return route;
+      }
+    };
+  }
+
+  /**
+   * @return {@code true} when the route only matches a static path, with or without the trailing slash.
+   */
+  static boolean isExactStaticPath(RouteState state) {
+    return state.getPath() != null && state.getPattern() == null && state.isExactPath() && state.isUseNormalizedPath();
+  }
+
+  /**
+   * Computes the normalized request path relative to the mount point of the context.
+   *
+   * @return the relative path or {@code null} when it can't be computed and no route can be skipped.
+   */
+  static String relativePath(RoutingContextImplBase context) {
+    final String requestPath = context.request().path();
+
+    if (requestPath == null || requestPath.length() == 0 || requestPath.charAt(0) != '/') {
+      // invalid paths are handled by the failure routing
+      return null;
+    }
+
+    final String path;
+    try {
+      path = context.normalizedPath();
+    } catch (IllegalArgumentException e) {
+      // the same error will be reported by the match algorithm
+      return null;
+    }
+
+    final String mountPoint = context.mountPoint();
+    if (mountPoint == null) {
+      return path;
+    }
+
+    int strip = mountPoint.length();
+    // mount point can have significant slash
+    if (mountPoint.charAt(strip - 1) == '/') {
+      strip--;
+    }
+    if (!path.regionMatches(0, mountPoint, 0, strip)) {
+      return null;
+    }
+    if (path.length() == strip) {
+      return "/";
+    }
+    if (path.charAt(strip) != '/') {
+      // a sub router mounted on "/foo" is handling "/foobar"
+      return null;
+    }
+    return path.substring(strip);
+  }
+}
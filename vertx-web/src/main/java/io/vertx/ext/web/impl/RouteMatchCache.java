@@ -0,0 +1,106 @@
+/*
+ * Copyright 2022 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.impl;
+
+import java.util.BitSet;
+import java.util.Objects;
+
+/**
+ * Caches the routes whose path matches a request, keyed on the mount point and the normalized request path. On a miss
+ * the candidates of the wrapped index are checked with {@link RouteState#pathMatches(String, String)} and only the
+ * routes matching the path are kept, so for a cached path the regular expressions of the other routes are never
+ * evaluated again.
+ * <p>
+ * Only the path is cached, the method, headers (consumes, produces, virtual host) and params are still verified and
+ * extracted by {@link RouteState#matches(RoutingContextImplBase, String, boolean)} as they depend on the request.
+ * Routes matching the raw request path are always selected.
+ * <p>
+ * A cache belongs to a {@link RouterState} and is discarded with it when the router or its routes change.
+ */
+final class RouteMatchCache extends RouteIndex {
+
+  private final RouteIndex index;
+  private final BitSet raw;
+  private final ConcurrentLRUCache<Key, BitSet> cache;
+
+  RouteMatchCache(RouteIndex index, int maxSize) {
+    super(index.routes);
+    this.index = index;
+    this.raw = new BitSet(routes.length);
+    this.cache = new ConcurrentLRUCache<>(maxSize);
+
+    for (int i = 0; i < routes.length; i++) {
+      if (!routes[i].state().isUseNormalizedPath()) {
+        raw.set(i);
+      }
+    }
+  }
+
+  @Override
+  BitSet candidates(RoutingContextImplBase context) {
+    if (relativePath(context) == null) {
+      // invalid paths or a path outside the mount point, nothing worth caching
+      return index.candidates(context);
+    }
+
+    final String mountPoint = context.mountPoint();
+    final String path = context.normalizedPath();
+    final Key key = new Key(mountPoint, path);
+
+    BitSet candidates = cache.get(key);
+    if (candidates == null) {
+      candidates = index.candidates(context);
+      for (int i = candidates.nextSetBit(0); i != -1; i = candidates.nextSetBit(i + 1)) {
+        if (!raw.get(i) && !routes[i].state().pathMatches(mountPoint, path)) {
+          candidates.clear(i);
+        }
+      }
+      // the cached set is shared and never modified
+      cache.put(key, candidates);
+    }
+    return candidates;
+  }
+
+  private static final class Key {
+
+    private final String mountPoint;
+    private final String path;
+    private final int hash;
+
+    Key(String mountPoint, String path) {
+      this.mountPoint = mountPoint;
+      this.path = path;
+      this.hash = 31 * Objects.hashCode(mountPoint) + path.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      final Key other = (Key) o;
+      return path.equals(other.path) && Objects.equals(mountPoint, other.mountPoint);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+}
@@ -40,6 +40,15 @@ final class RouteState {
 
   private static final Logger LOG = LoggerFactory.getLogger(RouteState.class);
 
+  // names of the un-named regex params
+  private static final String[] PARAM_NAMES = new String[16];
+
+  static {
+    for (int i = 0; i < PARAM_NAMES.length; i++) {
+      PARAM_NAMES[i] = "param" + i;
+    }
+  }
+
 
   enum Priority {
     PLATFORM,
@@ -104,6 +113,11 @@ final class RouteState {
   private final boolean pathEndsWithSlash;
   private final boolean exclusive;
   private final boolean exactPath;
+  // capture groups, computed from the pattern so matching doesn't need to look them up by name
+  private final int restGroup;
+  private final int[] groupIndexes;
+  private final String[] namedGroups;
+  private final int[] namedGroupIndexes;
 
   private RouteState(RouteImpl route, Map<String, Object> metadata, String path, String name, int order, boolean enabled, Set<HttpMethod> methods, Set<MIMEHeader> consumes, boolean emptyBodyPermittedWithConsumes, Set<MIMEHeader> produces, List<Handler<RoutingContext>> contextHandlers, List<Handler<RoutingContext>> failureHandlers, boolean added, Pattern pattern, List<String> groups, boolean useNormalizedPath, Set<String> namedGroupsInRegex, Pattern virtualHostPattern, boolean pathEndsWithSlash, boolean exclusive, boolean exactPath) {
     this.route = route;
@@ -127,6 +141,27 @@ final class RouteState {
     this.pathEndsWithSlash = pathEndsWithSlash;
     this.exclusive = exclusive;
     this.exactPath = exactPath;
+
+    final Map<String, Integer> captureGroups = pattern == null ? null : captureGroups(pattern);
+    if (captureGroups != null) {
+      this.restGroup = captureGroups.getOrDefault("rest", -1);
+      this.groupIndexes = groupIndexes(captureGroups, groups, pattern.matcher("").groupCount());
+      if (isEmpty(namedGroupsInRegex)) {
+        this.namedGroups = null;
+        this.namedGroupIndexes = null;
+      } else {
+        this.namedGroups = namedGroupsInRegex.toArray(new String[0]);
+        this.namedGroupIndexes = new int[namedGroups.length];
+        for (int i = 0; i < namedGroups.length; i++) {
+          namedGroupIndexes[i] = captureGroups.getOrDefault(namedGroups[i], -1);
+        }
+      }
+    } else {
+      this.restGroup = -1;
+      this.groupIndexes = null;
+      this.namedGroups = null;
+      this.namedGroupIndexes = null;
+    }
   }
 
   RouteState(RouteImpl route, int order) {
@@ -999,11 +1034,14 @@ final class RouteState {
       return 404;
     }
     if (pattern != null) {
-      // need to reset "rest"
+      // need to reset "rest": a pattern without a rest group, or not matching, must not expose the rest of a route
+      // matched before. This is a plain map lookup, nothing is allocated when there is no param.
       context.pathParams()
         .remove("*");
 
-      String path = useNormalizedPath ? context.normalizedPath() : context.request().path();
+      final String path = useNormalizedPath ? context.normalizedPath() : context.request().path();
+      // the path is never copied, the mount point is skipped with a region
+      int offset = 0;
 
       if (mountPoint != null) {
         int strip = mountPoint.length();
@@ -1012,12 +1050,12 @@ final class RouteState {
           strip--;
         }
         if (path != null) {
-          path = path.substring(strip);
+          offset = strip;
         }
       }
 
       Matcher m;
-      if (path != null && (m = pattern.matcher(path)).matches()) {
+      if (path != null && (m = pattern.matcher(path).region(offset, path.length())).matches()) {
         if (!isEmpty(methods) && !containsMethod(request)) {
           // If I'm here path or path pattern matches, but the method is wrong
           return 405;
@@ -1028,53 +1066,74 @@ final class RouteState {
 
         if (m.groupCount() > 0) {
           if (!exactPath) {
-            context.matchRest = m.start("rest");
+            // offsets are relative to the mount point
+            context.matchRest = (restGroup != -1 ? m.start(restGroup) : m.start("rest")) - offset;
             // always replace
-            context.pathParams()
-              .put("*", path.substring(context.matchRest));
+            putPathParam(context, "*", path, offset + context.matchRest, path.length(), false);
           }
 
           if (!isEmpty(groups)) {
             // Pattern - named params
             // decode the path as it could contain escaped chars.
-            final int len = Math.min(groups.size(), m.groupCount());
-            for (int i = 0; i < len; i++) {
-              final String k = groups.get(i);
-              String undecodedValue;
-              // We try to take value in three ways:
-              // 1. group name of type p0, p1, pN (most frequent and used by vertx params)
-              // 2. group name inside the regex
-              // 3. No group name
-              try {
-                undecodedValue = m.group("p" + i);
-              } catch (IllegalArgumentException e) {
-                try {
-                  undecodedValue = m.group(k);
-                } catch (IllegalArgumentException e1) {
-                  // Groups starts from 1 (0 group is total match)
-                  undecodedValue = m.group(i + 1);
+            if (groupIndexes != null) {
+              for (int i = 0; i < groupIndexes.length; i++) {
+                final int group = groupIndexes[i];
+                if (m.start(group) != -1) {
+                  addPathParam(context, groups.get(i), path, m.start(group), m.end(group));
                 }
               }
-              if (undecodedValue != null) {
-                addPathParam(context, k, undecodedValue);
+            } else {
+              final int len = Math.min(groups.size(), m.groupCount());
+              for (int i = 0; i < len; i++) {
+                final String k = groups.get(i);
+                String undecodedValue;
+                // We try to take value in three ways:
+                // 1. group name of type p0, p1, pN (most frequent and used by vertx params)
+                // 2. group name inside the regex
+                // 3. No group name
+                try {
+                  undecodedValue = m.group("p" + i);
+                } catch (IllegalArgumentException e) {
+                  try {
+                    undecodedValue = m.group(k);
+                  } catch (IllegalArgumentException e1) {
+                    // Groups starts from 1 (0 group is total match)
+                    undecodedValue = m.group(i + 1);
+                  }
+                }
+                if (undecodedValue != null) {
+                  addPathParam(context, k, undecodedValue, 0, undecodedValue.length());
+                }
               }
             }
           } else {
             // Straight regex - un-named params
             // decode the path as it could contain escaped chars.
-            if (!isEmpty(namedGroupsInRegex)) {
+            if (namedGroups != null) {
+              for (int i = 0; i < namedGroups.length; i++) {
+                final int group = namedGroupIndexes[i];
+                if (group != -1) {
+                  if (m.start(group) != -1) {
+                    addPathParam(context, namedGroups[i], path, m.start(group), m.end(group));
+                  }
+                } else {
+                  String namedGroupValue = m.group(namedGroups[i]);
+                  if (namedGroupValue != null) {
+                    addPathParam(context, namedGroups[i], namedGroupValue, 0, namedGroupValue.length());
+                  }
+                }
+              }
+            } else if (!isEmpty(namedGroupsInRegex)) {
               for (String namedGroup : namedGroupsInRegex) {
                 String namedGroupValue = m.group(namedGroup);
                 if (namedGroupValue != null) {
-                  addPathParam(context, namedGroup, namedGroupValue);
+                  addPathParam(context, namedGroup, namedGroupValue, 0, namedGroupValue.length());
                 }
               }
             }
             for (int i = 0; i < m.groupCount(); i++) {
-              String group = m.group(i + 1);
-              if (group != null) {
-                final String k = "param" + i;
-                addPathParam(context, k, group);
+              if (m.start(i + 1) != -1) {
+                addPathParam(context, paramName(i), path, m.start(i + 1), m.end(i + 1));
               }
             }
           }
@@ -1120,6 +1179,64 @@ final class RouteState {
   }
 
   private boolean pathMatches(String mountPoint, RoutingContext ctx) {
+    String requestPath;
+
+    if (useNormalizedPath) {
+      // never null
+      requestPath = ctx.normalizedPath();
+    } else {
+      requestPath = ctx.request().path();
+      // can be null
+      if (requestPath == null) {
+        requestPath = "/";
+      }
+    }
+
+    final int rest = pathMatch(mountPoint, requestPath);
+
+    if (exactPath) {
+      // exact path has no "rest"
+      ctx.pathParams()
+        .remove("*");
+    } else if (rest > requestPath.length()) {
+      // handle the "rest" as path param *, always known to be empty
+      ctx.pathParams()
+        .put("*", "/");
+    } else if (rest != -1) {
+      // handle the "rest" as path param *
+      putPathParam(ctx, "*", requestPath, rest, requestPath.length(), true);
+    }
+
+    return rest != -1;
+  }
+
+  /**
+   * Side effect free check of the path of this route against the normalized request path, neither the method nor the
+   * headers are verified and no param is extracted. Only meaningful for routes using the normalized path.
+   */
+  boolean pathMatches(String mountPoint, String normalizedPath) {
+    if (pattern != null) {
+      int offset = 0;
+      if (mountPoint != null) {
+        offset = mountPoint.length();
+        // mount point can have significant slash
+        if (mountPoint.charAt(offset - 1) == '/') {
+          offset--;
+        }
+      }
+      return pattern.matcher(normalizedPath).region(offset, normalizedPath.length()).matches();
+    }
+    if (path != null) {
+      return pathMatch(mountPoint, normalizedPath) != -1;
+    }
+    return true;
+  }
+
+  /**
+   * @return {@code -1} when the request path doesn't match, otherwise the start of the "rest" of the request path, past
+   * the end of the request path when the request only misses the final slash of the route path.
+   */
+  private int pathMatch(String mountPoint, String requestPath) {
     final boolean rootRouter = mountPoint == null;
     final boolean pathEndsWithSlash;
     final String thePath;
@@ -1147,25 +1264,8 @@ final class RouteState {
       }
     }
 
-    String requestPath;
-
-    if (useNormalizedPath) {
-      // never null
-      requestPath = ctx.normalizedPath();
-    } else {
-      requestPath = ctx.request().path();
-      // can be null
-      if (requestPath == null) {
-        requestPath = "/";
-      }
-    }
-
     if (exactPath) {
-      // exact path has no "rest"
-      ctx.pathParams()
-        .remove("*");
-
-      return pathMatchesExact(thePath, requestPath, pathEndsWithSlash);
+      return pathMatchesExact(thePath, requestPath, pathEndsWithSlash) ? requestPath.length() : -1;
     } else {
       if (pathEndsWithSlash) {
         // the route expects a path that ends in "/*". This is a special case
@@ -1176,28 +1276,22 @@ final class RouteState {
 
         if (reqLen < pathLen - 2) {
           // we miss at least 2 characters
-          return false;
+          return -1;
         }
 
         if (reqLen == pathLen - 1) {
           // request misses 1 character, there is the chance that this request doesn't include the final slash
           // because the mount path ended with a wildcard we are relaxed in the check
           if (thePath.regionMatches(0, requestPath, 0, pathLen - 1)) {
-            // handle the "rest" as path param *, always known to be empty
-            ctx.pathParams()
-              .put("*", "/");
-            return true;
+            return pathLen;
           }
         }
       }
 
       if (requestPath.startsWith(thePath)) {
-        // handle the "rest" as path param *
-        ctx.pathParams()
-          .put("*", URIDecoder.decodeURIComponent(requestPath.substring(thePath.length()), false));
-        return true;
+        return thePath.length();
       }
-      return false;
+      return -1;
     }
   }
 
@@ -1261,13 +1355,103 @@ final class RouteState {
     return other.regionMatches(0, base, 0, len);
   }
 
-  private void addPathParam(RoutingContext context, String name, String value) {
+  private void addPathParam(RoutingContext context, String name, String path, int start, int end) {
+    final Map<String, String> pathParams = context.pathParams();
+    if (pathParams instanceof PathParams) {
+      // decoding and adding to the request params is deferred until the value is read
+      ((PathParams) pathParams).capture(name, path, start, end);
+      return;
+    }
     HttpServerRequest request = context.request();
-    final String decodedValue = URIDecoder.decodeURIComponent(value, false);
+    final String decodedValue = URIDecoder.decodeURIComponent(path.substring(start, end), false);
     if (!request.params().contains(name)) {
       request.params().add(name, decodedValue);
     }
-    context.pathParams().put(name, decodedValue);
+    pathParams.put(name, decodedValue);
+  }
+
+  private static void putPathParam(RoutingContext context, String name, String path, int start, int end, boolean decode) {
+    final Map<String, String> pathParams = context.pathParams();
+    if (pathParams instanceof PathParams) {
+      ((PathParams) pathParams).put(name, path, start, end, decode);
+      return;
+    }
+    final String value = path.substring(start, end);
+    pathParams.put(name, decode ? URIDecoder.decodeURIComponent(value, false) : value);
+  }
+
+  private static String paramName(int index) {
+    if (index < PARAM_NAMES.length) {
+      return PARAM_NAMES[index];
+    }
+    return "param" + index;
+  }
+
+  /**
+   * Computes the index of the named capture groups of a pattern.
+   *
+   * @return the group index by name or {@code null} if the pattern can't be analysed.
+   */
+  private static Map<String, Integer> captureGroups(Pattern pattern) {
+    final String regex = pattern.pattern();
+    final int len = regex.length();
+    final Map<String, Integer> groups = new HashMap<>();
+    int count = 0;
+    int classDepth = 0;
+
+    for (int i = 0; i < len; i++) {
+      final char c = regex.charAt(i);
+      if (c == '\\') {
+        if (i + 1 < len && regex.charAt(i + 1) == 'Q') {
+          // quoted sequence
+          final int end = regex.indexOf("\\E", i + 2);
+          if (end == -1) {
+            break;
+          }
+          i = end + 1;
+        } else {
+          i++;
+        }
+      } else if (c == '[') {
+        classDepth++;
+      } else if (c == ']' && classDepth > 0) {
+        classDepth--;
+      } else if (c == '(' && classDepth == 0) {
+        if (i + 1 < len && regex.charAt(i + 1) == '?') {
+          // named group, but not a look behind
+          if (i + 3 < len && regex.charAt(i + 2) == '<' && regex.charAt(i + 3) != '=' && regex.charAt(i + 3) != '!') {
+            final int end = regex.indexOf('>', i + 3);
+            if (end == -1) {
+              return null;
+            }
+            groups.put(regex.substring(i + 3, end), ++count);
+          }
+        } else {
+          count++;
+        }
+      }
+    }
+    // the pattern flags (e.g.: comments) may change the groups, do not guess
+    if (count != pattern.matcher("").groupCount()) {
+      return null;
+    }
+    return groups;
+  }
+
+  private static int[] groupIndexes(Map<String, Integer> captureGroups, List<String> groups, int groupCount) {
+    if (isEmpty(groups)) {
+      return null;
+    }
+    final int[] indexes = new int[Math.min(groups.size(), groupCount)];
+    for (int i = 0; i < indexes.length; i++) {
+      // same lookup order as the p0, p1, pN names, the group name inside the regex and finally no group name
+      Integer index = captureGroups.get("p" + i);
+      if (index == null) {
+        index = captureGroups.get(groups.get(i));
+      }
+      indexes[i] = index != null ? index : i + 1;
+    }
+    return indexes;
   }
 
   boolean hasNextContextHandler(RoutingContextImplBase context) {
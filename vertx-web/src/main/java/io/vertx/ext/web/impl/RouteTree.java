@@ -0,0 +1,179 @@
+/*
+ * Copyright 2022 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.impl;
+
+import java.util.*;
+
+/**
+ * A prefix tree of the routes of a router, keyed on the path segments. Static segments are looked up by value and
+ * {@code :param} segments match any non empty segment.
+ * <p>
+ * Routes that cannot be indexed (regular expressions, routes without a path or routes that match the raw path) are
+ * always selected.
+ */
+final class RouteTree extends RouteIndex {
+
+  // regular expression operators that are not escaped when a path with parameters is compiled to a pattern
+  private static final String RE_OPERATORS = "*?[]{}|^\\";
+
+  private final BitSet always;
+  private final Node root = new Node();
+
+  RouteTree(Set<RouteImpl> routes) {
+    super(routes);
+    this.always = new BitSet(this.routes.length);
+
+    for (int i = 0; i < this.routes.length; i++) {
+      add(i, this.routes[i].state());
+    }
+  }
+
+  private void add(int ordinal, RouteState state) {
+    final String path = state.getPath();
+
+    if (path == null || !state.isUseNormalizedPath() || (state.getPattern() != null && !isLiteral(path))) {
+      // regex routes, routes without path and routes matching the raw request path can't be indexed
+      always.set(ordinal);
+      return;
+    }
+
+    Node node = root;
+    if (state.isExactPath()) {
+      for (String segment : segments(path, true)) {
+        node = node.child(segment);
+      }
+      node.exact = append(node.exact, ordinal);
+    } else {
+      // the last segment is a prefix, "/foo*" matches "/foobar" so it is registered on the parent node
+      final List<String> segments = segments(path, false);
+      for (int i = 0; i < segments.size() - 1; i++) {
+        node = node.child(segments.get(i));
+      }
+      node.prefix = append(node.prefix, ordinal);
+    }
+  }
+
+  @Override
+  BitSet candidates(RoutingContextImplBase context) {
+    final BitSet candidates = (BitSet) always.clone();
+    final String path = relativePath(context);
+
+    if (path == null) {
+      // nothing can be skipped, the matching algorithm will take care of the request
+      candidates.set(0, routes.length);
+    } else {
+      collect(root, segments(path, true), 0, candidates);
+    }
+    return candidates;
+  }
+
+  private static void collect(Node node, List<String> segments, int index, BitSet candidates) {
+    set(candidates, node.prefix);
+
+    if (index == segments.size()) {
+      set(candidates, node.exact);
+      return;
+    }
+
+    final String segment = segments.get(index);
+    if (node.children != null) {
+      final Node child = node.children.get(segment);
+      if (child != null) {
+        collect(child, segments, index + 1, candidates);
+      }
+    }
+    // parameters are never empty
+    if (node.param != null && segment.length() > 0) {
+      collect(node.param, segments, index + 1, candidates);
+    }
+  }
+
+  /**
+   * Splits a path in segments, the leading slash is ignored, when {@code ignoreTrailingSlash} is {@code true} a single
+   * trailing slash is also ignored as exact routes match with and without it.
+   */
+  private static List<String> segments(String path, boolean ignoreTrailingSlash) {
+    int end = path.length();
+    if (ignoreTrailingSlash && end > 1 && path.charAt(end - 1) == '/') {
+      end--;
+    }
+
+    final List<String> segments = new ArrayList<>();
+    if (end <= 1 && ignoreTrailingSlash) {
+      // root
+      return segments;
+    }
+
+    int start = 1;
+    for (int i = 1; i < end; i++) {
+      if (path.charAt(i) == '/') {
+        segments.add(path.substring(start, i));
+        start = i + 1;
+      }
+    }
+    segments.add(path.substring(start, end));
+    return segments;
+  }
+
+  private static boolean isLiteral(String path) {
+    for (int i = 0; i < path.length(); i++) {
+      if (RE_OPERATORS.indexOf(path.charAt(i)) != -1) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static int[] append(int[] ordinals, int ordinal) {
+    if (ordinals == null) {
+      return new int[]{ordinal};
+    }
+    final int[] copy = Arrays.copyOf(ordinals, ordinals.length + 1);
+    copy[ordinals.length] = ordinal;
+    return copy;
+  }
+
+  private static void set(BitSet candidates, int[] ordinals) {
+    if (ordinals != null) {
+      for (int ordinal : ordinals) {
+        candidates.set(ordinal);
+      }
+    }
+  }
+
+  private static final class Node {
+
+    Map<String, Node> children;
+    Node param;
+    // routes ending on this node
+    int[] exact;
+    // routes matching any path starting on this node
+    int[] prefix;
+
+    Node child(String segment) {
+      if (segment.indexOf(':') != -1) {
+        if (param == null) {
+          param = new Node();
+        }
+        return param;
+      }
+      if (children == null) {
+        children = new HashMap<>();
+      }
+      return children.computeIfAbsent(segment, k -> new Node());
+    }
+  }
+}
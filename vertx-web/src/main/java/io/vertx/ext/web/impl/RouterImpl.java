@@ -65,7 +65,7 @@ public class RouterImpl implements Router {
       LOG.trace("Router: " + System.identityHashCode(this) + " accepting request " + request.method() + " " + request.absoluteURI());
     }
 
-    new RoutingContextImpl(null, this, request, state.getRoutes()).next();
+    new RoutingContextImpl(null, this, request, state).next();
   }
 
   @Override
@@ -247,13 +247,13 @@ public class RouterImpl implements Router {
   @Override
   public void handleContext(RoutingContext ctx) {
     final RoutingContextInternal ctxi = (RoutingContextInternal) ctx;
-    new RoutingContextWrapper(getAndCheckRoutePath(ctxi), state.getRoutes(), ctxi, this).next();
+    new RoutingContextWrapper(getAndCheckRoutePath(ctxi), state, ctxi, this).next();
   }
 
   @Override
   public void handleFailure(RoutingContext ctx) {
     final RoutingContextInternal ctxi = (RoutingContextInternal) ctx;
-    new RoutingContextWrapper(getAndCheckRoutePath(ctxi), state.getRoutes(), ctxi, this).next();
+    new RoutingContextWrapper(getAndCheckRoutePath(ctxi), state, ctxi, this).next();
   }
 
   @Override
@@ -327,8 +327,12 @@ public class RouterImpl implements Router {
     return vertx;
   }
 
-  Iterator<RouteImpl> iterator() {
-    return state.getRoutes().iterator();
+  synchronized void refresh() {
+    state = state.refresh();
+  }
+
+  Iterator<RouteImpl> iterator(RoutingContextImplBase context) {
+    return state.iterator(context);
   }
 
   Handler<RoutingContext> getErrorHandlerByStatusCode(int statusCode) {
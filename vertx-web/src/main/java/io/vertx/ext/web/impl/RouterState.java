@@ -16,6 +16,7 @@
 package io.vertx.ext.web.impl;
 
 import io.vertx.core.Handler;
+import io.vertx.core.impl.logging.LoggerFactory;
 import io.vertx.ext.web.AllowForwardHeaders;
 import io.vertx.ext.web.Router;
 import io.vertx.ext.web.RoutingContext;
@@ -31,6 +32,20 @@ import java.util.*;
  */
 final class RouterState {
 
+  // opt-in skipping of the exact static routes not registered for the request path
+  private static final boolean EXACT_PATH_INDEX = Boolean.getBoolean("io.vertx.web.router.exact-path-index");
+  // opt-in dispatch of requests using a prefix tree of the routes
+  private static final boolean COMPILED_DISPATCH = Boolean.getBoolean("io.vertx.web.router.compiled-dispatch");
+  // opt-in cache of the routes matching the most requested paths
+  private static final int MATCH_CACHE_SIZE = Integer.getInteger("io.vertx.web.router.match-cache-size", 0);
+
+  static {
+    if (COMPILED_DISPATCH && EXACT_PATH_INDEX) {
+      LoggerFactory.getLogger(RouterState.class)
+        .warn("Both the compiled dispatch and the exact path index are enabled, the exact path index is ignored");
+    }
+  }
+
   private static final Comparator<RouteImpl> routeComparator = (RouteImpl o1, RouteImpl o2) -> {
     // we keep a set of handlers ordered by its "order" property
     final int compare = Integer.compare(o1.order(), o2.order());
@@ -61,6 +76,9 @@ final class RouterState {
   private final AllowForwardHeaders allowForward;
   private final Map<String, Object> metadata;
 
+  // compiled lazily on the first request
+  private volatile RouteIndex index;
+
   public RouterState(RouterImpl router, TreeSet<RouteImpl> routes, int orderSequence, Map<Integer, Handler<RoutingContext>> errorHandlers, Handler<Router> modifiedHandler, AllowForwardHeaders allowForward, Map<String, Object> metadata) {
     this.router = router;
     this.routes = routes;
@@ -93,6 +111,51 @@ final class RouterState {
     return routes;
   }
 
+  /**
+   * @return an iterator over the routes that may match the given context, in the router order.
+   */
+  Iterator<RouteImpl> iterator(RoutingContextImplBase context) {
+    if (routes == null) {
+      return Collections.emptyIterator();
+    }
+
+    if (!COMPILED_DISPATCH && !EXACT_PATH_INDEX && MATCH_CACHE_SIZE <= 0) {
+      return routes.iterator();
+    }
+
+    RouteIndex index = this.index;
+    if (index == null) {
+      // benign race, the index is a pure function of the routes
+      if (COMPILED_DISPATCH) {
+        index = new RouteTree(routes);
+      } else if (EXACT_PATH_INDEX) {
+        index = new ExactPathIndex(routes);
+      } else {
+        index = RouteIndex.all(routes);
+      }
+      if (MATCH_CACHE_SIZE > 0) {
+        index = new RouteMatchCache(index, MATCH_CACHE_SIZE);
+      }
+      this.index = index;
+    }
+    return index.iterator(context);
+  }
+
+  /**
+   * Route states are mutable after being added to the router, when a route changes the way it matches paths, a copy of
+   * this state is required so any compiled dispatch structure is discarded.
+   */
+  RouterState refresh() {
+    return new RouterState(
+      this.router,
+      this.routes,
+      this.orderSequence,
+      this.errorHandlers,
+      this.modifiedHandler,
+      this.allowForward,
+      this.metadata);
+  }
+
   RouterState setRoutes(Set<RouteImpl> routes) {
     RouterState newState = new RouterState(
       this.router,
@@ -280,6 +280,11 @@ public class RoutingContextDecorator implements RoutingContextInternal {
     decoratedContext.setBody(body);
   }
 
+  @Override
+  public void setBodyFile(String file, long length) {
+    decoratedContext.setBodyFile(file, length);
+  }
+
   @Override
   @Deprecated
   public void setSession(Session session) {
@@ -53,7 +53,7 @@ public class RoutingContextImpl extends RoutingContextImplBase {
   private volatile int handlerSeq;
 
   private Map<String, Object> data;
-  private Map<String, String> pathParams;
+  private final PathParams pathParams = new PathParams();
   private MultiMap queryParams;
   private SparseArray<Handler<Void>> headersEndHandlers;
   private SparseArray<Handler<Void>> bodyEndHandlers;
@@ -73,10 +73,10 @@ public class RoutingContextImpl extends RoutingContextImplBase {
   private volatile boolean isSessionAccessed = false;
   private volatile boolean endHandlerCalled = false;
 
-  public RoutingContextImpl(String mountPoint, RouterImpl router, HttpServerRequest request, Set<RouteImpl> routes) {
-    super(mountPoint, routes, router);
+  public RoutingContextImpl(String mountPoint, RouterImpl router, HttpServerRequest request, RouterState state) {
+    super(mountPoint, state, router);
     this.router = router;
-    this.request = new HttpServerRequestWrapper(request, router.getAllowForward());
+    this.request = new HttpServerRequestWrapper(request, router.getAllowForward(), pathParams);
     this.body = new RequestBodyImpl(this);
 
     final String path = request.path();
@@ -302,6 +302,11 @@ public class RoutingContextImpl extends RoutingContextImplBase {
     this.body.setBuffer(body);
   }
 
+  @Override
+  public void setBodyFile(String file, long length) {
+    this.body.setFile(file, length);
+  }
+
   @Override
   public List<FileUpload> fileUploads() {
     if (fileUploads == null) {
@@ -427,12 +432,12 @@ public class RoutingContextImpl extends RoutingContextImplBase {
 
   @Override
   public Map<String, String> pathParams() {
-    return getPathParams();
+    return pathParams;
   }
 
   @Override
   public @Nullable String pathParam(String name) {
-    return getPathParams().get(name);
+    return pathParams.get(name);
   }
 
   @Override
@@ -476,13 +481,6 @@ public class RoutingContextImpl extends RoutingContextImplBase {
     return queryParams;
   }
 
-  private Map<String, String> getPathParams() {
-    if (pathParams == null) {
-      pathParams = new HashMap<>();
-    }
-    return pathParams;
-  }
-
   private SparseArray<Handler<Void>> getHeadersEndHandlers() {
     if (headersEndHandlers == null) {
       headersEndHandlers = new SparseArray<>();
@@ -538,7 +536,7 @@ public class RoutingContextImpl extends RoutingContextImplBase {
   }
 
   private void doFail() {
-    this.iter = router.iterator();
+    this.iter = router.iterator(this);
     currentRoute = null;
     next();
   }
@@ -26,7 +26,6 @@ import io.vertx.ext.web.RoutingContext;
 import io.vertx.ext.web.handler.HttpException;
 
 import java.util.Iterator;
-import java.util.Set;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 /**
@@ -41,7 +40,7 @@ public abstract class RoutingContextImplBase implements RoutingContextInternal {
 
   protected static final Logger LOG = LoggerFactory.getLogger(RoutingContext.class);
 
-  private final Set<RouteImpl> routes;
+  private final RouterState state;
 
   protected final Router currentRouter;
   protected final String mountPoint;
@@ -58,10 +57,10 @@ public abstract class RoutingContextImplBase implements RoutingContextInternal {
   // internal runtime state
   private volatile long seen;
 
-  RoutingContextImplBase(String mountPoint, Set<RouteImpl> routes, Router currentRouter) {
+  RoutingContextImplBase(String mountPoint, RouterState state, Router currentRouter) {
     this.mountPoint = mountPoint;
-    this.routes = routes;
-    this.iter = routes.iterator();
+    this.state = state;
+    this.iter = state.iterator(this);
 
     this.currentRouter = currentRouter;
     resetMatchFailure();
@@ -121,7 +120,7 @@ public abstract class RoutingContextImplBase implements RoutingContextInternal {
   }
 
   void restart() {
-    this.iter = routes.iterator();
+    this.iter = state.iterator(this);
     currentRoute = null;
     next();
   }
@@ -78,6 +78,14 @@ public interface RoutingContextInternal extends RoutingContext {
    */
   void setBody(Buffer body);
 
+  /**
+   * Set the body spooled to a file. Used by the {@link io.vertx.ext.web.handler.BodyHandler} in streaming mode.
+   *
+   * @param file  the file holding the body
+   * @param length  the length of the body
+   */
+  void setBodyFile(String file, long length);
+
   /**
    * Set the session. Used by the {@link io.vertx.ext.web.handler.SessionHandler}.
    *
@@ -32,7 +32,6 @@ import io.vertx.ext.web.*;
 import java.nio.charset.Charset;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 /**
  * @author <a href="http://tfox.org">Tim Fox</a>
@@ -42,8 +41,8 @@ public class RoutingContextWrapper extends RoutingContextImplBase {
   protected final RoutingContextInternal inner;
   private final String mountPoint;
 
-  public RoutingContextWrapper(String mountPoint, Set<RouteImpl> iter, RoutingContextInternal inner, Router currentRouter) {
-    super(mountPoint, iter, currentRouter);
+  public RoutingContextWrapper(String mountPoint, RouterState state, RoutingContextInternal inner, Router currentRouter) {
+    super(mountPoint, state, currentRouter);
     this.inner = inner;
     String parentMountPoint = inner.mountPoint();
     if (parentMountPoint == null) {
@@ -278,6 +277,11 @@ public class RoutingContextWrapper extends RoutingContextImplBase {
     inner.setBody(body);
   }
 
+  @Override
+  public void setBodyFile(String file, long length) {
+    inner.setBodyFile(file, length);
+  }
+
   @Override
   public List<FileUpload> fileUploads() {
     return inner.fileUploads();
@@ -212,6 +212,9 @@ public class Utils {
           return false;
         }
       }
+      // if-modified-since is ignored when the etag matched
+      // https://datatracker.ietf.org/doc/html/rfc7232#section-3.3
+      return true;
     }
 
     // if-modified-since
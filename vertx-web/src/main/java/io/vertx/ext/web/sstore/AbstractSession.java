@@ -30,8 +30,14 @@ import java.util.function.Function;
  * The abstract session class provides a barebones implementation for session storage implementors.
  *
  * This class will contain all the related data required for a session plus a couple of helper methods to verify the
- * integrity and versioning of the data. This checksum is important to reduce the amount of times data is pushed to
- * be stored on a backend.
+ * integrity and versioning of the data. Changes are tracked per key, this is important to reduce the amount of times
+ * data is pushed to be stored on a backend, and allows stores to only write the changed keys, see
+ * {@link SessionStore#putChanges(Session, Set)}.
+ *
+ * Keys are tracked when written through {@link #put(String, Object)}, {@link #putIfAbsent(String, Object)},
+ * {@link #computeIfAbsent(String, Function)} or {@link #remove(String)}, and when a mutable value is read with
+ * {@link #get(String)}, as it can be modified in place. Once the map returned by {@link #data()} is handed out, changes
+ * can no longer be tracked per key and the whole data is checksummed until the session is flushed.
  *
  * As a Vert.x Web user, you should not have to deal with this class directly but with the public interface that it
  * implements.
@@ -41,6 +47,8 @@ import java.util.function.Function;
 public abstract class AbstractSession implements Session, SessionInternal {
 
   private static final char[] HEX = "0123456789abcdef".toCharArray();
+  // marks a tracked key that was absent
+  private static final Object ABSENT = new Object();
 
   private VertxContextPRNG prng;
 
@@ -61,7 +69,7 @@ public abstract class AbstractSession implements Session, SessionInternal {
   protected void setData(Map<String, Object> data) {
     if (data != null) {
       this.data = data;
-      this.crc = checksum();
+      resetTracking();
     }
   }
 
@@ -84,6 +92,10 @@ public abstract class AbstractSession implements Session, SessionInternal {
   private boolean renewed;
   private String oldId;
   private int crc;
+  // key -> hash of the value when first tracked, or ABSENT
+  private volatile Map<String, Object> tracked;
+  // the data map was handed out, so the crc is the baseline
+  private volatile boolean untracked;
 
   /**
    * This constructor is <b>mandatory</b> (even though not referenced anywhere) is required for
@@ -111,12 +123,8 @@ public abstract class AbstractSession implements Session, SessionInternal {
   @Override
   public void flushed(boolean skipCrc) {
     renewed = false;
-    if (oldId != null) {
-      if (!skipCrc) {
-        crc = checksum();
-      }
-      oldId = null;
-    }
+    oldId = null;
+    resetTracking();
   }
 
   @Override
@@ -148,13 +156,18 @@ public abstract class AbstractSession implements Session, SessionInternal {
     if (isEmpty()) {
       return null;
     }
-    Object obj = data().get(key);
+    Object obj = map().get(key);
+    if (obj != null && !isImmutable(obj)) {
+      // might be modified in place
+      track(key, obj);
+    }
     return (T) obj;
   }
 
   @Override
   public Session put(String key, Object obj) {
-    final Map<String, Object> data = data();
+    final Map<String, Object> data = map();
+    track(key, data.get(key));
     // nulls are handled as remove actions
     if (obj == null) {
       data.remove(key);
@@ -166,15 +179,17 @@ public abstract class AbstractSession implements Session, SessionInternal {
 
   @Override
   public Session putIfAbsent(String key, Object obj) {
-    data()
-      .putIfAbsent(key, obj);
+    final Map<String, Object> data = map();
+    track(key, data.get(key));
+    data.putIfAbsent(key, obj);
     return this;
   }
 
   @Override
   public Session computeIfAbsent(String key, Function<String, Object> mappingFunction) {
-    data()
-      .computeIfAbsent(key, mappingFunction);
+    final Map<String, Object> data = map();
+    track(key, data.get(key));
+    data.computeIfAbsent(key, mappingFunction);
     return this;
   }
 
@@ -184,12 +199,40 @@ public abstract class AbstractSession implements Session, SessionInternal {
     if (isEmpty()) {
       return null;
     }
-    Object obj = data().remove(key);
+    final Map<String, Object> data = map();
+    track(key, data.get(key));
+    Object obj = data.remove(key);
     return (T) obj;
   }
 
   @Override
   public Map<String, Object> data() {
+    if (!untracked) {
+      synchronized (this) {
+        if (!untracked) {
+          // the map can be modified directly from now on, the tracked keys stay relevant
+          crc = checksum();
+          untracked = true;
+        }
+      }
+    }
+    return map();
+  }
+
+  /**
+   * A read only view of the session data, unlike {@link #data()} this does not stop the tracking of the changed keys.
+   * Stores should use this view to serialize the session.
+   *
+   * @return the session data
+   */
+  protected Map<String, Object> readOnlyData() {
+    if (data == null) {
+      return Collections.emptyMap();
+    }
+    return Collections.unmodifiableMap(data);
+  }
+
+  private Map<String, Object> map() {
     if (data == null) {
       synchronized (this) {
         // double check since there could already been someone in the lock
@@ -250,13 +293,94 @@ public abstract class AbstractSession implements Session, SessionInternal {
   }
 
   public void incrementVersion() {
-    int old = this.crc;
-    // update the checksum
-    crc = checksum();
-
-    if (this.crc != old) {
+    if (isModified()) {
       ++version;
     }
+    resetTracking();
+  }
+
+  /**
+   * Verifies if the session data was modified since the session was loaded or last stored. This is proportional to the
+   * number of keys used during the request unless {@link #data()} was called.
+   *
+   * @return true if the data was modified
+   */
+  public boolean isModified() {
+    final Map<String, Object> tracked = this.tracked;
+    if (tracked != null) {
+      for (Map.Entry<String, Object> kv : tracked.entrySet()) {
+        if (changed(kv.getKey(), kv.getValue())) {
+          return true;
+        }
+      }
+    }
+    return untracked && crc != checksum();
+  }
+
+  /**
+   * The keys added, replaced or removed since the session was loaded or last stored. Keys which are absent from the
+   * data were removed.
+   *
+   * @return the changed keys, or {@code null} if they are unknown because the map returned by {@link #data()} was
+   * handed out.
+   */
+  public @Nullable Set<String> changedKeys() {
+    if (untracked) {
+      return null;
+    }
+    final Map<String, Object> tracked = this.tracked;
+    if (tracked == null) {
+      return Collections.emptySet();
+    }
+    final Set<String> changed = new HashSet<>();
+    for (Map.Entry<String, Object> kv : tracked.entrySet()) {
+      if (changed(kv.getKey(), kv.getValue())) {
+        changed.add(kv.getKey());
+      }
+    }
+    return changed;
+  }
+
+  private void track(String key, Object current) {
+    Map<String, Object> tracked = this.tracked;
+    if (tracked == null) {
+      synchronized (this) {
+        tracked = this.tracked;
+        if (tracked == null) {
+          this.tracked = tracked = new ConcurrentHashMap<>();
+        }
+      }
+    }
+    // only the first state matters
+    tracked.putIfAbsent(key, current == null ? ABSENT : current.hashCode());
+  }
+
+  private boolean changed(String key, Object original) {
+    final Map<String, Object> data = this.data;
+    final Object current = data == null ? null : data.get(key);
+    if (original == ABSENT) {
+      return current != null;
+    }
+    return current == null || current.hashCode() != (int) original;
+  }
+
+  private void resetTracking() {
+    tracked = null;
+    untracked = false;
+  }
+
+  private static boolean isImmutable(Object obj) {
+    return
+      obj instanceof String ||
+      obj instanceof Integer ||
+      obj instanceof Long ||
+      obj instanceof Double ||
+      obj instanceof Float ||
+      obj instanceof Short ||
+      obj instanceof Byte ||
+      obj instanceof Boolean ||
+      obj instanceof Character ||
+      obj instanceof Enum;
   }
 
   private static String generateId(VertxContextPRNG rng, int length) {
@@ -42,6 +42,11 @@ public interface LocalSessionStore extends SessionStore {
    */
   String DEFAULT_SESSION_MAP_NAME = "vertx-web.sessions";
 
+  /**
+   * Default of whether expired sessions are found with an index by expiry time instead of scanning the map
+   */
+  boolean DEFAULT_INDEXED_EXPIRY = false;
+
   /**
    * Create a session store
    *
@@ -86,4 +91,24 @@ public interface LocalSessionStore extends SessionStore {
       .put("mapName", sessionMapName));
     return store;
   }
+
+  /**
+   * Create a session store. When {@code indexedExpiry} is {@code true} the sessions are indexed by expiry time in
+   * buckets of {@code reaperInterval} ms, each check only visits the sessions due since the previous check instead of
+   * scanning all the sessions. This is recommended for stores with many sessions.
+   *
+   * @param vertx  the Vert.x instance
+   * @param sessionMapName  name for map used to store sessions
+   * @param reaperInterval  how often, in ms, to check for expired sessions
+   * @param indexedExpiry  whether expired sessions are found with an index
+   * @return the session store
+   */
+  static LocalSessionStore create(Vertx vertx, String sessionMapName, long reaperInterval, boolean indexedExpiry) {
+    LocalSessionStoreImpl store = new LocalSessionStoreImpl();
+    store.init(vertx, new JsonObject()
+      .put("reaperInterval", reaperInterval)
+      .put("mapName", sessionMapName)
+      .put("indexedExpiry", indexedExpiry));
+    return store;
+  }
 }
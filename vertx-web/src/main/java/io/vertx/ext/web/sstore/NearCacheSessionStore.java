@@ -0,0 +1,98 @@
+/*
+ * Copyright 2022 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.sstore;
+
+import io.vertx.codegen.annotations.VertxGen;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.sstore.impl.NearCacheSessionStoreImpl;
+
+/**
+ * A session store decorator keeping recently used sessions in a bounded local cache in front of a remote store (e.g.:
+ * a {@link ClusteredSessionStore} or a Redis store), so a session served by this node shortly before does not require a
+ * remote call.
+ * <p>
+ * Writes are sent to the remote store (immediately or, with a write behind delay, coalesced after the delay) and
+ * announced with the new session version on an event bus address. The other nodes drop their cached copy when they
+ * see a newer version, and the remote store still verifies the version on each write, a stale cached session fails to
+ * be stored like it would without the cache.
+ * <p>
+ * The options are:
+ * <ul>
+ *   <li>{@code maxSize}: the maximum number of cached sessions, defaults to {@link #DEFAULT_MAX_SIZE}</li>
+ *   <li>{@code cacheTimeout}: how long, in ms, a session is served from the cache, defaults to
+ *   {@link #DEFAULT_CACHE_TIMEOUT}</li>
+ *   <li>{@code writeBehindDelay}: the delay, in ms, before a stored session is written to the remote store, {@code 0}
+ *   writes immediately, defaults to {@link #DEFAULT_WRITE_BEHIND_DELAY}</li>
+ *   <li>{@code writeBehindRetries}: how many times a failed write behind is retried after the delay, defaults to
+ *   {@link #DEFAULT_WRITE_BEHIND_RETRIES}</li>
+ *   <li>{@code invalidationAddress}: the event bus address used to announce writes, defaults to
+ *   {@link #DEFAULT_INVALIDATION_ADDRESS}</li>
+ * </ul>
+ */
+@VertxGen
+public interface NearCacheSessionStore extends SessionStore {
+
+  /**
+   * Default maximum number of cached sessions
+   */
+  int DEFAULT_MAX_SIZE = 10_000;
+
+  /**
+   * Default time, in ms, a session is served from the cache
+   */
+  long DEFAULT_CACHE_TIMEOUT = 30_000;
+
+  /**
+   * Default write behind delay, in ms, sessions are written immediately
+   */
+  long DEFAULT_WRITE_BEHIND_DELAY = 0;
+
+  /**
+   * Default number of retries of a failed write behind
+   */
+  int DEFAULT_WRITE_BEHIND_RETRIES = 3;
+
+  /**
+   * Default event bus address used to announce writes
+   */
+  String DEFAULT_INVALIDATION_ADDRESS = "vertx-web.sessions.invalidate";
+
+  /**
+   * Create a near cache in front of a session store with the default options.
+   *
+   * @param vertx  the Vert.x instance
+   * @param delegate  the remote session store
+   * @return the session store
+   */
+  static NearCacheSessionStore create(Vertx vertx, SessionStore delegate) {
+    return create(vertx, delegate, new JsonObject());
+  }
+
+  /**
+   * Create a near cache in front of a session store.
+   *
+   * @param vertx  the Vert.x instance
+   * @param delegate  the remote session store
+   * @param options  the cache options
+   * @return the session store
+   */
+  static NearCacheSessionStore create(Vertx vertx, SessionStore delegate, JsonObject options) {
+    NearCacheSessionStoreImpl store = new NearCacheSessionStoreImpl(delegate);
+    store.init(vertx, options);
+    return store;
+  }
+}
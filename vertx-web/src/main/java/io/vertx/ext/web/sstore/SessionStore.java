@@ -25,6 +25,8 @@ import io.vertx.ext.web.Session;
 import io.vertx.ext.web.sstore.impl.ClusteredSessionStoreImpl;
 import io.vertx.ext.web.sstore.impl.LocalSessionStoreImpl;
 
+import java.util.Set;
+
 /**
  * A session store is used to store sessions for an Vert.x-Web web app
  *
@@ -179,6 +181,21 @@ public interface SessionStore {
    */
   Future<Void> put(Session session);
 
+  /**
+   * Store a session of which only some keys changed since it was loaded. Stores able to update single keys can
+   * override this method to only write the changed keys (and the session metadata, e.g.: last accessed time and
+   * version), keys absent from the session data were removed.
+   *
+   * The default implementation stores the whole session with {@link #put(Session)}.
+   *
+   * @param session the session
+   * @param changedKeys the keys added, replaced or removed
+   * @return future that will be called with a result, or a failure
+   */
+  default Future<Void> putChanges(Session session, Set<String> changedKeys) {
+    return put(session);
+  }
+
   /**
    * Remove all sessions from the store.
    *
@@ -51,6 +51,8 @@ public class LocalSessionStoreImpl implements SessionStore, LocalSessionStore, H
 
   private LocalMap<String, Session> localMap;
   private long reaperInterval;
+  // null when expired sessions are found by scanning the map
+  private SessionExpiryIndex expiryIndex;
   private VertxContextPRNG random;
 
   private long timerID = -1;
@@ -75,6 +77,9 @@ public class LocalSessionStoreImpl implements SessionStore, LocalSessionStore, H
     this.vertx = (VertxInternal) vertx;
     this.reaperInterval = options.getLong("reaperInterval", DEFAULT_REAPER_INTERVAL);
     localMap = vertx.sharedData().getLocalMap(options.getString("mapName", DEFAULT_SESSION_MAP_NAME));
+    if (reaperInterval > 0 && options.getBoolean("indexedExpiry", DEFAULT_INDEXED_EXPIRY)) {
+      expiryIndex = new SessionExpiryIndex(reaperInterval);
+    }
     setTimer();
 
     return this;
@@ -95,6 +100,9 @@ public class LocalSessionStoreImpl implements SessionStore, LocalSessionStore, H
   public Future<Void> delete(String id) {
     final ContextInternal ctx = vertx.getOrCreateContext();
     localMap.remove(id);
+    if (expiryIndex != null) {
+      expiryIndex.remove(id);
+    }
     return ctx.succeededFuture();
   }
 
@@ -113,6 +121,9 @@ public class LocalSessionStoreImpl implements SessionStore, LocalSessionStore, H
 
     newSession.incrementVersion();
     localMap.put(session.id(), session);
+    if (expiryIndex != null) {
+      expiryIndex.add(session);
+    }
     return ctx.succeededFuture();
   }
 
@@ -120,6 +131,9 @@ public class LocalSessionStoreImpl implements SessionStore, LocalSessionStore, H
   public Future<Void> clear() {
     final ContextInternal ctx = vertx.getOrCreateContext();
     localMap.clear();
+    if (expiryIndex != null) {
+      expiryIndex.clear();
+    }
     return ctx.succeededFuture();
   }
 
@@ -142,6 +156,15 @@ public class LocalSessionStoreImpl implements SessionStore, LocalSessionStore, H
   public synchronized void handle(Long tid) {
     long now = System.currentTimeMillis();
 
+    if (expiryIndex != null) {
+      // only the sessions due in the elapsed buckets are visited
+      expiryIndex.expire(localMap, now);
+      if (!closed) {
+        setTimer();
+      }
+      return;
+    }
+
     Set<String> toRemove = new HashSet<>();
 
     localMap.forEach((String id, Session session) -> {
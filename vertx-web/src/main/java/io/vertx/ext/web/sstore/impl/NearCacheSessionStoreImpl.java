@@ -0,0 +1,307 @@
+/*
+ * Copyright 2022 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.sstore.impl;
+
+import io.vertx.codegen.annotations.Nullable;
+import io.vertx.core.CompositeFuture;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.impl.ContextInternal;
+import io.vertx.core.impl.VertxInternal;
+import io.vertx.core.impl.logging.Logger;
+import io.vertx.core.impl.logging.LoggerFactory;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.Session;
+import io.vertx.ext.web.impl.ConcurrentLRUCache;
+import io.vertx.ext.web.sstore.AbstractSession;
+import io.vertx.ext.web.sstore.NearCacheSessionStore;
+import io.vertx.ext.web.sstore.SessionStore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The cached sessions are shared by the requests of this node, like with the local session store.
+ */
+public class NearCacheSessionStoreImpl implements NearCacheSessionStore {
+
+  private static final Logger LOG = LoggerFactory.getLogger(NearCacheSessionStoreImpl.class);
+
+  private final SessionStore delegate;
+  // identifies the announcements of this store
+  private final String origin = UUID.randomUUID().toString();
+
+  private VertxInternal vertx;
+  private ConcurrentLRUCache<String, Entry> cache;
+  private long cacheTimeout;
+  private long writeBehindDelay;
+  private int writeBehindRetries;
+  private String invalidationAddress;
+  private MessageConsumer<JsonObject> invalidations;
+
+  // sessions waiting to be written to the delegate, they must be found even if evicted from the cache
+  private final ConcurrentHashMap<String, Session> pending = new ConcurrentHashMap<>();
+  // writes to the delegate in flight by id, writes of a session are not concurrent
+  private final ConcurrentHashMap<String, Future<Void>> writing = new ConcurrentHashMap<>();
+  // the last write behind failure of a session, reported by the next store of the session
+  private ConcurrentLRUCache<String, Throwable> failures;
+  // a marker per deleted session, the writes behind started before the deletion are dropped instead of re-creating it
+  private ConcurrentLRUCache<String, Object> deletions;
+
+  public NearCacheSessionStoreImpl(SessionStore delegate) {
+    this.delegate = Objects.requireNonNull(delegate, "delegate is required");
+  }
+
+  @Override
+  public SessionStore init(Vertx vertx, JsonObject options) {
+    this.vertx = (VertxInternal) vertx;
+    this.cache = new ConcurrentLRUCache<>(options.getInteger("maxSize", DEFAULT_MAX_SIZE));
+    this.failures = new ConcurrentLRUCache<>(options.getInteger("maxSize", DEFAULT_MAX_SIZE));
+    this.deletions = new ConcurrentLRUCache<>(options.getInteger("maxSize", DEFAULT_MAX_SIZE));
+    this.cacheTimeout = options.getLong("cacheTimeout", DEFAULT_CACHE_TIMEOUT);
+    this.writeBehindDelay = options.getLong("writeBehindDelay", DEFAULT_WRITE_BEHIND_DELAY);
+    this.writeBehindRetries = options.getInteger("writeBehindRetries", DEFAULT_WRITE_BEHIND_RETRIES);
+    this.invalidationAddress = options.getString("invalidationAddress", DEFAULT_INVALIDATION_ADDRESS);
+    this.invalidations = vertx.eventBus().consumer(invalidationAddress, this::invalidate);
+    return this;
+  }
+
+  @Override
+  public long retryTimeout() {
+    return delegate.retryTimeout();
+  }
+
+  @Override
+  public Session createSession(long timeout) {
+    return delegate.createSession(timeout);
+  }
+
+  @Override
+  public Session createSession(long timeout, int length) {
+    return delegate.createSession(timeout, length);
+  }
+
+  @Override
+  public Future<@Nullable Session> get(String id) {
+    final ContextInternal ctx = vertx.getOrCreateContext();
+    final long now = System.currentTimeMillis();
+
+    final Session unwritten = pending.get(id);
+    if (unwritten != null) {
+      return ctx.succeededFuture(unwritten);
+    }
+
+    final Entry entry = cache.get(id);
+    if (entry != null) {
+      if (now < entry.expiresAt && now - entry.session.lastAccessed() <= entry.session.timeout()) {
+        return ctx.succeededFuture(entry.session);
+      }
+      cache.remove(id);
+    }
+
+    return delegate.get(id)
+      .onSuccess(session -> {
+        if (session != null) {
+          cache(session);
+        }
+      });
+  }
+
+  @Override
+  public Future<Void> delete(String id) {
+    deletions.put(id, new Object());
+    pending.remove(id);
+    failures.remove(id);
+    cache.remove(id);
+    final Future<Void> inFlight = writing.get(id);
+    if (inFlight == null) {
+      return delegate.delete(id)
+        .onSuccess(v -> announce(id, -1));
+    }
+    // a write already sent to the delegate must land before the deletion
+    return inFlight
+      .transform(ar -> delegate.delete(id))
+      .onSuccess(v -> announce(id, -1));
+  }
+
+  @Override
+  public Future<Void> put(Session session) {
+    return store(session, null);
+  }
+
+  @Override
+  public Future<Void> putChanges(Session session, Set<String> changedKeys) {
+    return store(session, changedKeys);
+  }
+
+  @Override
+  public Future<Void> clear() {
+    pending.clear();
+    cache.clear();
+    failures.clear();
+    return delegate.clear()
+      .onSuccess(v -> announce(null, -1));
+  }
+
+  @Override
+  public Future<Integer> size() {
+    return delegate.size();
+  }
+
+  @Override
+  public void close() {
+    // write what is left, and wait for the writes in flight, before closing the delegate
+    final List<Future> writes = new ArrayList<>(writing.values());
+    for (String id : pending.keySet()) {
+      writes.add(flush(id));
+    }
+    invalidations.unregister();
+    CompositeFuture.join(writes).onComplete(ar -> {
+      if (ar.failed()) {
+        LOG.warn("Failed to write sessions on close", ar.cause());
+      }
+      delegate.close();
+    });
+  }
+
+  private Future<Void> store(Session session, Set<String> changedKeys) {
+    if (writeBehindDelay <= 0) {
+      final Future<Void> write = changedKeys == null ? delegate.put(session) : delegate.putChanges(session, changedKeys);
+      return write
+        .onSuccess(v -> {
+          cache(session);
+          announce(session.id(), version(session));
+        })
+        .onFailure(err -> {
+          // most likely a version mismatch, the cached copy is stale
+          cache.remove(session.id());
+        });
+    }
+
+    final ContextInternal ctx = vertx.getOrCreateContext();
+    final Throwable failure = failures.remove(session.id());
+    if (failure != null) {
+      // the previous write behind of the session was lost
+      cache.remove(session.id());
+      return ctx.failedFuture(failure);
+    }
+    cache(session);
+    if (pending.put(session.id(), session) == null) {
+      // the first change starts the delay, the next ones are coalesced
+      vertx.setTimer(writeBehindDelay, t -> flush(session.id()));
+    }
+    return ctx.succeededFuture();
+  }
+
+  private Future<Void> flush(String id) {
+    final Promise<Void> promise = Promise.promise();
+    final Future<Void> inFlight = writing.putIfAbsent(id, promise.future());
+    if (inFlight != null) {
+      // the previous write of this session is in flight, this one follows it
+      return inFlight.eventually(v -> flush(id));
+    }
+    // read before the session is taken, a deletion in between is then always seen by the write
+    final Object generation = deletions.get(id);
+    final Session session = pending.remove(id);
+    if (session == null) {
+      writing.remove(id, promise.future());
+      promise.complete();
+      return promise.future();
+    }
+    write(session, generation, writeBehindRetries).onComplete(ar -> {
+      writing.remove(id, promise.future());
+      if (ar.failed() && deletions.get(id) == generation) {
+        LOG.warn("Failed to write session " + id, ar.cause());
+        cache.remove(id);
+        failures.put(id, ar.cause());
+      }
+      promise.handle(ar);
+    });
+    return promise.future();
+  }
+
+  private Future<Void> write(Session session, Object generation, int retries) {
+    if (deletions.get(session.id()) != generation) {
+      // deleted since the write was started
+      return Future.succeededFuture();
+    }
+    return delegate.put(session)
+      .onSuccess(v -> announce(session.id(), version(session)))
+      .recover(err -> {
+        if (retries <= 0 || pending.containsKey(session.id())) {
+          // a newer copy waiting to be written is not retried either, it fails the same way
+          return Future.failedFuture(err);
+        }
+        final Promise<Void> retry = Promise.promise();
+        vertx.setTimer(Math.max(1, writeBehindDelay), t -> write(session, generation, retries - 1).onComplete(retry));
+        return retry.future();
+      });
+  }
+
+  private void cache(Session session) {
+    cache.put(session.id(), new Entry(session, System.currentTimeMillis() + cacheTimeout));
+  }
+
+  /**
+   * Announces a write, a version of -1 drops the session from the other caches unconditionally, a null id drops all the
+   * sessions.
+   */
+  private void announce(String id, int version) {
+    vertx.eventBus().publish(invalidationAddress, new JsonObject()
+      .put("origin", origin)
+      .put("id", id)
+      .put("version", version));
+  }
+
+  private void invalidate(Message<JsonObject> message) {
+    final JsonObject body = message.body();
+    if (origin.equals(body.getString("origin"))) {
+      return;
+    }
+    final String id = body.getString("id");
+    if (id == null) {
+      cache.clear();
+      return;
+    }
+    final int version = body.getInteger("version", -1);
+    final Entry entry = cache.get(id);
+    if (entry != null && (version == -1 || version(entry.session) < version)) {
+      cache.remove(id);
+    }
+  }
+
+  private static int version(Session session) {
+    return session instanceof AbstractSession ? ((AbstractSession) session).version() : -1;
+  }
+
+  private static final class Entry {
+
+    final Session session;
+    final long expiresAt;
+
+    Entry(Session session, long expiresAt) {
+      this.session = session;
+      this.expiresAt = expiresAt;
+    }
+  }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2022 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.sstore.impl;
+
+import io.vertx.core.shareddata.LocalMap;
+import io.vertx.ext.web.Session;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * An index of the sessions of a local map by expiry time, so expired sessions are found without scanning the map.
+ * <p>
+ * The sessions are kept in buckets of {@code resolution} ms, the bucket of a session is computed from the last accessed
+ * time when it is stored. Sessions are accessed without being stored again, so when a bucket is due the expiry of each
+ * session is verified, sessions accessed since they were indexed are moved to the bucket of their new deadline. A
+ * session is therefore visited at most once per timeout period, and a reaper tick is proportional to the sessions that
+ * expired or were refreshed, not to the size of the map.
+ * <p>
+ * This class is safe for concurrent use, sessions can be indexed from any event loop while the reaper runs.
+ */
+class SessionExpiryIndex {
+
+  private final long resolution;
+  // bucket -> ids of the sessions with a deadline in the bucket
+  private final ConcurrentSkipListMap<Long, Set<String>> buckets = new ConcurrentSkipListMap<>();
+  // id -> bucket the session is indexed in
+  private final ConcurrentHashMap<String, Long> indexed = new ConcurrentHashMap<>();
+
+  SessionExpiryIndex(long resolution) {
+    if (resolution < 1) {
+      throw new IllegalArgumentException("resolution must be >= 1");
+    }
+    this.resolution = resolution;
+  }
+
+  /**
+   * Indexes a stored session. A session already indexed in an earlier bucket is left there, it will be moved when the
+   * bucket is due.
+   */
+  void add(Session session) {
+    final String id = session.id();
+    final long bucket = bucket(session);
+    final boolean[] reindexed = new boolean[1];
+    final Long[] moved = new Long[1];
+    indexed.compute(id, (key, previous) -> {
+      if (previous != null && previous <= bucket) {
+        // stays in the earlier bucket
+        return previous;
+      }
+      // new, or the timeout was reduced
+      reindexed[0] = true;
+      moved[0] = previous;
+      return bucket;
+    });
+    if (reindexed[0]) {
+      if (moved[0] != null) {
+        final Set<String> ids = buckets.get(moved[0]);
+        if (ids != null) {
+          ids.remove(id);
+        }
+      }
+      addToBucket(bucket, id);
+    }
+  }
+
+  void remove(String id) {
+    // the id left in its bucket is ignored when the bucket is due
+    indexed.remove(id);
+  }
+
+  void clear() {
+    indexed.clear();
+    buckets.clear();
+  }
+
+  /**
+   * Removes the expired sessions from the map.
+   */
+  void expire(LocalMap<String, Session> sessions, long now) {
+    final long current = now / resolution;
+
+    Map.Entry<Long, Set<String>> due;
+    while ((due = buckets.firstEntry()) != null && due.getKey() <= current) {
+      if (!buckets.remove(due.getKey(), due.getValue())) {
+        // concurrently replaced, read it again
+        continue;
+      }
+      final Long bucket = due.getKey();
+      for (String id : due.getValue()) {
+        if (!bucket.equals(indexed.get(id))) {
+          // removed or indexed in another bucket
+          continue;
+        }
+        final Session session = sessions.get(id);
+        if (session == null) {
+          indexed.remove(id, bucket);
+        } else if (now - session.lastAccessed() > session.timeout()) {
+          sessions.remove(id, session);
+          indexed.remove(id, bucket);
+        } else {
+          // accessed since it was indexed
+          final long next = bucket(session);
+          if (indexed.replace(id, bucket, next)) {
+            addToBucket(next, id);
+          }
+        }
+      }
+    }
+  }
+
+  private long bucket(Session session) {
+    // the first bucket due strictly after the deadline
+    return (session.lastAccessed() + session.timeout()) / resolution + 1;
+  }
+
+  private void addToBucket(long bucket, String id) {
+    while (true) {
+      final Set<String> ids = buckets.computeIfAbsent(bucket, k -> ConcurrentHashMap.newKeySet());
+      ids.add(id);
+      // when the bucket was taken by the reaper in the meantime, the id may have been missed
+      if (buckets.get(bucket) == ids) {
+        return;
+      }
+    }
+  }
+}
@@ -18,17 +18,27 @@ package io.vertx.ext.web.sstore.impl;
 
 import io.vertx.core.VertxException;
 import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
 import io.vertx.core.shareddata.Shareable;
 import io.vertx.core.shareddata.ClusterSerializable;
 import io.vertx.ext.auth.VertxContextPRNG;
+import io.vertx.ext.web.handler.impl.UserHolder;
 import io.vertx.ext.web.impl.Utils;
 import io.vertx.ext.web.sstore.AbstractSession;
 
 import java.lang.reflect.InvocationTargetException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
 
 /**
  * @author <a href="http://tfox.org">Tim Fox</a>
@@ -50,6 +60,24 @@ public class SharedDataSessionImpl extends AbstractSession implements ClusterSer
   private static final byte TYPE_BYTES = 11;
   private static final byte TYPE_CLUSTER_SERIALIZABLE = 13;
 
+  // during a rolling upgrade, the data is written in the legacy format until all the nodes can read the second one
+  private static final boolean LEGACY_FORMAT = Boolean.getBoolean("io.vertx.web.session.legacy-format");
+  // The session data is prefixed by this marker since the second format, the first format starts with the number of
+  // entries as an int, which can't start with this byte
+  private static final byte CODEC_V2 = (byte) 0xF2;
+  private static final byte FLAG_DEFLATED = 1;
+  // payloads from this size are compressed
+  private static final int COMPRESSION_THRESHOLD = 1024;
+  // classes with a fixed id, the classes of the other values are numbered per session from the end of this list
+  // entries must only be appended, the ids are part of the format
+  private static final List<Class<?>> REGISTERED_TYPES = Collections.unmodifiableList(Arrays.asList(
+    JsonObject.class,
+    JsonArray.class,
+    UserHolder.class));
+
+  // size of the last payload read or written, used to presize the next one
+  private int sizeHint = 64;
+
   /**
    * Important note: This constructor (even though not referenced anywhere) is required for serialization purposes. Do
    * not remove.
@@ -73,9 +101,11 @@ public class SharedDataSessionImpl extends AbstractSession implements ClusterSer
     buff.appendLong(timeout());
     buff.appendLong(lastAccessed());
     buff.appendInt(version());
-    // use cache
-    Buffer dataBuf = writeDataToBuffer();
-    buff.appendBuffer(dataBuf);
+    if (LEGACY_FORMAT) {
+      writeLegacyData(buff);
+    } else {
+      writeData(buff);
+    }
   }
 
   @Override
@@ -91,64 +121,71 @@ public class SharedDataSessionImpl extends AbstractSession implements ClusterSer
     pos += 8;
     setVersion(buffer.getInt(pos));
     pos += 4;
-    pos = readDataFromBuffer(pos, buffer);
+    if (buffer.getByte(pos) == CODEC_V2) {
+      pos = readData(pos, buffer);
+    } else {
+      pos = readLegacyData(pos, buffer);
+    }
     return pos;
   }
 
-  private Buffer writeDataToBuffer() {
-    Buffer buffer = Buffer.buffer();
+  /**
+   * Writes the data in the format read by the versions before the {@link #CODEC_V2} format.
+   */
+  private void writeLegacyData(Buffer buff) {
     if (isEmpty()) {
-      buffer.appendInt(0);
-    } else {
-      final Map<String, Object> data = data();
-      buffer.appendInt(data.size());
-      for (Map.Entry<String, Object> entry : data.entrySet()) {
-        String key = entry.getKey();
-        byte[] keyBytes = key.getBytes(UTF8);
-        buffer.appendInt(keyBytes.length).appendBytes(keyBytes);
-        Object val = entry.getValue();
-        if (val instanceof Long) {
-          buffer.appendByte(TYPE_LONG).appendLong((long) val);
-        } else if (val instanceof Integer) {
-          buffer.appendByte(TYPE_INT).appendInt((int) val);
-        } else if (val instanceof Short) {
-          buffer.appendByte(TYPE_SHORT).appendShort((short) val);
-        } else if (val instanceof Byte) {
-          buffer.appendByte(TYPE_BYTE).appendByte((byte) val);
-        } else if (val instanceof Double) {
-          buffer.appendByte(TYPE_DOUBLE).appendDouble((double) val);
-        } else if (val instanceof Float) {
-          buffer.appendByte(TYPE_FLOAT).appendFloat((float) val);
-        } else if (val instanceof Character) {
-          buffer.appendByte(TYPE_CHAR).appendShort((short) ((Character) val).charValue());
-        } else if (val instanceof Boolean) {
-          buffer.appendByte(TYPE_BOOLEAN).appendByte((byte) ((boolean) val ? 1 : 0));
-        } else if (val instanceof String) {
-          byte[] bytes = ((String) val).getBytes(UTF8);
-          buffer.appendByte(TYPE_STRING).appendInt(bytes.length).appendBytes(bytes);
-        } else if (val instanceof Buffer) {
-          Buffer buff = (Buffer) val;
-          buffer.appendByte(TYPE_BUFFER).appendInt(buff.length()).appendBuffer(buff);
-        } else if (val instanceof byte[]) {
-          byte[] bytes = (byte[]) val;
-          buffer.appendByte(TYPE_BYTES).appendInt(bytes.length).appendBytes(bytes);
-        } else if (val instanceof ClusterSerializable) {
-          buffer.appendByte(TYPE_CLUSTER_SERIALIZABLE);
-          String className = val.getClass().getName();
-          byte[] classNameBytes = className.getBytes(UTF8);
-          buffer.appendInt(classNameBytes.length).appendBytes(classNameBytes);
-          ((ClusterSerializable) val).writeToBuffer(buffer);
-        } else {
-          if (val != null) {
-            throw new IllegalStateException("Invalid type for data in session: " + val.getClass());
-          }
+      buff.appendInt(0);
+      return;
+    }
+    final Map<String, Object> data = readOnlyData();
+    buff.appendInt(data.size());
+    for (Map.Entry<String, Object> entry : data.entrySet()) {
+      byte[] keyBytes = entry.getKey().getBytes(UTF8);
+      buff.appendInt(keyBytes.length).appendBytes(keyBytes);
+      Object val = entry.getValue();
+      if (val instanceof Long) {
+        buff.appendByte(TYPE_LONG).appendLong((long) val);
+      } else if (val instanceof Integer) {
+        buff.appendByte(TYPE_INT).appendInt((int) val);
+      } else if (val instanceof Short) {
+        buff.appendByte(TYPE_SHORT).appendShort((short) val);
+      } else if (val instanceof Byte) {
+        buff.appendByte(TYPE_BYTE).appendByte((byte) val);
+      } else if (val instanceof Double) {
+        buff.appendByte(TYPE_DOUBLE).appendDouble((double) val);
+      } else if (val instanceof Float) {
+        buff.appendByte(TYPE_FLOAT).appendFloat((float) val);
+      } else if (val instanceof Character) {
+        buff.appendByte(TYPE_CHAR).appendShort((short) ((Character) val).charValue());
+      } else if (val instanceof Boolean) {
+        buff.appendByte(TYPE_BOOLEAN).appendByte((byte) ((boolean) val ? 1 : 0));
+      } else if (val instanceof String) {
+        byte[] bytes = ((String) val).getBytes(UTF8);
+        buff.appendByte(TYPE_STRING).appendInt(bytes.length).appendBytes(bytes);
+      } else if (val instanceof Buffer) {
+        Buffer buffer = (Buffer) val;
+        buff.appendByte(TYPE_BUFFER).appendInt(buffer.length()).appendBuffer(buffer);
+      } else if (val instanceof byte[]) {
+        byte[] bytes = (byte[]) val;
+        buff.appendByte(TYPE_BYTES).appendInt(bytes.length).appendBytes(bytes);
+      } else if (val instanceof ClusterSerializable) {
+        buff.appendByte(TYPE_CLUSTER_SERIALIZABLE);
+        byte[] classNameBytes = val.getClass().getName().getBytes(UTF8);
+        buff.appendInt(classNameBytes.length).appendBytes(classNameBytes);
+        ((ClusterSerializable) val).writeToBuffer(buff);
+      } else {
+        if (val != null) {
+          throw new IllegalStateException("Invalid type for data in session: " + val.getClass());
         }
       }
     }
-    return buffer;
   }
 
-  private int readDataFromBuffer(int pos, Buffer buffer) {
+  /**
+   * Reads the data written before the {@link #CODEC_V2} format: fixed size lengths and the class name of each
+   * {@link ClusterSerializable} value.
+   */
+  private int readLegacyData(int pos, Buffer buffer) {
     try {
       int entries = buffer.getInt(pos);
       pos += 4;
@@ -244,5 +281,298 @@ public class SharedDataSessionImpl extends AbstractSession implements ClusterSer
       throw new VertxException(e);
     }
   }
-}
 
+  /**
+   * Writes the data in the {@link #CODEC_V2} format: the marker, a flags byte and the payload, either as is or deflated
+   * (uncompressed and compressed lengths as varints then the compressed bytes).
+   * <p>
+   * The payload is the number of entries and the entries, lengths and integer numbers are varints. The class of a
+   * {@link ClusterSerializable} value is a varint id: a registered type, a class already seen in the session, or, one
+   * past the last known id, a new class which name follows.
+   */
+  private void writeData(Buffer buff) {
+    final Buffer payload = Buffer.buffer(sizeHint);
+    if (isEmpty()) {
+      appendVarint(payload, 0);
+    } else {
+      final Map<String, Object> data = readOnlyData();
+      final List<Class<?>> classes = new ArrayList<>(REGISTERED_TYPES);
+      appendVarint(payload, data.size());
+      for (Map.Entry<String, Object> entry : data.entrySet()) {
+        appendString(payload, entry.getKey());
+        Object val = entry.getValue();
+        if (val instanceof Long) {
+          payload.appendByte(TYPE_LONG);
+          appendVarlong(payload, zigzag((long) val));
+        } else if (val instanceof Integer) {
+          payload.appendByte(TYPE_INT);
+          appendVarlong(payload, zigzag((int) val));
+        } else if (val instanceof Short) {
+          payload.appendByte(TYPE_SHORT).appendShort((short) val);
+        } else if (val instanceof Byte) {
+          payload.appendByte(TYPE_BYTE).appendByte((byte) val);
+        } else if (val instanceof Double) {
+          payload.appendByte(TYPE_DOUBLE).appendDouble((double) val);
+        } else if (val instanceof Float) {
+          payload.appendByte(TYPE_FLOAT).appendFloat((float) val);
+        } else if (val instanceof Character) {
+          payload.appendByte(TYPE_CHAR).appendShort((short) ((Character) val).charValue());
+        } else if (val instanceof Boolean) {
+          payload.appendByte(TYPE_BOOLEAN).appendByte((byte) ((boolean) val ? 1 : 0));
+        } else if (val instanceof String) {
+          payload.appendByte(TYPE_STRING);
+          appendString(payload, (String) val);
+        } else if (val instanceof Buffer) {
+          Buffer buffer = (Buffer) val;
+          payload.appendByte(TYPE_BUFFER);
+          appendVarint(payload, buffer.length());
+          payload.appendBuffer(buffer);
+        } else if (val instanceof byte[]) {
+          byte[] bytes = (byte[]) val;
+          payload.appendByte(TYPE_BYTES);
+          appendVarint(payload, bytes.length);
+          payload.appendBytes(bytes);
+        } else if (val instanceof ClusterSerializable) {
+          payload.appendByte(TYPE_CLUSTER_SERIALIZABLE);
+          final Class<?> clazz = val.getClass();
+          final int id = classes.indexOf(clazz);
+          if (id == -1) {
+            appendVarint(payload, classes.size());
+            appendString(payload, clazz.getName());
+            classes.add(clazz);
+          } else {
+            appendVarint(payload, id);
+          }
+          ((ClusterSerializable) val).writeToBuffer(payload);
+        } else {
+          if (val != null) {
+            throw new IllegalStateException("Invalid type for data in session: " + val.getClass());
+          }
+        }
+      }
+    }
+
+    sizeHint = payload.length();
+    buff.appendByte(CODEC_V2);
+    if (payload.length() >= COMPRESSION_THRESHOLD) {
+      final byte[] compressed = deflate(payload.getBytes());
+      if (compressed != null) {
+        buff.appendByte(FLAG_DEFLATED);
+        appendVarint(buff, payload.length());
+        appendVarint(buff, compressed.length);
+        buff.appendBytes(compressed);
+        return;
+      }
+    }
+    buff.appendByte((byte) 0);
+    buff.appendBuffer(payload);
+  }
+
+  private int readData(int pos, Buffer buffer) {
+    // skip the marker
+    pos++;
+    final byte flags = buffer.getByte(pos++);
+    if ((flags & FLAG_DEFLATED) != 0) {
+      final Cursor lengths = new Cursor(buffer, pos);
+      final int length = lengths.varint();
+      final int compressedLength = lengths.varint();
+      pos = lengths.pos;
+      final Buffer payload = Buffer.buffer(inflate(buffer.getBytes(pos, pos + compressedLength), length));
+      readPayload(new Cursor(payload, 0));
+      sizeHint = length;
+      return pos + compressedLength;
+    }
+    final Cursor cursor = new Cursor(buffer, pos);
+    readPayload(cursor);
+    sizeHint = cursor.pos - pos;
+    return cursor.pos;
+  }
+
+  private void readPayload(Cursor in) {
+    try {
+      final int entries = in.varint();
+      if (entries > 0) {
+        final Map<String, Object> data = new ConcurrentHashMap<>(entries);
+        final List<Class<?>> classes = new ArrayList<>(REGISTERED_TYPES);
+
+        for (int i = 0; i < entries; i++) {
+          String key = in.string();
+          byte type = in.buffer.getByte(in.pos++);
+          Object val;
+          switch (type) {
+            case TYPE_LONG:
+              val = unzigzag(in.varlong());
+              break;
+            case TYPE_INT:
+              val = (int) unzigzag(in.varlong());
+              break;
+            case TYPE_SHORT:
+              val = in.buffer.getShort(in.pos);
+              in.pos += 2;
+              break;
+            case TYPE_BYTE:
+              val = in.buffer.getByte(in.pos++);
+              break;
+            case TYPE_FLOAT:
+              val = in.buffer.getFloat(in.pos);
+              in.pos += 4;
+              break;
+            case TYPE_DOUBLE:
+              val = in.buffer.getDouble(in.pos);
+              in.pos += 8;
+              break;
+            case TYPE_CHAR:
+              val = (char) in.buffer.getShort(in.pos);
+              in.pos += 2;
+              break;
+            case TYPE_BOOLEAN:
+              val = in.buffer.getByte(in.pos++) == 1;
+              break;
+            case TYPE_STRING:
+              val = in.string();
+              break;
+            case TYPE_BUFFER:
+              val = Buffer.buffer(in.bytes());
+              break;
+            case TYPE_BYTES:
+              val = in.bytes();
+              break;
+            case TYPE_CLUSTER_SERIALIZABLE:
+              final int id = in.varint();
+              final Class<?> clazz;
+              if (id < classes.size()) {
+                clazz = classes.get(id);
+              } else {
+                String className = in.string();
+                clazz = Utils.getClassLoader().loadClass(className);
+                if (!ClusterSerializable.class.isAssignableFrom(clazz)) {
+                  throw new ClassCastException(className + " is not assignable from ClusterSerializable");
+                }
+                classes.add(clazz);
+              }
+              ClusterSerializable obj = (ClusterSerializable) clazz.getDeclaredConstructor().newInstance();
+              in.pos = obj.readFromBuffer(in.pos, in.buffer);
+              val = obj;
+              break;
+            default:
+              throw new IllegalStateException("Invalid serialized type: " + type);
+          }
+          data.put(key, val);
+        }
+        setData(data);
+      }
+    } catch (ClassNotFoundException | NoSuchMethodException | IllegalAccessException | InvocationTargetException | InstantiationException e) {
+      throw new VertxException(e);
+    }
+  }
+
+  /**
+   * @return the deflated bytes, or {@code null} if they are not smaller
+   */
+  private static byte[] deflate(byte[] bytes) {
+    final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    try {
+      deflater.setInput(bytes);
+      deflater.finish();
+      final byte[] out = new byte[bytes.length];
+      int len = 0;
+      while (!deflater.finished() && len < out.length) {
+        len += deflater.deflate(out, len, out.length - len);
+      }
+      return deflater.finished() ? Arrays.copyOf(out, len) : null;
+    } finally {
+      deflater.end();
+    }
+  }
+
+  private static byte[] inflate(byte[] bytes, int length) {
+    final Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(bytes);
+      final byte[] out = new byte[length];
+      int len = 0;
+      while (len < length && !inflater.finished()) {
+        final int n = inflater.inflate(out, len, length - len);
+        if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          break;
+        }
+        len += n;
+      }
+      if (len != length) {
+        throw new IllegalStateException("Invalid compressed session data");
+      }
+      return out;
+    } catch (DataFormatException e) {
+      throw new VertxException(e);
+    } finally {
+      inflater.end();
+    }
+  }
+
+  private static void appendString(Buffer buffer, String value) {
+    final byte[] bytes = value.getBytes(UTF8);
+    appendVarint(buffer, bytes.length);
+    buffer.appendBytes(bytes);
+  }
+
+  private static void appendVarint(Buffer buffer, int value) {
+    appendVarlong(buffer, value & 0xFFFFFFFFL);
+  }
+
+  private static void appendVarlong(Buffer buffer, long value) {
+    while ((value & ~0x7FL) != 0) {
+      buffer.appendByte((byte) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    buffer.appendByte((byte) value);
+  }
+
+  private static long zigzag(long value) {
+    return (value << 1) ^ (value >> 63);
+  }
+
+  private static long unzigzag(long value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  private static final class Cursor {
+
+    final Buffer buffer;
+    int pos;
+
+    Cursor(Buffer buffer, int pos) {
+      this.buffer = buffer;
+      this.pos = pos;
+    }
+
+    long varlong() {
+      long value = 0;
+      for (int shift = 0; shift < 64; shift += 7) {
+        final byte b = buffer.getByte(pos++);
+        value |= (long) (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          return value;
+        }
+      }
+      throw new IllegalStateException("Invalid varint in session data");
+    }
+
+    int varint() {
+      return (int) varlong();
+    }
+
+    byte[] bytes() {
+      final int len = varint();
+      final byte[] bytes = buffer.getBytes(pos, pos + len);
+      pos += len;
+      return bytes;
+    }
+
+    String string() {
+      final int len = varint();
+      final String value = buffer.getString(pos, pos + len, "UTF-8");
+      pos += len;
+      return value;
+    }
+  }
+}
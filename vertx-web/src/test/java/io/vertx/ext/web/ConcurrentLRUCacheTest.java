@@ -0,0 +1,92 @@
+/*
+ * Copyright 2022 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.web;
+
+import io.vertx.ext.web.impl.ConcurrentLRUCache;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ConcurrentLRUCacheTest {
+
+  @Test
+  public void testPut() {
+    ConcurrentLRUCache<String, String> cache = new ConcurrentLRUCache<>(10);
+    for (int i = 0; i < 20; i++) {
+      cache.put("key" + i, "value" + i);
+    }
+    assertEquals(10, cache.size());
+  }
+
+  @Test
+  public void testUsedEntriesSurvive() {
+    ConcurrentLRUCache<String, String> cache = new ConcurrentLRUCache<>(10);
+    cache.put("hot", "value");
+    for (int i = 0; i < 100; i++) {
+      assertEquals("value", cache.get("hot"));
+      cache.put("key" + i, "value" + i);
+    }
+    assertEquals(10, cache.size());
+    assertEquals("value", cache.get("hot"));
+  }
+
+  @Test
+  public void testEvictsInInsertionOrder() {
+    ConcurrentLRUCache<String, String> cache = new ConcurrentLRUCache<>(10);
+    for (int i = 0; i < 10; i++) {
+      cache.put("key" + i, "value" + i);
+    }
+    cache.get("key0");
+    cache.put("key10", "value10");
+    cache.put("key11", "value11");
+    // key0 had a second chance, key1 and key2 are the oldest
+    assertEquals("value0", cache.get("key0"));
+    assertNull(cache.get("key1"));
+    assertNull(cache.get("key2"));
+    assertEquals("value3", cache.get("key3"));
+    assertEquals(10, cache.size());
+  }
+
+  @Test
+  public void testReplaceAndRemove() {
+    ConcurrentLRUCache<String, String> cache = new ConcurrentLRUCache<>(2);
+    for (int i = 0; i < 100; i++) {
+      cache.put("key", "value" + i);
+      assertEquals("value" + i, cache.get("key"));
+      cache.remove("key");
+    }
+    cache.put("a", "a");
+    cache.put("b", "b");
+    cache.put("c", "c");
+    assertEquals(2, cache.size());
+    assertNull(cache.get("a"));
+  }
+
+  @Test
+  public void testRemove() {
+    ConcurrentLRUCache<String, String> cache = new ConcurrentLRUCache<>(10);
+    cache.put("key", "value");
+    assertEquals("value", cache.remove("key"));
+    assertNull(cache.get("key"));
+    assertEquals(0, cache.size());
+  }
+
+  @Test(expected=IllegalArgumentException.class)
+  public void testCacheInvalidSize() {
+    new ConcurrentLRUCache<>(0);
+  }
+}
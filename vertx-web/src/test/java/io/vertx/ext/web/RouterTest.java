@@ -791,6 +791,29 @@ public class RouterTest extends WebTestBase {
     testRequest(HttpMethod.GET, "/%2Fping", 200, "OK", "/ping");
   }
 
+  @Test
+  public void testParamEscapeInvalid() throws Exception {
+    router.route("/demo/:abc").handler(rc -> rc.response().end());
+    testRequest(HttpMethod.GET, "/demo/Hello%2World", 400, "Bad Request");
+  }
+
+  @Test
+  public void testParamsMapView() throws Exception {
+    router.route("/demo/:abc/:def").handler(rc -> {
+      Map<String, String> params = new HashMap<>(rc.pathParams());
+      assertEquals(2, params.size());
+      assertEquals("Hello World", params.get("abc"));
+      assertEquals("x", params.get("def"));
+      // query params take precedence in the request params
+      assertEquals("query", rc.request().getParam("def"));
+      assertEquals("Hello World", rc.request().getParam("abc"));
+      rc.pathParams().put("abc", "changed");
+      assertEquals("changed", rc.pathParam("abc"));
+      rc.response().end();
+    });
+    testRequest(HttpMethod.GET, "/demo/Hello%20World/x?def=query", 200, "OK");
+  }
+
   @Test
   public void testPattern1WithMethod() throws Exception {
     router.route(HttpMethod.GET, "/:abc").handler(rc -> rc.response().setStatusMessage(rc.request().params().get("abc")).end());
@@ -3578,4 +3601,30 @@ public class RouterTest extends WebTestBase {
 
     await();
   }
+
+  @Test
+  public void testExactPathsAmongManyRoutes() throws Exception {
+    for (int i = 0; i < 200; i++) {
+      final int id = i;
+      router.get("/exact/" + i).handler(rc -> rc.response().end("get" + id));
+      router.delete("/exact/" + i).handler(rc -> rc.response().end("delete" + id));
+    }
+    router.route("/exact/*").handler(rc -> rc.response().end("wildcard"));
+
+    testRequest(HttpMethod.GET, "/exact/150", 200, "OK", "get150");
+    testRequest(HttpMethod.DELETE, "/exact/150/", 200, "OK", "delete150");
+    testRequest(HttpMethod.GET, "/exact/200", 200, "OK", "wildcard");
+  }
+
+  @Test
+  public void testExactPathMethodNotAllowedAfterNext() throws Exception {
+    router.get("/exact").handler(RoutingContext::next);
+    router.get("/other").handler(rc -> rc.response().end());
+    router.post("/exact").handler(rc -> rc.response().end());
+
+    // the GET route calls next, the POST route on the same path turns the 404 into a 405
+    testRequest(HttpMethod.GET, "/exact", 405, "Method Not Allowed");
+    testRequest(HttpMethod.PUT, "/exact", 405, "Method Not Allowed");
+    testRequest(HttpMethod.GET, "/unknown", 404, "Not Found");
+  }
 }
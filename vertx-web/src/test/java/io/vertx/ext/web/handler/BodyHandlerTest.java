@@ -22,6 +22,7 @@ import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.HttpHeaders;
 import io.vertx.core.http.HttpMethod;
 import io.vertx.core.json.JsonObject;
+import io.vertx.core.streams.ReadStream;
 import io.vertx.ext.web.FileUpload;
 import io.vertx.ext.web.Route;
 import io.vertx.ext.web.RoutingContext;
@@ -37,6 +38,7 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.Base64;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 
 /**
@@ -200,6 +202,208 @@ public class BodyHandlerTest extends WebTestBase {
     }, 413, "Request Entity Too Large", null);
   }
 
+  @Test
+  public void testStreamingSmallBody() throws Exception {
+    String uploadsDirectory = tempUploads.newFolder().getPath();
+    router.clear();
+    router.route().handler(BodyHandler.create().setStreaming(true).setUploadsDirectory(uploadsDirectory));
+    Buffer buff = TestUtils.randomBuffer(1000);
+    router.route().handler(rc -> {
+      // small bodies stay in memory
+      assertEquals(0, vertx.fileSystem().readDirBlocking(uploadsDirectory).size());
+      assertEquals(buff, rc.body().buffer());
+      Buffer received = Buffer.buffer();
+      rc.body().stream()
+        .handler(received::appendBuffer)
+        .endHandler(v -> {
+          assertEquals(buff, received);
+          rc.response().end();
+        });
+    });
+    testRequest(HttpMethod.POST, "/", req -> {
+      req.setChunked(true);
+      req.write(buff);
+    }, 200, "OK", null);
+  }
+
+  @Test
+  public void testStreamingSmallBodyPaused() throws Exception {
+    String uploadsDirectory = tempUploads.newFolder().getPath();
+    router.clear();
+    router.route().handler(BodyHandler.create().setStreaming(true).setUploadsDirectory(uploadsDirectory));
+    Buffer buff = TestUtils.randomBuffer(1000);
+    router.route().handler(rc -> {
+      Buffer received = Buffer.buffer();
+      AtomicBoolean paused = new AtomicBoolean();
+      ReadStream<Buffer> stream = rc.body().stream();
+      stream
+        .handler(chunk -> {
+          received.appendBuffer(chunk);
+          // the stream must not end while paused
+          paused.set(true);
+          stream.pause();
+          vertx.setTimer(100, t -> {
+            paused.set(false);
+            stream.resume();
+          });
+        })
+        .endHandler(v -> {
+          assertFalse(paused.get());
+          assertEquals(buff, received);
+          rc.response().end();
+        });
+    });
+    testRequest(HttpMethod.POST, "/", req -> {
+      req.setChunked(true);
+      req.write(buff);
+    }, 200, "OK", null);
+  }
+
+  @Test
+  public void testStreamingSpooledBody() throws Exception {
+    String uploadsDirectory = tempUploads.newFolder().getPath();
+    router.clear();
+    router.route().handler(BodyHandler.create().setStreaming(true).setBodyLimit(500000).setUploadsDirectory(uploadsDirectory));
+    Buffer buff = TestUtils.randomBuffer(300000);
+    router.route().handler(rc -> {
+      assertEquals(1, vertx.fileSystem().readDirBlocking(uploadsDirectory).size());
+      assertEquals(300000, rc.body().length());
+      Buffer received = Buffer.buffer();
+      rc.body().stream()
+        .handler(received::appendBuffer)
+        .endHandler(v -> {
+          assertEquals(buff, received);
+          rc.response().end();
+        });
+    });
+    testRequest(HttpMethod.POST, "/", req -> {
+      req.setChunked(true);
+      req.write(buff);
+    }, 200, "OK", null);
+    assertWaitUntil(() -> vertx.fileSystem().readDirBlocking(uploadsDirectory).isEmpty());
+  }
+
+  @Test
+  public void testStreamingSpooledBodyAsBuffer() throws Exception {
+    String uploadsDirectory = tempUploads.newFolder().getPath();
+    router.clear();
+    router.route().handler(BodyHandler.create().setStreaming(true).setUploadsDirectory(uploadsDirectory));
+    JsonObject json = new JsonObject().put("data", TestUtils.randomAlphaString(100000));
+    router.route().handler(rc -> {
+      try {
+        rc.body().asJsonObject();
+        fail("Should not be read from the event loop");
+      } catch (IllegalStateException expected) {
+      }
+      rc.body().load().onComplete(onSuccess(v -> {
+        assertEquals(json, rc.body().asJsonObject());
+        rc.response().end();
+      }));
+    });
+    testRequest(HttpMethod.POST, "/", req -> {
+      req.setChunked(true);
+      req.write(json.toBuffer());
+    }, 200, "OK", null);
+    assertWaitUntil(() -> vertx.fileSystem().readDirBlocking(uploadsDirectory).isEmpty());
+  }
+
+  @Test
+  public void testStreamingSpooledBodyPaused() throws Exception {
+    String uploadsDirectory = tempUploads.newFolder().getPath();
+    router.clear();
+    router.route().handler(BodyHandler.create().setStreaming(true).setUploadsDirectory(uploadsDirectory));
+    Buffer buff = TestUtils.randomBuffer(300000);
+    router.route().handler(rc -> {
+      Buffer received = Buffer.buffer();
+      ReadStream<Buffer> stream = rc.body().stream();
+      stream.pause();
+      stream
+        .handler(chunk -> {
+          received.appendBuffer(chunk);
+          // one chunk at a time
+          stream.pause();
+          vertx.setTimer(1, id -> stream.fetch(1));
+        })
+        .endHandler(v -> {
+          assertEquals(buff, received);
+          rc.response().end();
+        });
+      vertx.setTimer(10, id -> {
+        assertEquals(0, received.length());
+        stream.fetch(1);
+      });
+    });
+    testRequest(HttpMethod.POST, "/", req -> {
+      req.setChunked(true);
+      req.write(buff);
+    }, 200, "OK", null);
+    assertWaitUntil(() -> vertx.fileSystem().readDirBlocking(uploadsDirectory).isEmpty());
+  }
+
+  @Test
+  public void testStreamingSpooledBodyNotRead() throws Exception {
+    String uploadsDirectory = tempUploads.newFolder().getPath();
+    router.clear();
+    router.route().handler(BodyHandler.create().setStreaming(true).setUploadsDirectory(uploadsDirectory));
+    router.route().handler(rc -> {
+      // the file is closed when the response ends
+      rc.body().stream().pause();
+      rc.response().end();
+    });
+    testRequest(HttpMethod.POST, "/", req -> {
+      req.setChunked(true);
+      req.write(TestUtils.randomBuffer(300000));
+    }, 200, "OK", null);
+    assertWaitUntil(() -> vertx.fileSystem().readDirBlocking(uploadsDirectory).isEmpty());
+  }
+
+  @Test
+  public void testStreamingBodyTooBig() throws Exception {
+    String uploadsDirectory = tempUploads.newFolder().getPath();
+    router.clear();
+    router.route().handler(BodyHandler.create().setStreaming(true).setBodyLimit(100000).setUploadsDirectory(uploadsDirectory));
+    Buffer buff = TestUtils.randomBuffer(200000);
+    router.route().handler(rc -> fail("Should not be called"));
+    testRequest(HttpMethod.POST, "/", req -> {
+      req.setChunked(true);
+      req.write(buff);
+    }, 413, "Request Entity Too Large", null);
+    assertWaitUntil(() -> vertx.fileSystem().readDirBlocking(uploadsDirectory).isEmpty());
+  }
+
+  @Test
+  public void testCompositeBody() throws Exception {
+    router.clear();
+    router.route().handler(BodyHandler.create().setCompositeBody(true));
+    JsonObject json = new JsonObject().put("data", TestUtils.randomAlphaString(100000));
+    router.route().handler(rc -> {
+      assertEquals(json.encode().length(), rc.body().length());
+      assertEquals(json, rc.body().asJsonObject());
+      assertEquals(json.encode(), rc.body().asString());
+      assertEquals(json.toBuffer(), rc.body().buffer());
+      rc.response().end();
+    });
+    testRequest(HttpMethod.POST, "/", req -> {
+      req.setChunked(true);
+      Buffer buff = json.toBuffer();
+      for (int i = 0; i < buff.length(); i += 8192) {
+        req.write(buff.slice(i, Math.min(buff.length(), i + 8192)));
+      }
+    }, 200, "OK", null);
+  }
+
+  @Test
+  public void testCompositeBodyEmpty() throws Exception {
+    router.clear();
+    router.route().handler(BodyHandler.create().setCompositeBody(true).setPreallocateBodyBuffer(true));
+    router.route().handler(rc -> {
+      assertNotNull(rc.body().buffer());
+      assertEquals(0, rc.body().length());
+      rc.response().end();
+    });
+    testRequest(HttpMethod.POST, "/", req -> req.putHeader(HttpHeaders.CONTENT_LENGTH, "0"), 200, "OK", null);
+  }
+
   @Test
   public void testBodyTooBig2() throws Exception {
     router.clear();
@@ -17,12 +17,17 @@ package io.vertx.ext.web.handler;
 
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelPromise;
+import io.vertx.core.AbstractVerticle;
+import io.vertx.core.CompositeFuture;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
 import io.vertx.core.eventbus.DeliveryOptions;
 import io.vertx.core.eventbus.Message;
 import io.vertx.core.eventbus.MessageConsumer;
 import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpServer;
 import io.vertx.core.http.impl.HttpClientConnection;
 import io.vertx.core.http.impl.WebSocketInternal;
 import io.vertx.core.json.Json;
@@ -45,10 +50,14 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiConsumer;
@@ -628,6 +637,176 @@ public class EventbusBridgeTest extends WebTestBase {
     testUnregister("someaddress");
   }
 
+  @Test
+  public void testSendRoundRobin() throws Exception {
+    router.route("/eventbus/*").subRouter(sockJS.bridge(allAccessOptions));
+    // the bridge is a single consumer, it gets half of the messages and its sockets get them in turn
+    AtomicInteger local = new AtomicInteger();
+    AtomicInteger[] bridged = {new AtomicInteger(), new AtomicInteger()};
+    CountDownLatch latch = new CountDownLatch(8);
+    vertx.eventBus().consumer(addr, msg -> {
+      local.incrementAndGet();
+      latch.countDown();
+    });
+    List<Future> registrations = new ArrayList<>();
+    for (AtomicInteger count : bridged) {
+      BridgeClient client = new BridgeClient();
+      client.handler((address, received) -> {
+        count.incrementAndGet();
+        latch.countDown();
+      });
+      registrations.add(client.connect(websocketURI).compose(v -> client.register(addr)));
+    }
+    CompositeFuture.all(registrations).onComplete(onSuccess(v -> {
+      // Wait a bit to allow the handlers to be setup on the server
+      vertx.setTimer(200, tid -> {
+        for (int i = 0; i < 8; i++) {
+          vertx.eventBus().send(addr, "sent" + i);
+        }
+      });
+    }));
+    awaitLatch(latch);
+    assertEquals(4, local.get());
+    assertEquals(2, bridged[0].get());
+    assertEquals(2, bridged[1].get());
+  }
+
+  @Test
+  public void testReceiveManySockets() throws Exception {
+    router.route("/eventbus/*").subRouter(sockJS.bridge(allAccessOptions));
+    int numSockets = 3;
+    // every socket gets the published message, a single one gets the sent message
+    CountDownLatch latch = new CountDownLatch(numSockets + 1);
+    AtomicInteger sent = new AtomicInteger();
+    List<Future> registrations = new ArrayList<>();
+    for (int i = 0; i < numSockets; i++) {
+      BridgeClient client = new BridgeClient();
+      client.handler((address, received) -> {
+        assertEquals(addr, address);
+        if ("sent".equals(received.getValue("body"))) {
+          assertEquals(1, sent.incrementAndGet());
+        } else {
+          assertEquals("published", received.getValue("body"));
+        }
+        latch.countDown();
+      });
+      registrations.add(client.connect(websocketURI).compose(v -> client.register(addr)));
+    }
+    CompositeFuture.all(registrations).onComplete(onSuccess(v -> {
+      // Wait a bit to allow the handlers to be setup on the server
+      vertx.setTimer(200, tid -> {
+        vertx.eventBus().publish(addr, "published");
+        vertx.eventBus().send(addr, "sent");
+      });
+    }));
+    awaitLatch(latch);
+    // give a duplicate delivery a chance to show up
+    Thread.sleep(200);
+    assertEquals(1, sent.get());
+  }
+
+  @Test
+  public void testRegisterFromManyContexts() throws Exception {
+    Set<Thread> eventLoops = ConcurrentHashMap.newKeySet();
+    router.route("/eventbus/*").subRouter(sockJS.bridge(allAccessOptions, event -> {
+      if (event.type() == BridgeEventType.REGISTER) {
+        eventLoops.add(Thread.currentThread());
+      }
+      event.complete(true);
+    }));
+    // a second server instance, the connections are spread over the contexts of both servers
+    HttpServer other = vertx.createHttpServer(getHttpServerOptions());
+    CountDownLatch listening = new CountDownLatch(1);
+    other.requestHandler(router).listen(onSuccess(s -> listening.countDown()));
+    awaitLatch(listening);
+    try {
+      int numSockets = 4;
+      CountDownLatch latch = new CountDownLatch(numSockets);
+      List<Future> registrations = new ArrayList<>();
+      for (int i = 0; i < numSockets; i++) {
+        BridgeClient client = new BridgeClient();
+        client.handler((address, received) -> latch.countDown());
+        // the sockets register and unregister the address concurrently
+        Future<Void> registration = client.connect(websocketURI);
+        for (int j = 0; j < 50; j++) {
+          registration = registration
+            .compose(v -> client.register(addr))
+            .compose(v -> client.unregister(addr));
+        }
+        registrations.add(registration.compose(v -> client.register(addr)));
+      }
+      CompositeFuture.all(registrations).onComplete(onSuccess(v -> {
+        // Wait a bit to allow the handlers to be setup on the server
+        vertx.setTimer(200, tid -> vertx.eventBus().publish(addr, "published"));
+      }));
+      // every socket is still registered
+      awaitLatch(latch);
+      assertEquals(2, eventLoops.size());
+    } finally {
+      CountDownLatch closed = new CountDownLatch(1);
+      other.close(onSuccess(v -> closed.countDown()));
+      awaitLatch(closed);
+    }
+  }
+
+  @Test
+  public void testFirstRegisteredContextClosed() throws Exception {
+    List<String> deployments = Collections.synchronizedList(new ArrayList<>());
+    router.route("/eventbus/*").subRouter(sockJS.bridge(allAccessOptions, event -> {
+      if (event.type() == BridgeEventType.REGISTER) {
+        deployments.add(Vertx.currentContext().deploymentID());
+      }
+      event.complete(true);
+    }));
+    // the sockets are served by the servers of two verticles instead
+    CountDownLatch closed = new CountDownLatch(1);
+    server.close(onSuccess(v -> closed.countDown()));
+    awaitLatch(closed);
+    server = null;
+    for (int i = 0; i < 2; i++) {
+      CountDownLatch deployed = new CountDownLatch(1);
+      vertx.deployVerticle(new AbstractVerticle() {
+        @Override
+        public void start(Promise<Void> startPromise) {
+          vertx.createHttpServer(getHttpServerOptions())
+            .requestHandler(router)
+            .listen()
+            .<Void>mapEmpty()
+            .onComplete(startPromise);
+        }
+      }, onSuccess(id -> deployed.countDown()));
+      awaitLatch(deployed);
+    }
+
+    int numSockets = 4;
+    AtomicInteger received = new AtomicInteger();
+    // one after the other, the first socket registers the shared consumer on its context
+    Future<Void> registrations = Future.succeededFuture();
+    for (int i = 0; i < numSockets; i++) {
+      BridgeClient client = new BridgeClient();
+      client.handler((address, msg) -> received.incrementAndGet());
+      registrations = registrations
+        .compose(v -> client.connect(websocketURI))
+        .compose(v -> client.register(addr));
+    }
+    CountDownLatch registered = new CountDownLatch(1);
+    registrations.onComplete(onSuccess(v -> registered.countDown()));
+    awaitLatch(registered);
+    assertWaitUntil(() -> deployments.size() == numSockets);
+
+    // closes the context of the consumer and the sockets of that verticle
+    String first = deployments.get(0);
+    long remaining = deployments.stream().filter(id -> !first.equals(id)).count();
+    assertTrue(remaining > 0);
+    CountDownLatch undeployed = new CountDownLatch(1);
+    vertx.undeploy(first, onSuccess(v -> undeployed.countDown()));
+    awaitLatch(undeployed);
+
+    // Wait a bit to allow the consumer to be registered again
+    vertx.setTimer(200, tid -> vertx.eventBus().publish(addr, "published"));
+    assertWaitUntil(() -> received.get() == remaining);
+  }
+
   @Test
   public void testInvalidType() throws Exception {
     router.route("/eventbus/*").subRouter(
@@ -759,6 +938,28 @@ public class EventbusBridgeTest extends WebTestBase {
       "access_denied");
   }
 
+  @Test
+  public void testSendPermittedStructureMatchThenAddressRe() throws Exception {
+    JsonObject match = new JsonObject().put("fib", "wib");
+    router.route("/eventbus/*").subRouter(
+      sockJS.bridge(defaultOptions
+        .addInboundPermitted(new PermittedOptions().setMatch(match).setAddress("allow1"))
+        .addInboundPermitted(new PermittedOptions().setMatch(match).setAddressRegex("allo.+"))
+        .addInboundPermitted(new PermittedOptions().setAddressRegex("allow2"))));
+    // the same addresses are checked repeatedly, with bodies matching or not
+    for (int i = 0; i < 2; i++) {
+      testSend("allow1", match);
+      testSend("allowed", match);
+      testSend("allow2", "foobar");
+      testError(new JsonObject().put("type", "send").put("address", "allow1").put("body", "foobar"),
+        "access_denied");
+      testError(new JsonObject().put("type", "send").put("address", "allowed").put("body", new JsonObject()),
+        "access_denied");
+      testError(new JsonObject().put("type", "send").put("address", "hello").put("body", match),
+        "access_denied");
+    }
+  }
+
   @Test
   public void testRegisterPermittedAllowAddress() throws Exception {
     String addr = "allow1";
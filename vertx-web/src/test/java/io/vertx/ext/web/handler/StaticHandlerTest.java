@@ -19,6 +19,7 @@ package io.vertx.ext.web.handler;
 import io.vertx.core.AbstractVerticle;
 import io.vertx.core.DeploymentOptions;
 import io.vertx.core.Promise;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.*;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.net.PemKeyCertOptions;
@@ -33,6 +34,7 @@ import java.io.File;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.security.MessageDigest;
 import java.util.*;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -561,6 +563,195 @@ public class StaticHandlerTest extends WebTestBase {
 
   }
 
+  @Test
+  public void testContentCacheServedFromMemory() throws Exception {
+    File webroot = new File("target/.vertx/webroot-content"), pageFile = new File(webroot, "cached.html");
+    webroot.mkdirs();
+    Files.write(pageFile.toPath(), "<html><body>Cached page</body></html>".getBytes());
+
+    stat.setWebRoot(webroot.getPath());
+    stat.setMaxContentCacheSize(1024 * 1024);
+
+    testRequest(HttpMethod.GET, "/cached.html", 200, "OK", "<html><body>Cached page</body></html>");
+    // files are read only, the file system is not accessed anymore
+    pageFile.delete();
+    testRequest(HttpMethod.GET, "/cached.html", 200, "OK", "<html><body>Cached page</body></html>");
+  }
+
+  @Test
+  public void testContentCacheRevalidated() throws Exception {
+    File webroot = new File("target/.vertx/webroot-content"), pageFile = new File(webroot, "changed.html");
+    webroot.mkdirs();
+    Files.write(pageFile.toPath(), "<html><body>Before</body></html>".getBytes());
+    long modified = pageFile.lastModified();
+
+    stat.setFilesReadOnly(false);
+    stat.setWebRoot(webroot.getPath());
+    stat.setCacheEntryTimeout(1);
+    stat.setMaxContentCacheSize(1024 * 1024);
+
+    testRequest(HttpMethod.GET, "/changed.html", 200, "OK", "<html><body>Before</body></html>");
+    testRequest(HttpMethod.GET, "/changed.html", 200, "OK", "<html><body>Before</body></html>");
+    Files.write(pageFile.toPath(), "<html><body>After!</body></html>".getBytes());
+    assertTrue(pageFile.setLastModified(modified + 10_000));
+    Thread.sleep(5);
+    testRequest(HttpMethod.GET, "/changed.html", 200, "OK", "<html><body>After!</body></html>");
+    pageFile.delete();
+  }
+
+  @Test
+  public void testContentCacheRange() throws Exception {
+    stat.setMaxContentCacheSize(1024 * 1024);
+    byte[] expected = Arrays.copyOfRange(Files.readAllBytes(new File("src/test/resources/webroot/somedir/range.jpg").toPath()), 1000, 2000);
+    for (int i = 0; i < 2; i++) {
+      testRequestBuffer(HttpMethod.GET, "/somedir/range.jpg", req -> req.headers().set("Range", "bytes=1000-1999"), res -> {
+        assertEquals("1000", res.headers().get("Content-Length"));
+        assertEquals("bytes 1000-1999/15783", res.headers().get("Content-Range"));
+      }, 206, "Partial Content", Buffer.buffer(expected));
+    }
+    testRequest(HttpMethod.GET, "/somedir/range.jpg", null, res -> {
+      assertEquals("15783", res.headers().get("Content-Length"));
+    }, 200, "OK", null);
+  }
+
+  private File precompressedWebRoot() throws Exception {
+    File webroot = new File("target/.vertx/webroot-precompressed");
+    webroot.mkdirs();
+    Files.write(new File(webroot, "app.js").toPath(), "identity".getBytes());
+    Files.write(new File(webroot, "app.js.br").toPath(), "br".getBytes());
+    Files.write(new File(webroot, "app.js.gz").toPath(), "gzip".getBytes());
+    return webroot;
+  }
+
+  @Test
+  public void testPrecompressedDisabledByDefault() throws Exception {
+    stat.setWebRoot(precompressedWebRoot().getPath());
+    testRequest(HttpMethod.GET, "/app.js", req -> req.putHeader("accept-encoding", "gzip, br"), res -> {
+      assertNull(res.headers().get("content-encoding"));
+    }, 200, "OK", "identity");
+  }
+
+  @Test
+  public void testPrecompressedNegotiation() throws Exception {
+    stat.setWebRoot(precompressedWebRoot().getPath());
+    stat.setServePrecompressedFiles(true);
+    // same weight, the server preference wins
+    testRequest(HttpMethod.GET, "/app.js", req -> req.putHeader("accept-encoding", "gzip, deflate, br"), res -> {
+      assertEquals("br", res.headers().get("content-encoding"));
+      assertEquals("accept-encoding", res.headers().get("vary"));
+      assertEquals("2", res.headers().get("content-length"));
+      assertTrue(res.headers().get("content-type").startsWith("text/javascript"));
+    }, 200, "OK", "br");
+    testRequest(HttpMethod.GET, "/app.js", req -> req.putHeader("accept-encoding", "br;q=0.5, gzip"), res -> {
+      assertEquals("gzip", res.headers().get("content-encoding"));
+    }, 200, "OK", "gzip");
+    testRequest(HttpMethod.GET, "/app.js", req -> req.putHeader("accept-encoding", "zstd, *;q=0.1"), res -> {
+      assertEquals("br", res.headers().get("content-encoding"));
+    }, 200, "OK", "br");
+    testRequest(HttpMethod.GET, "/app.js", req -> req.putHeader("accept-encoding", "deflate"), res -> {
+      assertNull(res.headers().get("content-encoding"));
+    }, 200, "OK", "identity");
+    testRequest(HttpMethod.GET, "/app.js", req -> req.putHeader("accept-encoding", "br;q=0, gzip;q=0"), res -> {
+      assertNull(res.headers().get("content-encoding"));
+    }, 200, "OK", "identity");
+    testRequest(HttpMethod.GET, "/app.js", null, res -> {
+      assertNull(res.headers().get("content-encoding"));
+      assertEquals("accept-encoding", res.headers().get("vary"));
+    }, 200, "OK", "identity");
+  }
+
+  @Test
+  public void testPrecompressedProbedOnce() throws Exception {
+    File webroot = new File("target/.vertx/webroot-precompressed-once");
+    webroot.mkdirs();
+    Files.write(new File(webroot, "app.js").toPath(), "identity".getBytes());
+    File sibling = new File(webroot, "app.js.br");
+    sibling.delete();
+    stat.setWebRoot(webroot.getPath());
+    stat.setServePrecompressedFiles(true);
+    testRequest(HttpMethod.GET, "/app.js", req -> req.putHeader("accept-encoding", "br"), res -> {
+      assertNull(res.headers().get("content-encoding"));
+    }, 200, "OK", "identity");
+    // the siblings found by the first request are reused while the file is unchanged
+    Files.write(sibling.toPath(), "br".getBytes());
+    testRequest(HttpMethod.GET, "/app.js", req -> req.putHeader("accept-encoding", "br"), res -> {
+      assertNull(res.headers().get("content-encoding"));
+    }, 200, "OK", "identity");
+  }
+
+  @Test
+  public void testPrecompressedRangeUsesIdentity() throws Exception {
+    stat.setWebRoot(precompressedWebRoot().getPath());
+    stat.setServePrecompressedFiles(true);
+    testRequest(HttpMethod.GET, "/app.js", req -> req.putHeader("accept-encoding", "br").putHeader("range", "bytes=0-1"), res -> {
+      assertNull(res.headers().get("content-encoding"));
+      assertEquals("bytes 0-1/8", res.headers().get("content-range"));
+    }, 206, "Partial Content", "id");
+  }
+
+  @Test
+  public void testStrongETag() throws Exception {
+    stat.setWebRoot(precompressedWebRoot().getPath());
+    stat.setEnableStrongETags(true);
+    String etag = "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(MessageDigest.getInstance("SHA-256").digest("identity".getBytes())) + "\"";
+    testRequest(HttpMethod.GET, "/app.js", null, res -> {
+      assertEquals(etag, res.headers().get("etag"));
+    }, 200, "OK", "identity");
+    // the etag wins over a last modified time from another server
+    testRequest(HttpMethod.GET, "/app.js", req -> req.putHeader("if-none-match", etag).putHeader("if-modified-since", Utils.formatRFC1123DateTime(0)), res -> {
+      assertEquals(etag, res.headers().get("etag"));
+    }, 304, "Not Modified", null);
+    testRequest(HttpMethod.GET, "/app.js", req -> req.putHeader("if-none-match", "\"other\""), null, 200, "OK", "identity");
+  }
+
+  @Test
+  public void testStrongETagComputedOnce() throws Exception {
+    File webroot = new File("target/.vertx/webroot-etag-once");
+    webroot.mkdirs();
+    File file = new File(webroot, "app.js");
+    Files.write(file.toPath(), "identity".getBytes());
+    stat.setWebRoot(webroot.getPath());
+    stat.setEnableStrongETags(true);
+    String etag = "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(MessageDigest.getInstance("SHA-256").digest("identity".getBytes())) + "\"";
+    testRequest(HttpMethod.GET, "/app.js", null, res -> {
+      assertEquals(etag, res.headers().get("etag"));
+    }, 200, "OK", "identity");
+    // the same size and last modified time, a new digest would give another etag
+    long lastModified = file.lastModified();
+    Files.write(file.toPath(), "IDENTITY".getBytes());
+    assertTrue(file.setLastModified(lastModified));
+    testRequest(HttpMethod.GET, "/app.js", null, res -> {
+      assertEquals(etag, res.headers().get("etag"));
+    }, 200, "OK", "IDENTITY");
+  }
+
+  private File writeManifest(String json) throws Exception {
+    File manifest = new File("target/.vertx/etags.json");
+    manifest.getParentFile().mkdirs();
+    Files.write(manifest.toPath(), json.getBytes());
+    return manifest;
+  }
+
+  @Test
+  public void testStrongETagManifest() throws Exception {
+    File webroot = precompressedWebRoot();
+    stat.setWebRoot(webroot.getPath());
+    stat.setETagManifest(writeManifest("{\"/app.js\": \"v1\", \"app.js.br\": \"v1-br\"}").getPath());
+    stat.setServePrecompressedFiles(true);
+    testRequest(HttpMethod.GET, "/app.js", null, res -> {
+      assertEquals("\"v1\"", res.headers().get("etag"));
+    }, 200, "OK", "identity");
+    testRequest(HttpMethod.GET, "/app.js", req -> req.putHeader("accept-encoding", "br"), res -> {
+      assertEquals("\"v1-br\"", res.headers().get("etag"));
+    }, 200, "OK", "br");
+    testRequest(HttpMethod.GET, "/app.js", req -> req.putHeader("accept-encoding", "br").putHeader("if-none-match", "\"v1\""), null, 200, "OK", "br");
+    testRequest(HttpMethod.GET, "/app.js", req -> req.putHeader("accept-encoding", "br").putHeader("if-none-match", "\"v1-br\""), null, 304, "Not Modified", null);
+    // not in the manifest, computed
+    testRequest(HttpMethod.GET, "/app.js", req -> req.putHeader("accept-encoding", "gzip"), res -> {
+      assertTrue(res.headers().get("etag").length() > 40);
+    }, 200, "OK", "gzip");
+  }
+
   @Test
   public void testDirectoryListingText() throws Exception {
     stat.setDirectoryListing(true);
@@ -738,6 +929,94 @@ public class StaticHandlerTest extends WebTestBase {
     }, 206, "Partial Content", null);
   }
 
+  @Test
+  public void testMultipleRanges() throws Exception {
+    stat.setEnableRangeSupport(true);
+    byte[] file = Files.readAllBytes(new File("src/test/resources/webroot/somedir/range.jpg").toPath());
+    testRequest(HttpMethod.GET, "/somedir/range.jpg", req -> req.headers().set("Range", "bytes=0-9, 15000-, -3"), res -> res.bodyHandler(buff -> {
+      String contentType = res.headers().get("Content-Type");
+      assertTrue(contentType.startsWith("multipart/byteranges; boundary="));
+      String boundary = contentType.substring("multipart/byteranges; boundary=".length());
+      assertEquals(Integer.toString(buff.length()), res.headers().get("Content-Length"));
+
+      Buffer expected = Buffer.buffer();
+      int[][] ranges = {{0, 9}, {15000, 15782}, {15780, 15782}};
+      for (int i = 0; i < ranges.length; i++) {
+        expected.appendString((i > 0 ? "\r\n" : "") + "--" + boundary + "\r\nContent-Type: image/jpeg\r\nContent-Range: bytes " + ranges[i][0] + "-" + ranges[i][1] + "/15783\r\n\r\n");
+        expected.appendBytes(Arrays.copyOfRange(file, ranges[i][0], ranges[i][1] + 1));
+      }
+      expected.appendString("\r\n--" + boundary + "--\r\n");
+      assertEquals(expected, buff);
+      testComplete();
+    }), 206, "Partial Content", null);
+    await();
+  }
+
+  @Test
+  public void testMultipleRangesFromContentCache() throws Exception {
+    stat.setEnableRangeSupport(true);
+    stat.setMaxContentCacheSize(1024 * 1024);
+    byte[] file = Files.readAllBytes(new File("src/test/resources/webroot/somedir/range.jpg").toPath());
+    // the first request fills the cache
+    testRequest(HttpMethod.GET, "/somedir/range.jpg", 200, "OK");
+    testRequest(HttpMethod.GET, "/somedir/range.jpg", req -> req.headers().set("Range", "bytes=1-2,4-5"), res -> res.bodyHandler(buff -> {
+      String body = buff.toString(StandardCharsets.ISO_8859_1);
+      assertEquals(Integer.toString(buff.length()), res.headers().get("Content-Length"));
+      assertTrue(body.contains("Content-Range: bytes 1-2/15783\r\n\r\n" + new String(file, 1, 2, StandardCharsets.ISO_8859_1)));
+      assertTrue(body.contains("Content-Range: bytes 4-5/15783\r\n\r\n" + new String(file, 4, 2, StandardCharsets.ISO_8859_1)));
+      testComplete();
+    }), 206, "Partial Content", null);
+    await();
+  }
+
+  @Test
+  public void testRangeNotSatisfiable() throws Exception {
+    stat.setEnableRangeSupport(true);
+    testRequest(HttpMethod.GET, "/somedir/range.jpg", req -> req.headers().set("Range", "bytes=20000-, 30000-30001"), res -> {
+      assertEquals("bytes */15783", res.headers().get("Content-Range"));
+    }, 416, "Requested Range Not Satisfiable", null);
+    // not a byte range, ignored
+    testRequest(HttpMethod.GET, "/somedir/range.jpg", req -> req.headers().set("Range", "bytes=a-b"), res -> {
+      assertEquals("15783", res.headers().get("Content-Length"));
+    }, 200, "OK", null);
+    // overlapping ranges larger than the file, ignored
+    testRequest(HttpMethod.GET, "/somedir/range.jpg", req -> req.headers().set("Range", "bytes=0-, 0-"), res -> {
+      assertEquals("15783", res.headers().get("Content-Length"));
+    }, 200, "OK", null);
+    // no range at all, ignored
+    testRequest(HttpMethod.GET, "/somedir/range.jpg", req -> req.headers().set("Range", "bytes= , "), res -> {
+      assertEquals("15783", res.headers().get("Content-Length"));
+      assertNull(res.headers().get("Content-Range"));
+    }, 200, "OK", null);
+  }
+
+  @Test
+  public void testIfRange() throws Exception {
+    stat.setEnableRangeSupport(true);
+    AtomicReference<String> lastModified = new AtomicReference<>();
+    testRequest(HttpMethod.HEAD, "/somedir/range.jpg", null, res -> lastModified.set(res.headers().get("Last-Modified")), 200, "OK", null);
+    long modified = Utils.parseRFC1123DateTime(lastModified.get());
+    testRequest(HttpMethod.GET, "/somedir/range.jpg", req -> req.headers().set("Range", "bytes=0-999").set("If-Range", lastModified.get()), res -> {
+      assertEquals("bytes 0-999/15783", res.headers().get("Content-Range"));
+    }, 206, "Partial Content", null);
+    testRequest(HttpMethod.GET, "/somedir/range.jpg", req -> req.headers().set("Range", "bytes=0-999").set("If-Range", Utils.formatRFC1123DateTime(modified - 1000)), res -> {
+      assertNull(res.headers().get("Content-Range"));
+      assertEquals("15783", res.headers().get("Content-Length"));
+    }, 200, "OK", null);
+    testRequest(HttpMethod.GET, "/somedir/range.jpg", req -> req.headers().set("Range", "bytes=0-999").set("If-Range", "\"some-etag\""), res -> {
+      assertEquals("15783", res.headers().get("Content-Length"));
+    }, 200, "OK", null);
+  }
+
+  @Test
+  public void testIfRangeStrongETag() throws Exception {
+    stat.setEnableRangeSupport(true);
+    stat.setWebRoot(precompressedWebRoot().getPath());
+    stat.setETagManifest(writeManifest("{\"app.js\": \"v1\"}").getPath());
+    testRequest(HttpMethod.GET, "/app.js", req -> req.headers().set("Range", "bytes=0-1").set("If-Range", "\"v1\""), null, 206, "Partial Content", "id");
+    testRequest(HttpMethod.GET, "/app.js", req -> req.headers().set("Range", "bytes=0-1").set("If-Range", "W/\"v1\""), null, 200, "OK", "identity");
+  }
+
   @Test
   public void testRangeAwareRequestBody() throws Exception {
     stat.setEnableRangeSupport(true);
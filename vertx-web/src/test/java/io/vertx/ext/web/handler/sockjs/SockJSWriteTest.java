@@ -81,6 +81,26 @@ public class SockJSWriteTest extends SockJSTestBase {
     await();
   }
 
+  @Test
+  public void testWebSocketCoalesced() throws Exception {
+    waitFor(3);
+    socketHandler = () -> socket -> {
+      socket.write("foo", onSuccess(v -> complete()));
+      socket.write("bär\n\"", onSuccess(v -> complete()));
+    };
+    startServers();
+    client.webSocket("/test/400/8ne8e94a/websocket", onSuccess(ws -> {
+      ws.handler(buffer -> {
+        if (buffer.toString().startsWith("a")) {
+          // both messages are sent in a single frame
+          assertEquals("a[\"foo\",\"b\\u00e4r\\n\\\"\"]", buffer.toString());
+          complete();
+        }
+      });
+    }));
+    await();
+  }
+
   @Test
   public void testWebSocketFailure() throws Exception {
     String expected = TestUtils.randomAlphaString(64);
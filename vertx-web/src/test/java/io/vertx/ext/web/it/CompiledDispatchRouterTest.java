@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2011-2022 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.web.it;
+
+import io.vertx.core.http.HttpMethod;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RouterTest;
+import org.junit.Test;
+
+/**
+ * Runs the whole router test suite with the compiled dispatch enabled
+ * ({@code -Dio.vertx.web.router.compiled-dispatch=true}).
+ */
+public class CompiledDispatchRouterTest extends RouterTest {
+
+  @Test
+  public void testManyRoutesKeepOrder() throws Exception {
+    for (int i = 0; i < 500; i++) {
+      final int id = i;
+      router.get("/static/" + i).handler(rc -> rc.response().end("static" + id));
+      router.get("/param/" + i + "/:id").handler(rc -> rc.response().end("param" + id + rc.pathParam("id")));
+    }
+    // a regex route and a prefix route added last but with higher priority
+    router.getWithRegex("/static/1\\d*").order(-2).handler(rc -> rc.response().end("regex"));
+    router.route("/param/7*").order(-1).handler(rc -> rc.response().end("prefix"));
+
+    testRequest(HttpMethod.GET, "/static/42", 200, "OK", "static42");
+    testRequest(HttpMethod.GET, "/static/42/", 200, "OK", "static42");
+    testRequest(HttpMethod.GET, "/static/100", 200, "OK", "regex");
+    testRequest(HttpMethod.GET, "/param/42/abc", 200, "OK", "param42abc");
+    testRequest(HttpMethod.GET, "/param/77/abc", 200, "OK", "prefix");
+    testRequest(HttpMethod.GET, "/param/42", 404, "Not Found");
+    testRequest(HttpMethod.POST, "/static/42", 405, "Method Not Allowed");
+    testRequest(HttpMethod.GET, "/unknown", 404, "Not Found");
+  }
+
+  @Test
+  public void testPathChangedAfterDispatch() throws Exception {
+    router.get("/before").handler(rc -> rc.response().end());
+    testRequest(HttpMethod.GET, "/before", 200, "OK");
+    router.getRoutes().get(0).path("/after");
+    testRequest(HttpMethod.GET, "/before", 404, "Not Found");
+    testRequest(HttpMethod.GET, "/after", 200, "OK");
+  }
+
+  @Test
+  public void testSubRouterPrefixes() throws Exception {
+    Router subRouter = Router.router(vertx);
+    subRouter.get("/").handler(rc -> rc.response().end("root"));
+    subRouter.get("/items/:id").handler(rc -> rc.response().end(rc.pathParam("id")));
+    subRouter.route("/*").handler(rc -> rc.response().end("any"));
+    router.route("/api*").subRouter(subRouter);
+
+    testRequest(HttpMethod.GET, "/api", 200, "OK", "root");
+    testRequest(HttpMethod.GET, "/api/", 200, "OK", "root");
+    testRequest(HttpMethod.GET, "/api/items/5", 200, "OK", "5");
+    testRequest(HttpMethod.GET, "/api/other", 200, "OK", "any");
+    testRequest(HttpMethod.GET, "/apifoo", 200, "OK", "any");
+  }
+
+  @Test
+  public void testSkippedRoutesKeepRestParam() throws Exception {
+    router.route("/foo/*").handler(rc -> rc.next());
+    router.get("/other").handler(rc -> rc.response().end("other"));
+    router.get("/other/:id").handler(rc -> rc.response().end(rc.pathParam("id")));
+    router.route().handler(rc -> rc.response().end(String.valueOf(rc.pathParam("*"))));
+
+    // the other routes are never evaluated for this path, so they do not reset the rest param
+    testRequest(HttpMethod.GET, "/foo/bar", 200, "OK", "bar");
+  }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2011-2022 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.web.it;
+
+import io.vertx.core.http.HttpMethod;
+import io.vertx.ext.web.RouterTest;
+import org.junit.Test;
+
+/**
+ * Runs the whole router test suite with the exact path index enabled
+ * ({@code -Dio.vertx.web.router.exact-path-index=true}).
+ */
+public class ExactPathIndexRouterTest extends RouterTest {
+
+  @Test
+  public void testManyExactRoutes() throws Exception {
+    for (int i = 0; i < 500; i++) {
+      final int id = i;
+      router.get("/static/" + i).handler(rc -> rc.response().end("static" + id));
+    }
+    router.get("/static/:id").handler(rc -> rc.response().end("param" + rc.pathParam("id")));
+
+    testRequest(HttpMethod.GET, "/static/42", 200, "OK", "static42");
+    testRequest(HttpMethod.GET, "/static/42/", 200, "OK", "static42");
+    testRequest(HttpMethod.GET, "/static/abc", 200, "OK", "paramabc");
+    testRequest(HttpMethod.POST, "/static/42", 405, "Method Not Allowed");
+  }
+
+  @Test
+  public void testSkippedExactRouteKeepsRestParam() throws Exception {
+    router.route("/foo/*").handler(rc -> rc.next());
+    router.get("/other").handler(rc -> rc.response().end("other"));
+    router.route().handler(rc -> rc.response().end(String.valueOf(rc.pathParam("*"))));
+
+    // the exact route is never evaluated for this path, so it does not reset the rest param
+    testRequest(HttpMethod.GET, "/foo/bar", 200, "OK", "bar");
+  }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2011-2022 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.web.it;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.sstore.ClusteredSessionHandlerTest;
+import io.vertx.ext.web.sstore.impl.SharedDataSessionImpl;
+import io.vertx.test.core.TestUtils;
+import org.junit.Test;
+
+/**
+ * Runs the clustered session test suite with the legacy session format
+ * ({@code -Dio.vertx.web.session.legacy-format=true}).
+ */
+public class LegacySessionFormatTest extends ClusteredSessionHandlerTest {
+
+  @Override
+  public void testSessionSerializationCompressed() {
+    // the legacy format is not compressed
+  }
+
+  @Test
+  public void testSessionSerializationLegacyWritten() {
+    SharedDataSessionImpl session = (SharedDataSessionImpl) store.createSession(123);
+    String large = TestUtils.randomAlphaString(2048);
+    session.put("large", large);
+    session.put("json", new JsonObject().put("foo", "bar"));
+    Buffer buffer = Buffer.buffer();
+    session.writeToBuffer(buffer);
+    // the data starts with the number of entries
+    int pos = 4 + session.id().length() + 8 + 8 + 4;
+    assertEquals(2, buffer.getInt(pos));
+    assertTrue(buffer.length() > large.length());
+    SharedDataSessionImpl session2 = (SharedDataSessionImpl) store.createSession(0);
+    assertEquals(buffer.length(), session2.readFromBuffer(0, buffer));
+    assertEquals(large, session2.get("large"));
+    assertEquals(new JsonObject().put("foo", "bar"), session2.get("json"));
+  }
+}
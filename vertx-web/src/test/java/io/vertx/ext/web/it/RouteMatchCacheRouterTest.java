@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2011-2022 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.web.it;
+
+import io.vertx.core.http.HttpMethod;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RouterTest;
+import org.junit.Test;
+
+/**
+ * Runs the whole router test suite with the route match cache enabled
+ * ({@code -Dio.vertx.web.router.match-cache-size=16}).
+ */
+public class RouteMatchCacheRouterTest extends RouterTest {
+
+  @Test
+  public void testCachedPathKeepsParamsAndMethod() throws Exception {
+    router.get("/items/:id").handler(rc -> rc.response().end(rc.pathParam("id")));
+    router.getWithRegex("/re/(\\d+)").handler(rc -> rc.response().end(rc.pathParam("param0")));
+
+    for (int i = 0; i < 3; i++) {
+      testRequest(HttpMethod.GET, "/items/a" + i, 200, "OK", "a" + i);
+      testRequest(HttpMethod.GET, "/re/" + i, 200, "OK", "" + i);
+      testRequest(HttpMethod.POST, "/items/a" + i, 405, "Method Not Allowed");
+      testRequest(HttpMethod.GET, "/re/x" + i, 404, "Not Found");
+    }
+  }
+
+  @Test
+  public void testCachedPathHeaderConstraints() throws Exception {
+    router.get("/data").produces("application/json").handler(rc -> rc.response().end("json"));
+    router.get("/data").produces("text/plain").handler(rc -> rc.response().end("text"));
+
+    for (int i = 0; i < 2; i++) {
+      testRequest(HttpMethod.GET, "/data", req -> req.putHeader("accept", "application/json"), 200, "OK", "json");
+      testRequest(HttpMethod.GET, "/data", req -> req.putHeader("accept", "text/plain"), 200, "OK", "text");
+      testRequestWithAccepts(HttpMethod.GET, "/data", "text/html", 406, "Not Acceptable");
+    }
+  }
+
+  @Test
+  public void testCacheDiscardedOnRouteChange() throws Exception {
+    router.get("/before").handler(rc -> rc.response().end());
+    testRequest(HttpMethod.GET, "/before", 200, "OK");
+    testRequest(HttpMethod.GET, "/after", 404, "Not Found");
+    router.getRoutes().get(0).path("/after");
+    testRequest(HttpMethod.GET, "/before", 404, "Not Found");
+    testRequest(HttpMethod.GET, "/after", 200, "OK");
+    router.get("/before").handler(rc -> rc.response().end());
+    testRequest(HttpMethod.GET, "/before", 200, "OK");
+  }
+
+  @Test
+  public void testSubRouterMountedTwice() throws Exception {
+    Router subRouter = Router.router(vertx);
+    subRouter.get("/:id").handler(rc -> rc.response().end(rc.pathParam("id")));
+    router.route("/a/*").subRouter(subRouter);
+    router.route("/b/*").subRouter(subRouter);
+
+    for (int i = 0; i < 40; i++) {
+      testRequest(HttpMethod.GET, "/a/" + i, 200, "OK", "" + i);
+      testRequest(HttpMethod.GET, "/b/" + i, 200, "OK", "" + i);
+    }
+  }
+}
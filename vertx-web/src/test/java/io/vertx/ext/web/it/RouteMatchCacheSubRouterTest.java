@@ -0,0 +1,26 @@
+/*
+ * Copyright (c) 2011-2022 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.web.it;
+
+import io.vertx.ext.web.SubRouterTest;
+
+/**
+ * Runs the sub router test suite with the route match cache enabled
+ * ({@code -Dio.vertx.web.router.match-cache-size=16}).
+ */
+public class RouteMatchCacheSubRouterTest extends SubRouterTest {
+}
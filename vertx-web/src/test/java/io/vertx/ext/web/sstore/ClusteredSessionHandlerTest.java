@@ -181,6 +181,64 @@ public class ClusteredSessionHandlerTest extends SessionHandlerTestBase {
     assertEquals(session.id(), session2.id());
   }
 
+  @Test
+  public void testSessionSerializationCompressed() {
+    SharedDataSessionImpl session = (SharedDataSessionImpl) store.createSession(123);
+    stuffSession(session);
+    String large = TestUtils.randomAlphaString(10) + new String(new char[4096]).replace('\0', 'x');
+    session.put("large", large);
+    session.put("negativeint", -1234);
+    session.put("negativelong", Long.MIN_VALUE);
+    // a class without a registered id, repeated
+    for (int i = 0; i < 3; i++) {
+      SharedDataSessionImpl nested = (SharedDataSessionImpl) store.createSession(i);
+      nested.put("i", i);
+      session.put("nested" + i, nested);
+    }
+    Buffer buffer = Buffer.buffer();
+    session.writeToBuffer(buffer);
+    // compressed
+    assertTrue(buffer.length() < large.length());
+    SharedDataSessionImpl session2 = (SharedDataSessionImpl) store.createSession(0);
+    assertEquals(buffer.length(), session2.readFromBuffer(0, buffer));
+    checkSession(session2);
+    assertEquals(large, session2.get("large"));
+    assertEquals(-1234, (int) session2.get("negativeint"));
+    assertEquals(Long.MIN_VALUE, (long) session2.get("negativelong"));
+    for (int i = 0; i < 3; i++) {
+      SharedDataSessionImpl nested = session2.get("nested" + i);
+      assertEquals(i, nested.timeout());
+      assertEquals(i, (int) nested.get("i"));
+    }
+  }
+
+  @Test
+  public void testSessionSerializationLegacyFormat() {
+    String id = "0123456789abcdef";
+    Buffer json = Buffer.buffer();
+    new JsonObject().put("foo", "bar").writeToBuffer(json);
+    String className = JsonObject.class.getName();
+    // the format written by the previous versions
+    Buffer buffer = Buffer.buffer()
+      .appendInt(id.length()).appendString(id)
+      .appendLong(123)
+      .appendLong(456)
+      .appendInt(7)
+      .appendInt(2)
+      .appendInt(1).appendString("a").appendByte((byte) 2).appendInt(-5)
+      .appendInt(1).appendString("j").appendByte((byte) 13)
+      .appendInt(className.length()).appendString(className).appendBuffer(json);
+
+    SharedDataSessionImpl session = (SharedDataSessionImpl) store.createSession(0);
+    assertEquals(buffer.length(), session.readFromBuffer(0, buffer));
+    assertEquals(id, session.id());
+    assertEquals(123, session.timeout());
+    assertEquals(456, session.lastAccessed());
+    assertEquals(7, session.version());
+    assertEquals(-5, (int) session.get("a"));
+    assertEquals("bar", ((JsonObject) session.get("j")).getString("foo"));
+  }
+
   private void stuffSession(Session session) {
     session.put("somelong", 123456L);
     session.put("someint", 1234);
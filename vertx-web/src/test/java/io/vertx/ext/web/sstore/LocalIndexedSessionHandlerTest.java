@@ -0,0 +1,53 @@
+/*
+ * Copyright 2022 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.web.sstore;
+
+import io.vertx.ext.web.Session;
+import io.vertx.ext.web.handler.SessionHandlerTestBase;
+import org.junit.Test;
+
+public class LocalIndexedSessionHandlerTest extends SessionHandlerTestBase {
+
+  @Override
+  public void setUp() throws Exception {
+    super.setUp();
+    store = LocalSessionStore.create(vertx, "indexed-sessions", 100, true);
+  }
+
+  @Test
+  public void testAccessedSessionIsNotExpired() throws Exception {
+    Session expiring = store.createSession(300);
+    Session accessed = store.createSession(300);
+    store.put(expiring)
+      .compose(v -> store.put(accessed))
+      .onComplete(onSuccess(v -> {
+        // keep accessing one session without storing it again
+        long timer = vertx.setPeriodic(50, id -> accessed.setAccessed());
+        vertx.setTimer(800, id -> {
+          vertx.cancelTimer(timer);
+          store.get(expiring.id()).onComplete(onSuccess(s1 -> {
+            assertNull(s1);
+            store.get(accessed.id()).onComplete(onSuccess(s2 -> {
+              assertNotNull(s2);
+              testComplete();
+            }));
+          }));
+        });
+      }));
+    await();
+  }
+}
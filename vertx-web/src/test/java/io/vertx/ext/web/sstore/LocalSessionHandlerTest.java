@@ -16,11 +16,21 @@
 
 package io.vertx.ext.web.sstore;
 
+import io.vertx.core.Future;
 import io.vertx.core.http.HttpMethod;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.Session;
 import io.vertx.ext.web.handler.SessionHandler;
 import io.vertx.ext.web.handler.SessionHandlerTestBase;
+import io.vertx.ext.web.sstore.impl.LocalSessionStoreImpl;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
 /**
  * @author <a href="http://tfox.org">Tim Fox</a>
  */
@@ -58,4 +68,62 @@ public class LocalSessionHandlerTest extends SessionHandlerTestBase {
 
     testRequest(HttpMethod.GET, "/", 500, "Internal Server Error");
   }
+
+  @Test
+  public void testChangedKeys() {
+    AbstractSession session = (AbstractSession) store.createSession(10_000);
+    session.put("a", 1);
+    session.put("json", new JsonObject().put("x", 1));
+    assertEquals(2, session.changedKeys().size());
+    session.incrementVersion();
+    assertEquals(1, session.version());
+    assertTrue(session.changedKeys().isEmpty());
+
+    // same value is not a change
+    session.put("a", 1);
+    assertFalse(session.isModified());
+    session.incrementVersion();
+    assertEquals(1, session.version());
+
+    // modified in place
+    JsonObject json = session.get("json");
+    json.put("x", 2);
+    session.remove("a");
+    assertEquals(new HashSet<>(Arrays.asList("a", "json")), session.changedKeys());
+    session.incrementVersion();
+    assertEquals(2, session.version());
+
+    // the data map is handed out, fall back to the checksum
+    session.data().put("b", true);
+    assertNull(session.changedKeys());
+    assertTrue(session.isModified());
+    session.incrementVersion();
+    assertEquals(3, session.version());
+    assertTrue(session.changedKeys().isEmpty());
+  }
+
+  @Test
+  public void testPutChanges() throws Exception {
+    AtomicReference<Set<String>> changes = new AtomicReference<>();
+    LocalSessionStoreImpl changesStore = new LocalSessionStoreImpl() {
+      @Override
+      public Future<Void> putChanges(Session session, Set<String> changedKeys) {
+        changes.set(changedKeys);
+        return super.putChanges(session, changedKeys);
+      }
+    };
+    changesStore.init(vertx, new JsonObject().put("mapName", "changes-sessions"));
+
+    router.route().handler(SessionHandler.create(changesStore));
+    router.route().handler(rc -> {
+      rc.session().put("foo", "bar");
+      rc.response().end();
+    });
+    AtomicReference<String> cookie = new AtomicReference<>();
+    testRequest(HttpMethod.GET, "/", null, resp -> cookie.set(resp.headers().get("set-cookie")), 200, "OK", null);
+    assertEquals(Collections.singleton("foo"), changes.get());
+    // nothing changed the second time
+    testRequest(HttpMethod.GET, "/", req -> req.putHeader("cookie", cookie.get()), null, 200, "OK", null);
+    assertEquals(Collections.emptySet(), changes.get());
+  }
 }
@@ -0,0 +1,313 @@
+/*
+ * Copyright 2022 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.web.sstore;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.shareddata.LocalMap;
+import io.vertx.ext.auth.VertxContextPRNG;
+import io.vertx.ext.web.Session;
+import io.vertx.ext.web.handler.SessionHandlerTestBase;
+import io.vertx.ext.web.sstore.impl.SharedDataSessionImpl;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class NearCacheSessionHandlerTest extends SessionHandlerTestBase {
+
+  private final AtomicInteger remoteGets = new AtomicInteger();
+  // the number of the next puts the remote rejects
+  private final AtomicInteger remoteFailures = new AtomicInteger();
+  private final List<String> remoteEvents = Collections.synchronizedList(new ArrayList<>());
+  private long remotePutDelay;
+
+  @Override
+  public void setUp() throws Exception {
+    super.setUp();
+    store = NearCacheSessionStore.create(vertx, remote("near-cache-sessions"));
+  }
+
+  /**
+   * A remote store stand-in, sessions are serialized so each get returns a copy.
+   */
+  private SessionStore remote(String mapName) {
+    LocalMap<String, Buffer> map = vertx.sharedData().getLocalMap(mapName);
+    VertxContextPRNG random = VertxContextPRNG.current(vertx);
+    return new SessionStore() {
+      @Override
+      public SessionStore init(Vertx vertx, JsonObject options) {
+        return this;
+      }
+
+      @Override
+      public long retryTimeout() {
+        return 0;
+      }
+
+      @Override
+      public Session createSession(long timeout) {
+        return new SharedDataSessionImpl(random, timeout, DEFAULT_SESSIONID_LENGTH);
+      }
+
+      @Override
+      public Session createSession(long timeout, int length) {
+        return new SharedDataSessionImpl(random, timeout, length);
+      }
+
+      @Override
+      public Future<Session> get(String cookieValue) {
+        remoteGets.incrementAndGet();
+        return Future.succeededFuture(read(map.get(cookieValue)));
+      }
+
+      @Override
+      public Future<Void> delete(String cookieValue) {
+        remoteEvents.add("delete");
+        map.remove(cookieValue);
+        return Future.succeededFuture();
+      }
+
+      @Override
+      public Future<Void> put(Session session) {
+        if (remoteFailures.getAndDecrement() > 0) {
+          return Future.failedFuture("Remote unavailable");
+        }
+        if (remotePutDelay > 0) {
+          Promise<Void> promise = Promise.promise();
+          vertx.setTimer(remotePutDelay, t -> {
+            remoteEvents.add("put");
+            promise.complete();
+          });
+          return promise.future();
+        }
+        SharedDataSessionImpl stored = read(map.get(session.id()));
+        SharedDataSessionImpl newSession = (SharedDataSessionImpl) session;
+        if (stored != null && stored.version() != newSession.version()) {
+          return Future.failedFuture("Session version mismatch");
+        }
+        newSession.incrementVersion();
+        Buffer buffer = Buffer.buffer();
+        newSession.writeToBuffer(buffer);
+        map.put(session.id(), buffer);
+        return Future.succeededFuture();
+      }
+
+      @Override
+      public Future<Void> clear() {
+        map.clear();
+        return Future.succeededFuture();
+      }
+
+      @Override
+      public Future<Integer> size() {
+        return Future.succeededFuture(map.size());
+      }
+
+      @Override
+      public void close() {
+        remoteEvents.add("close");
+      }
+
+      private SharedDataSessionImpl read(Buffer buffer) {
+        if (buffer == null) {
+          return null;
+        }
+        SharedDataSessionImpl session = new SharedDataSessionImpl(random);
+        session.readFromBuffer(0, buffer);
+        // expires like a remote store would
+        if (System.currentTimeMillis() - session.lastAccessed() > session.timeout()) {
+          return null;
+        }
+        return session;
+      }
+    };
+  }
+
+  @Test
+  public void testCacheHit() {
+    Session session = store.createSession(30_000);
+    session.put("foo", "bar");
+    store.put(session)
+      .compose(v -> store.get(session.id()))
+      .compose(v -> store.get(session.id()))
+      .onComplete(onSuccess(cached -> {
+        assertEquals("bar", cached.get("foo"));
+        assertEquals(0, remoteGets.get());
+        testComplete();
+      }));
+    await();
+  }
+
+  @Test
+  public void testInvalidation() {
+    SessionStore remote = remote("near-cache-shared");
+    SessionStore node1 = NearCacheSessionStore.create(vertx, remote);
+    SessionStore node2 = NearCacheSessionStore.create(vertx, remote);
+
+    Session session = node1.createSession(30_000);
+    session.put("count", 1);
+    node1.put(session)
+      // both nodes have the session cached now
+      .compose(v -> node2.get(session.id()))
+      .compose(copy -> {
+        copy.put("count", 2);
+        return node2.put(copy);
+      })
+      .onComplete(onSuccess(v -> {
+        // the announcement of node2 is delivered asynchronously
+        vertx.setTimer(100, t -> node1.get(session.id()).onComplete(onSuccess(fresh -> {
+          assertEquals(2, (int) fresh.get("count"));
+          testComplete();
+        })));
+      }));
+    await();
+  }
+
+  @Test
+  public void testWriteBehind() {
+    SessionStore remote = remote("near-cache-write-behind");
+    SessionStore near = NearCacheSessionStore.create(vertx, remote, new JsonObject().put("writeBehindDelay", 200));
+
+    Session session = near.createSession(30_000);
+    session.put("foo", "bar");
+    near.put(session)
+      .compose(v -> remote.get(session.id()))
+      .onComplete(onSuccess(unwritten -> {
+        assertNull(unwritten);
+        // still served locally
+        near.get(session.id()).onComplete(onSuccess(local -> {
+          assertEquals("bar", local.get("foo"));
+          vertx.setTimer(500, t -> remote.get(session.id()).onComplete(onSuccess(written -> {
+            assertNotNull(written);
+            assertEquals("bar", written.get("foo"));
+            testComplete();
+          })));
+        }));
+      }));
+    await();
+  }
+
+  @Test
+  public void testWriteBehindRetry() {
+    SessionStore remote = remote("near-cache-write-behind-retry");
+    SessionStore near = NearCacheSessionStore.create(vertx, remote, new JsonObject().put("writeBehindDelay", 50));
+    remoteFailures.set(2);
+
+    Session session = near.createSession(30_000);
+    session.put("foo", "bar");
+    near.put(session).onComplete(onSuccess(v -> {
+      vertx.setTimer(500, t -> remote.get(session.id()).onComplete(onSuccess(written -> {
+        assertNotNull(written);
+        assertEquals("bar", written.get("foo"));
+        testComplete();
+      })));
+    }));
+    await();
+  }
+
+  @Test
+  public void testWriteBehindFailure() {
+    SessionStore remote = remote("near-cache-write-behind-failure");
+    SessionStore near = NearCacheSessionStore.create(vertx, remote, new JsonObject()
+      .put("writeBehindDelay", 50)
+      .put("writeBehindRetries", 1));
+    remoteFailures.set(2);
+
+    Session session = near.createSession(30_000);
+    session.put("foo", "bar");
+    near.put(session).onComplete(onSuccess(v -> {
+      vertx.setTimer(500, t -> {
+        // the lost write is reported by the next one
+        session.put("foo", "baz");
+        near.put(session).onComplete(onFailure(err -> {
+          assertEquals("Remote unavailable", err.getMessage());
+          near.put(session).onComplete(onSuccess(v2 -> testComplete()));
+        }));
+      });
+    }));
+    await();
+  }
+
+  @Test
+  public void testCloseWaitsForWrites() {
+    SessionStore remote = remote("near-cache-write-behind-close");
+    SessionStore near = NearCacheSessionStore.create(vertx, remote, new JsonObject().put("writeBehindDelay", 10));
+    remotePutDelay = 200;
+
+    Session session = near.createSession(30_000);
+    session.put("foo", "bar");
+    near.put(session).onComplete(onSuccess(v -> {
+      // the write is in flight
+      vertx.setTimer(50, t -> {
+        session.put("foo", "baz");
+        near.put(session).onComplete(onSuccess(v2 -> {
+          near.close();
+          testComplete();
+        }));
+      });
+    }));
+    await();
+    assertWaitUntil(() -> remoteEvents.contains("close"));
+    assertEquals(Arrays.asList("put", "put", "close"), remoteEvents);
+  }
+
+  @Test
+  public void testDeleteDropsWriteBehindRetry() {
+    SessionStore remote = remote("near-cache-write-behind-delete-retry");
+    SessionStore near = NearCacheSessionStore.create(vertx, remote, new JsonObject().put("writeBehindDelay", 100));
+    remoteFailures.set(1);
+
+    Session session = near.createSession(30_000);
+    session.put("foo", "bar");
+    near.put(session).onComplete(onSuccess(v -> {
+      // the first write failed, its retry is armed
+      vertx.setTimer(150, t -> near.delete(session.id()).onComplete(onSuccess(v2 -> {
+        vertx.setTimer(300, t2 -> remote.get(session.id()).onComplete(onSuccess(written -> {
+          // the retry did not re-create the deleted session
+          assertNull(written);
+          testComplete();
+        })));
+      })));
+    }));
+    await();
+  }
+
+  @Test
+  public void testDeleteWaitsForWrite() {
+    SessionStore remote = remote("near-cache-write-behind-delete");
+    SessionStore near = NearCacheSessionStore.create(vertx, remote, new JsonObject().put("writeBehindDelay", 10));
+    remotePutDelay = 200;
+
+    Session session = near.createSession(30_000);
+    session.put("foo", "bar");
+    near.put(session).onComplete(onSuccess(v -> {
+      // the write is in flight
+      vertx.setTimer(50, t -> near.delete(session.id()).onComplete(onSuccess(v2 -> {
+        assertEquals(Arrays.asList("put", "delete"), remoteEvents);
+        testComplete();
+      })));
+    }));
+    await();
+  }
+}